@@ -0,0 +1,111 @@
+package com.example.demo.Dataset;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Escribe filas en una tabla con COPY ... FROM STDIN (formato texto) sobre su propia conexión,
+ * acumulando en un buffer de 1 MB antes de enviar al servidor.
+ */
+final class CopyWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final String table;
+
+    private final Connection connection;
+
+    private final CopyIn copyIn;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private final StringBuilder row = new StringBuilder(256);
+
+    private final long startedAt = System.nanoTime();
+
+    private int position = 0;
+
+    private long rows = 0;
+
+    CopyWriter(DataSource dataSource, String table, List<String> columns) throws SQLException {
+        this.table = table;
+        this.connection = dataSource.getConnection();
+        this.connection.setAutoCommit(false);
+        this.copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN");
+    }
+
+    void write(Object... values) throws SQLException {
+        row.setLength(0);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append('\t');
+            }
+            append(values[i]);
+        }
+        row.append('\n');
+
+        byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+        if (position + bytes.length > buffer.length) {
+            flush();
+        }
+        if (bytes.length > buffer.length) {
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+        } else {
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+        rows++;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            flush();
+            copyIn.endCopy();
+            connection.commit();
+            double seconds = Math.max(1e-9, (System.nanoTime() - startedAt) / 1e9);
+            System.out.printf("  %-12s %,12d rows  %,10.0f rows/s%n", table, rows, rows / seconds);
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+            connection.close();
+        }
+    }
+
+    private void flush() throws SQLException {
+        if (position > 0) {
+            copyIn.writeToCopy(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void append(Object value) {
+        if (value == null) {
+            row.append("\\N");
+        } else if (value instanceof Boolean b) {
+            row.append(b ? 't' : 'f');
+        } else if (value instanceof String s) {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '\\' -> row.append("\\\\");
+                    case '\t' -> row.append("\\t");
+                    case '\n' -> row.append("\\n");
+                    case '\r' -> row.append("\\r");
+                    default -> row.append(c);
+                }
+            }
+        } else {
+            // Números y java.sql.Date (yyyy-MM-dd) ya tienen la representación que espera COPY
+            row.append(value);
+        }
+    }
+}
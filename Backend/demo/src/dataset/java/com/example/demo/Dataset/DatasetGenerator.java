@@ -0,0 +1,51 @@
+package com.example.demo.Dataset;
+
+import com.example.demo.Entities.CatalogChangeListener;
+import com.example.demo.Entities.ToolEntity;
+import com.example.demo.Services.CatalogVersionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+
+/**
+ * Genera un set de datos sintético con volúmenes de producción en una base PostgreSQL local.
+ * Levanta solo la capa JPA (sin web ni seguridad) para que Hibernate cree o actualice el esquema a partir
+ * de las entidades y entregue los nombres reales de tablas y columnas; las filas se escriben con COPY.
+ *
+ * Uso: ./gradlew generateDataset -Pseed=42 -Pscale=0.1 [-Ptruncate]
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {SecurityAutoConfiguration.class, UserDetailsServiceAutoConfiguration.class})
+@EntityScan(basePackageClasses = ToolEntity.class)
+@Import({CatalogVersionService.class, CatalogChangeListener.class})
+public class DatasetGenerator {
+
+    public static void main(String[] args) throws Exception {
+        SyntheticDataset.Options options = SyntheticDataset.Options.parse(args);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DatasetGenerator.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .properties("spring.jpa.hibernate.ddl-auto=update",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false")
+                .run()) {
+
+            SessionFactoryImplementor sessionFactory = context.getBean(EntityManagerFactory.class)
+                    .unwrap(SessionFactoryImplementor.class);
+            new SyntheticDataset(context.getBean(DataSource.class), sessionFactory,
+                    context.getBean(CatalogVersionService.class), options).generate();
+        }
+    }
+}
@@ -0,0 +1,486 @@
+package com.example.demo.Dataset;
+
+import com.example.demo.Entities.*;
+import com.example.demo.Services.CatalogVersionService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * Set de datos determinista (misma semilla, mismas filas) con popularidad sesgada (Zipf) de herramientas.
+ * El historial se simula en orden cronológico: cada préstamo, devolución, reparación, baja y reposición
+ * genera su movimiento de kardex y mueve el stock, así el inventario final coincide con el kardex.
+ * La simulación corre dos veces con la misma semilla: primero se escriben los préstamos y después
+ * las líneas y el kardex, para que las claves foráneas a loan ya estén confirmadas.
+ */
+final class SyntheticDataset {
+
+    /**
+     * Volúmenes a escala 1.0: 50k herramientas, 200k clientes, 2M préstamos y ~6M líneas de préstamo.
+     * El kardex (~14M filas) se deriva de la simulación.
+     */
+    record Options(long seed, double scale, boolean truncate, int years) {
+
+        static Options parse(String[] args) {
+            long seed = 42L;
+            double scale = 1.0;
+            boolean truncate = false;
+            int years = 3;
+            for (String arg : args) {
+                if (arg.startsWith("--seed=")) {
+                    seed = Long.parseLong(arg.substring("--seed=".length()));
+                } else if (arg.startsWith("--scale=")) {
+                    scale = Double.parseDouble(arg.substring("--scale=".length()));
+                } else if (arg.startsWith("--years=")) {
+                    years = Integer.parseInt(arg.substring("--years=".length()));
+                } else if (arg.equals("--truncate")) {
+                    truncate = true;
+                } else {
+                    throw new IllegalArgumentException("Argumento desconocido: " + arg);
+                }
+            }
+            return new Options(seed, scale, truncate, years);
+        }
+
+        int scaled(int base) {
+            return Math.max(1, (int) Math.round(base * scale));
+        }
+    }
+
+    private static final String[] STATES = {"DISPONIBLE", "PRESTADA", "EN REPARACION", "DADA DE BAJA", "EN TRANSITO", "RESERVADA"};
+    private static final String[] STATE_COLORS = {"#22c55e", "#3b82f6", "#f59e0b", "#ef4444", "#8b5cf6", "#64748b"};
+    private static final int AVAILABLE = 0;
+    private static final int LOANED = 1;
+    private static final int REPAIR = 2;
+    private static final int REMOVED = 3;
+
+    private static final int CATEGORIES = 25;
+    private static final int EMPLOYEES = 10;
+    private static final long ADMIN_ID = 1;
+    private static final long FIRST_EMPLOYEE_ID = 2;
+    private static final long FIRST_CLIENT_ID = FIRST_EMPLOYEE_ID + EMPLOYEES;
+    private static final int MAX_ACTIVE_LOANS = 5;
+    private static final int MAX_LINES_PER_LOAN = 5;
+    private static final int RESTOCK_UNITS = 5;
+
+    // Tipos de evento diferidos de la simulación
+    private static final int RETURN = 0;
+    private static final int PAY_DEBT = 1;
+    private static final int PAY_REPAIR = 2;
+
+    private final DataSource dataSource;
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    private final CatalogVersionService catalogVersionService;
+
+    private final Options options;
+
+    private final int tools;
+
+    private final int clients;
+
+    private final int loans;
+
+    private final int[] toolCategory;
+
+    private final int[] priceRent;
+
+    private final int[] priceFine;
+
+    private final int[] repoCost;
+
+    private final int[] popularityRank;
+
+    private final ZipfSampler popularity;
+
+    private final long today = LocalDate.now().toEpochDay();
+
+    private final long startDay;
+
+    private int[][] stock;
+
+    SyntheticDataset(DataSource dataSource, SessionFactoryImplementor sessionFactory,
+                     CatalogVersionService catalogVersionService, Options options) {
+        this.dataSource = dataSource;
+        this.sessionFactory = sessionFactory;
+        this.catalogVersionService = catalogVersionService;
+        this.options = options;
+        this.tools = options.scaled(50_000);
+        this.clients = options.scaled(200_000);
+        this.loans = options.scaled(2_000_000);
+        this.startDay = today - options.years() * 365L;
+
+        // El catálogo usa su propio generador para no alterar la secuencia de la simulación
+        SplittableRandom random = new SplittableRandom(options.seed() ^ 0x5DEECE66DL);
+        toolCategory = new int[tools];
+        priceRent = new int[tools];
+        priceFine = new int[tools];
+        repoCost = new int[tools];
+        for (int t = 0; t < tools; t++) {
+            toolCategory[t] = random.nextInt(CATEGORIES);
+            priceRent[t] = 1_000 + random.nextInt(30) * 500;
+            priceFine[t] = 500 + random.nextInt(20) * 100;
+            repoCost[t] = 20_000 + random.nextInt(100) * 2_000;
+        }
+        // La popularidad no depende del id: el ranking Zipf se aplica sobre una permutación de las herramientas
+        popularityRank = new int[tools];
+        for (int t = 0; t < tools; t++) {
+            popularityRank[t] = t;
+        }
+        for (int t = tools - 1; t > 0; t--) {
+            int j = random.nextInt(t + 1);
+            int tmp = popularityRank[t];
+            popularityRank[t] = popularityRank[j];
+            popularityRank[j] = tmp;
+        }
+        popularity = new ZipfSampler(tools, 1.07);
+    }
+
+    void generate() throws SQLException {
+        long start = System.nanoTime();
+        System.out.printf("Generating dataset: seed=%d scale=%s tools=%,d clients=%,d loans=%,d%n",
+                options.seed(), options.scale(), tools, clients, loans);
+
+        prepareTables();
+        long version = catalogVersionService.nextVersion();
+
+        writeCatalog(version);
+        writeUsers();
+
+        try (CopyWriter loanWriter = writer(LoanEntity.class, "idUser", "initDate", "returnDate",
+                "realReturnDate", "status")) {
+            simulate(new Sink() {
+                @Override
+                public void loan(long id, long userId, long initDay, long returnDay, Long realReturnDay, String status)
+                        throws SQLException {
+                    loanWriter.write(id, userId, date(initDay), date(returnDay),
+                            realReturnDay == null ? null : date(realReturnDay), status);
+                }
+            });
+        }
+
+        try (CopyWriter lineWriter = writer(LoanXToolsEntity.class, "idLoan", "idTool", "idEmployeeDel",
+                "idEmployeeRec", "toolActivity", "debt", "fine", "needRepair");
+             CopyWriter kardexWriter = writer(KardexEntity.class, "idTool", "type", "date", "cant", "cost",
+                     "idUser", "idEmployee")) {
+            long[] kardexId = {1};
+            simulate(new Sink() {
+                @Override
+                public void line(long id, long loanId, long toolId, long employeeDel, Long employeeRec,
+                                 String activity, int fine, boolean needRepair) throws SQLException {
+                    lineWriter.write(id, loanId, toolId, employeeDel, employeeRec, activity, 0, fine, needRepair);
+                }
+
+                @Override
+                public void kardex(long toolId, String type, long day, int cant, Integer cost, Long userId,
+                                   long employeeId) throws SQLException {
+                    kardexWriter.write(kardexId[0]++, toolId, type, date(day), cant, cost, userId, employeeId);
+                }
+            });
+        }
+
+        writeInventory(version);
+        finish();
+        System.out.printf("Dataset generated in %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Salidas de la simulación; cada pasada implementa solo las que escribe.
+     */
+    private interface Sink {
+        default void loan(long id, long userId, long initDay, long returnDay, Long realReturnDay, String status)
+                throws SQLException {
+        }
+
+        default void line(long id, long loanId, long toolId, long employeeDel, Long employeeRec,
+                          String activity, int fine, boolean needRepair) throws SQLException {
+        }
+
+        default void kardex(long toolId, String type, long day, int cant, Integer cost, Long userId,
+                            long employeeId) throws SQLException {
+        }
+    }
+
+    private record Event(long day, long sequence, int type, int tool, int outcome, int amount,
+                         long userId, long employeeId) {
+    }
+
+    private void simulate(Sink sink) throws SQLException {
+        SplittableRandom random = new SplittableRandom(options.seed());
+        stock = new int[tools][4];
+        int[] activeLoans = new int[clients];
+        PriorityQueue<Event> events = new PriorityQueue<>(
+                Comparator.comparingLong(Event::day).thenComparingLong(Event::sequence));
+        long sequence = 0;
+        long spanDays = today - startDay;
+
+        for (int t = 0; t < tools; t++) {
+            int units = 3 + random.nextInt(8);
+            stock[t][AVAILABLE] = units;
+            sink.kardex(t + 1, "INGRESO", startDay, units, null, null, employee(random));
+        }
+
+        long lineId = 1;
+        int[] chosen = new int[MAX_LINES_PER_LOAN];
+        for (int l = 0; l < loans; l++) {
+            long loanId = l + 1L;
+            long day = startDay + (l * spanDays) / loans;
+            drain(events, day, sink);
+
+            int lineCount = 1 + random.nextInt(MAX_LINES_PER_LOAN);
+            int duration = 1 + random.nextInt(14);
+            long returnDay = day + duration;
+            boolean late = random.nextDouble() < 0.15;
+            long realDay = late ? returnDay + 1 + random.nextInt(10) : day + random.nextInt(duration + 1);
+            boolean returned = realDay < today;
+            boolean paid = random.nextDouble() < 0.95;
+
+            int client = random.nextInt(clients);
+            if (!returned) {
+                while (activeLoans[client] >= MAX_ACTIVE_LOANS) {
+                    client = (client + 1) % clients;
+                }
+                activeLoans[client]++;
+            }
+            long clientId = FIRST_CLIENT_ID + client;
+            long employeeDel = employee(random);
+            long employeeRec = employee(random);
+
+            for (int i = 0; i < lineCount; i++) {
+                int tool;
+                boolean repeated;
+                do {
+                    tool = popularityRank[popularity.sample(random)];
+                    repeated = false;
+                    for (int j = 0; j < i; j++) {
+                        repeated |= chosen[j] == tool;
+                    }
+                } while (repeated);
+                chosen[i] = tool;
+            }
+
+            int[] outcome = new int[lineCount];
+            int[] fine = new int[lineCount];
+            boolean anyFine = false;
+            boolean anyRepair = false;
+            for (int i = 0; i < lineCount; i++) {
+                double r = random.nextDouble();
+                outcome[i] = r < 0.90 ? AVAILABLE : r < 0.98 ? REPAIR : REMOVED;
+                int lateDays = late ? (int) (realDay - returnDay) : 0;
+                fine[i] = lateDays * priceFine[chosen[i]] + (outcome[i] == REMOVED ? repoCost[chosen[i]] : 0);
+                anyFine |= fine[i] > 0;
+                anyRepair |= outcome[i] == REPAIR;
+            }
+            int repairCost = 5_000 + random.nextInt(20) * 1_000;
+            long payDay = Math.min(realDay + 1 + random.nextInt(3), today);
+
+            String status;
+            if (!returned) {
+                status = returnDay < today ? "ATRASADO" : "ACTIVO";
+            } else if ((anyFine || anyRepair) && !paid) {
+                status = "PENDIENTE";
+            } else {
+                status = "FINALIZADO";
+            }
+            sink.loan(loanId, clientId, day, returnDay, returned ? realDay : null, status);
+
+            for (int i = 0; i < lineCount; i++) {
+                int tool = chosen[i];
+                if (stock[tool][AVAILABLE] == 0) {
+                    stock[tool][AVAILABLE] += RESTOCK_UNITS;
+                    sink.kardex(tool + 1, "INGRESO", day, RESTOCK_UNITS, null, null, employeeDel);
+                }
+                stock[tool][AVAILABLE]--;
+                stock[tool][LOANED]++;
+                sink.kardex(tool + 1, "PRESTAMO", day, 1, null, clientId, employeeDel);
+
+                boolean pendingFine = returned && !paid && fine[i] > 0;
+                boolean pendingRepair = returned && !paid && outcome[i] == REPAIR;
+                sink.line(lineId++, loanId, tool + 1, employeeDel, returned ? employeeRec : null,
+                        returned ? "DEVUELTA" : "PRESTADA", pendingFine ? fine[i] : 0, pendingRepair);
+
+                if (returned) {
+                    events.add(new Event(realDay, sequence++, RETURN, tool, outcome[i], 0, clientId, employeeRec));
+                    if (paid && fine[i] > 0) {
+                        events.add(new Event(payDay, sequence++, PAY_DEBT, tool, 0, fine[i], clientId, employeeRec));
+                    }
+                    if (paid && outcome[i] == REPAIR) {
+                        events.add(new Event(payDay, sequence++, PAY_REPAIR, tool, 0, repairCost, clientId, employeeRec));
+                    }
+                }
+            }
+        }
+        drain(events, Long.MAX_VALUE, sink);
+    }
+
+    private void drain(PriorityQueue<Event> events, long untilDay, Sink sink) throws SQLException {
+        while (!events.isEmpty() && events.peek().day() <= untilDay) {
+            Event event = events.poll();
+            int tool = event.tool();
+            switch (event.type()) {
+                case RETURN -> {
+                    stock[tool][LOANED]--;
+                    stock[tool][event.outcome()]++;
+                    String type = switch (event.outcome()) {
+                        case REPAIR -> "REPARACION";
+                        case REMOVED -> "BAJA";
+                        default -> "DEVOLUCION";
+                    };
+                    sink.kardex(tool + 1, type, event.day(), 1, null, event.userId(), event.employeeId());
+                }
+                case PAY_DEBT -> sink.kardex(tool + 1, "PAGO DEUDA", event.day(), 1, event.amount(),
+                        event.userId(), event.employeeId());
+                case PAY_REPAIR -> {
+                    stock[tool][REPAIR]--;
+                    stock[tool][AVAILABLE]++;
+                    sink.kardex(tool + 1, "PAGO REPARACION", event.day(), 1, event.amount(),
+                            event.userId(), event.employeeId());
+                }
+                default -> throw new IllegalStateException("Evento desconocido: " + event.type());
+            }
+        }
+    }
+
+    private long employee(SplittableRandom random) {
+        return FIRST_EMPLOYEE_ID + random.nextInt(EMPLOYEES);
+    }
+
+    private void writeCatalog(long version) throws SQLException {
+        try (CopyWriter categories = writer(CategoryEntity.class, "name", "changeVersion")) {
+            for (int c = 0; c < CATEGORIES; c++) {
+                categories.write(c + 1L, "Categoría " + (c + 1), version);
+            }
+        }
+        try (CopyWriter states = writer(ToolStateEntity.class, "state", "color")) {
+            for (int s = 0; s < STATES.length; s++) {
+                states.write(s + 1L, STATES[s], STATE_COLORS[s]);
+            }
+        }
+        try (CopyWriter toolWriter = writer(ToolEntity.class, "toolName", "category", "repoCost", "priceRent",
+                "priceFineAtDate", "imageUrl", "changeVersion")) {
+            for (int t = 0; t < tools; t++) {
+                toolWriter.write(t + 1L, String.format("Herramienta %06d", t + 1), toolCategory[t] + 1L,
+                        repoCost[t], priceRent[t], priceFine[t], null, version);
+            }
+        }
+    }
+
+    private void writeUsers() throws SQLException {
+        try (CopyWriter users = writer(UserEntity.class, "username", "name", "lastName", "rut", "phone",
+                "email", "stateClient", "rol", "loans")) {
+            users.write(ADMIN_ID, "admin", "Admin", "ToolRent", "1-9", null, "admin@toolrent.cl", "ACTIVO", "ADMIN", 0);
+            for (int e = 0; e < EMPLOYEES; e++) {
+                long id = FIRST_EMPLOYEE_ID + e;
+                users.write(id, "empleado" + (e + 1), "Empleado", String.valueOf(e + 1), id + "-K", null,
+                        "empleado" + (e + 1) + "@toolrent.cl", "ACTIVO", "EMPLOYEE", 0);
+            }
+            for (int c = 0; c < clients; c++) {
+                long id = FIRST_CLIENT_ID + c;
+                users.write(id, "cliente" + (c + 1), "Cliente", String.valueOf(c + 1), id + "-K",
+                        "+569" + (10_000_000 + c), "cliente" + (c + 1) + "@toolrent.cl", "ACTIVO", "CLIENT", 0);
+            }
+        }
+    }
+
+    private void writeInventory(long version) throws SQLException {
+        try (CopyWriter inventory = writer(InventoryEntity.class, "idTool", "toolState", "stockTool",
+                "changeVersion")) {
+            long id = 1;
+            for (int t = 0; t < tools; t++) {
+                for (int s = 0; s < STATES.length; s++) {
+                    int units = s < stock[t].length ? stock[t][s] : 0;
+                    inventory.write(id++, t + 1L, s + 1L, units, version);
+                }
+            }
+        }
+    }
+
+    private void prepareTables() throws SQLException {
+        List<Class<?>> entities = List.of(KardexEntity.class, LoanXToolsEntity.class, LoanEntity.class,
+                InventoryEntity.class, ToolEntity.class, ToolStateEntity.class, CategoryEntity.class, UserEntity.class);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            if (options.truncate()) {
+                String tables = String.join(", ", entities.stream().map(this::table).toList());
+                statement.execute("TRUNCATE TABLE " + tables + " RESTART IDENTITY CASCADE");
+                return;
+            }
+            for (Class<?> entity : List.of(ToolEntity.class, UserEntity.class)) {
+                try (ResultSet rs = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM " + table(entity) + ")")) {
+                    rs.next();
+                    if (rs.getBoolean(1)) {
+                        throw new IllegalStateException("La tabla " + table(entity)
+                                + " no está vacía; use -Ptruncate para regenerar el set de datos");
+                    }
+                }
+            }
+        }
+    }
+
+    // Contadores de préstamos activos, clientes restringidos, secuencias de ids y estadísticas del planificador
+    private void finish() throws SQLException {
+        String users = table(UserEntity.class);
+        String loan = table(LoanEntity.class);
+        String loanUser = column(LoanEntity.class, "idUser");
+        String loanStatus = column(LoanEntity.class, "status");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE " + users + " u SET " + column(UserEntity.class, "loans") + " = a.active"
+                    + " FROM (SELECT " + loanUser + " AS uid, count(*) AS active FROM " + loan
+                    + " WHERE " + loanStatus + " IN ('ACTIVO', 'ATRASADO') GROUP BY " + loanUser + ") a"
+                    + " WHERE u." + id(UserEntity.class) + " = a.uid");
+            statement.executeUpdate("UPDATE " + users + " SET " + column(UserEntity.class, "stateClient") + " = 'RESTRINGIDO'"
+                    + " WHERE " + id(UserEntity.class) + " IN (SELECT " + loanUser + " FROM " + loan
+                    + " WHERE " + loanStatus + " = 'PENDIENTE')");
+
+            for (Class<?> entity : List.of(UserEntity.class, CategoryEntity.class, ToolStateEntity.class,
+                    ToolEntity.class, InventoryEntity.class, LoanEntity.class, LoanXToolsEntity.class, KardexEntity.class)) {
+                String table = table(entity);
+                String idColumn = id(entity);
+                statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', '" + idColumn + "'), "
+                        + "(SELECT max(" + idColumn + ") FROM " + table + "))");
+            }
+            statement.execute("ANALYZE");
+        }
+    }
+
+    private CopyWriter writer(Class<?> entity, String... properties) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        columns.add(id(entity));
+        for (String property : properties) {
+            columns.add(column(entity, property));
+        }
+        return new CopyWriter(dataSource, table(entity), columns);
+    }
+
+    private AbstractEntityPersister persister(Class<?> entity) {
+        return (AbstractEntityPersister) sessionFactory.getMappingMetamodel().getEntityDescriptor(entity);
+    }
+
+    private String table(Class<?> entity) {
+        return persister(entity).getTableName();
+    }
+
+    private String id(Class<?> entity) {
+        return persister(entity).getIdentifierColumnNames()[0];
+    }
+
+    private String column(Class<?> entity, String property) {
+        return persister(entity).getPropertyColumnNames(property)[0];
+    }
+
+    private static Date date(long epochDay) {
+        return Date.valueOf(LocalDate.ofEpochDay(epochDay));
+    }
+}
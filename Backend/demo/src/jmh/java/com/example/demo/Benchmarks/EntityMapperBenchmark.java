@@ -0,0 +1,41 @@
+package com.example.demo.Benchmarks;
+
+import com.example.demo.DTO.EntityMapper;
+import com.example.demo.DTO.LoanDTO;
+import com.example.demo.DTO.PageResponseDTO;
+import com.example.demo.Entities.LoanEntity;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EntityMapper.toPageResponseDTO sobre una página que contiene todas las filas del tamaño dado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class EntityMapperBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Page<LoanEntity> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<LoanEntity> loans = SyntheticData.loans(size);
+        page = new PageImpl<>(loans, PageRequest.of(0, size), size * 10L);
+    }
+
+    @Benchmark
+    public PageResponseDTO<LoanDTO> toPageResponseDTO() {
+        return EntityMapper.toPageResponseDTO(page);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.Benchmarks;
+
+import com.example.demo.Config.ImageInitializer;
+import com.example.demo.Controllers.ImageController;
+import com.example.demo.Services.FileStorageService;
+import com.example.demo.Services.ImageServingService;
+import com.example.demo.Services.ImageVariantService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Peticiones por segundo de /images/** con ImageController frente al ResourceHttpRequestHandler
+ * que servía las imágenes antes, sin red de por medio: mide el costo del handler, no de Tomcat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageServingBenchmark {
+
+    private static final String NAME = "ab/12/" + "ab12" + "0".repeat(60) + ".png";
+
+    @Param({"8192", "262144"})
+    public int fileSize;
+
+    private Path root;
+
+    private ImageController imageController;
+
+    private ImageVariantService imageVariantService;
+
+    private ResourceHttpRequestHandler resourceHandler;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("image-bench");
+        byte[] content = new byte[fileSize];
+        new SplittableRandom(SyntheticData.SEED).nextBytes(content);
+        Files.createDirectories(root.resolve(NAME).getParent());
+        Files.write(root.resolve(NAME), content);
+
+        FileStorageService fileStorageService = new FileStorageService(root.toString());
+        imageVariantService = new ImageVariantService(fileStorageService, new int[]{16, 320}, 1, 1, false);
+        ImageServingService imageServingService = new ImageServingService(fileStorageService, imageVariantService,
+                new ImageInitializer(), 65_536, 32 * 1024 * 1024);
+        imageController = new ImageController();
+        ReflectionTestUtils.setField(imageController, "imageServingService", imageServingService);
+        ReflectionTestUtils.setField(imageController, "sendfileThreshold", 65_536L);
+
+        resourceHandler = new ResourceHttpRequestHandler();
+        resourceHandler.setLocations(List.of(new FileSystemResource(root.toString() + "/")));
+        resourceHandler.afterPropertiesSet();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        imageVariantService.shutdown();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted((a, b) -> b.getNameCount() - a.getNameCount()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse imageController() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images/" + NAME);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        imageController.serveImage(request, response, null);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse resourceHandler() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images/" + NAME);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, NAME);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        resourceHandler.handleRequest(request, response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse imageControllerRevalidation() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images/" + NAME);
+        request.addHeader("If-None-Match", "\"ab12" + "0".repeat(60) + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        imageController.serveImage(request, response, null);
+        return response;
+    }
+}
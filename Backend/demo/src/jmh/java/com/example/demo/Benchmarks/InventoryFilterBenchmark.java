@@ -0,0 +1,83 @@
+package com.example.demo.Benchmarks;
+
+import com.example.demo.Entities.InventoryEntity;
+import com.example.demo.Repositories.InventoryRepository;
+import com.example.demo.Services.ChangeCounterService;
+import com.example.demo.Services.InventoryService;
+import com.example.demo.Services.RequestCoalescingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * InventoryService.filterInventory sobre el cálculo completo (sin reutilizar resultados coalescidos).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class InventoryFilterBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private InventoryService inventoryService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<InventoryEntity> rows = SyntheticData.inventory(size);
+        List<InventoryEntity> byPriceAsc = rows.stream()
+                .sorted(Comparator.comparingInt(row -> row.getIdTool().getPriceRent())).toList();
+        List<InventoryEntity> byPriceDesc = byPriceAsc.reversed();
+        List<InventoryEntity> byIdDesc = rows.reversed();
+
+        InventoryRepository inventoryRepository = RepositoryStubs.stub(InventoryRepository.class, Map.of(
+                "findAll", args -> args.length == 0 ? rows : byIdDesc,
+                "findAllByOrderByIdTool_PriceRentAsc", args -> byPriceAsc,
+                "findAllByOrderByIdTool_PriceRentDesc", args -> byPriceDesc));
+
+        inventoryService = new InventoryService();
+        ReflectionTestUtils.setField(inventoryService, "inventoryRepository", inventoryRepository);
+        ReflectionTestUtils.setField(inventoryService, "changeCounterService", new ChangeCounterService());
+        ReflectionTestUtils.setField(inventoryService, "requestCoalescingService", new PassThroughCoalescing());
+    }
+
+    @Benchmark
+    public List<InventoryEntity> stateCategoryAndPrice() {
+        return inventoryService.filterInventory("DISPONIBLE", "Category 3", null, 1_000, 20_000,
+                true, false, false, null);
+    }
+
+    @Benchmark
+    public List<InventoryEntity> searchByName() {
+        return inventoryService.filterInventory(null, null, null, null, null,
+                false, false, false, "tool 12");
+    }
+
+    @Benchmark
+    public List<InventoryEntity> unfilteredRecent() {
+        return inventoryService.filterInventory(null, null, null, null, null,
+                false, false, true, null);
+    }
+
+    // Siempre recalcula, para medir el filtrado y no un acierto de la caché
+    static final class PassThroughCoalescing extends RequestCoalescingService {
+
+        PassThroughCoalescing() {
+            super(new SimpleMeterRegistry(), 0, 0, 1);
+        }
+
+        @Override
+        public <T> T execute(String name, String key, String version, Supplier<T> loader) {
+            return loader.get();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.Benchmarks;
+
+import com.example.demo.Entities.KardexEntity;
+import com.example.demo.Entities.ToolEntity;
+import com.example.demo.Repositories.KardexRepository;
+import com.example.demo.Repositories.ToolRepository;
+import com.example.demo.Services.ChangeCounterService;
+import com.example.demo.Services.KardexService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KardexService.getRankingTools: agrupa los préstamos del mes por herramienta y ordena el top 10.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RankingBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private KardexService kardexService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<KardexEntity> rows = SyntheticData.kardex(size);
+        List<ToolEntity> tools = rows.stream().map(KardexEntity::getIdTool).distinct().toList();
+
+        kardexService = new KardexService();
+        ReflectionTestUtils.setField(kardexService, "kardexRepository", RepositoryStubs.stub(KardexRepository.class,
+                Map.of("findByDateBetween", args -> rows)));
+        ReflectionTestUtils.setField(kardexService, "toolRepository", RepositoryStubs.stub(ToolRepository.class,
+                Map.of("findAll", args -> tools)));
+        ReflectionTestUtils.setField(kardexService, "changeCounterService", new ChangeCounterService());
+        ReflectionTestUtils.setField(kardexService, "requestCoalescingService",
+                new InventoryFilterBenchmark.PassThroughCoalescing());
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> rankingTools() {
+        return kardexService.getRankingTools();
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.demo.Benchmarks;
+
+import com.example.demo.Entities.LoanEntity;
+import com.example.demo.Entities.LoanXToolsEntity;
+import com.example.demo.Entities.ToolEntity;
+import com.example.demo.Entities.UserEntity;
+import com.example.demo.Repositories.LoanRepository;
+import com.example.demo.Repositories.LoanXToolsRepository;
+import com.example.demo.Repositories.UserRepository;
+import com.example.demo.Services.InventoryService;
+import com.example.demo.Services.KardexService;
+import com.example.demo.Services.LoanService;
+import com.example.demo.Services.LoanXToolsService;
+import com.example.demo.Services.UserService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoanXToolsService.receiveAllLoanTools devolviendo un pedido de 3 herramientas de un cliente
+ * con un historial de "size" pedidos (userHaveDebt recorre todo el historial al cerrar el pedido).
+ * Inventario y kardex son mocks: no están en el camino que escala con el historial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ReceiveLoanToolsBenchmark {
+
+    private static final int TOOLS_PER_LOAN = 3;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private LoanXToolsService loanXToolsService;
+
+    private UserEntity client;
+
+    private LoanEntity currentLoan;
+
+    private List<LoanXToolsEntity> currentTools;
+
+    private Map<Long, String> states;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserEntity employee = SyntheticData.user(1, "EMPLOYEE");
+        client = SyntheticData.user(2, "CLIENT");
+        List<ToolEntity> tools = SyntheticData.tools(100);
+
+        Map<Long, LoanEntity> loansById = new HashMap<>();
+        Map<Long, List<LoanXToolsEntity>> toolsByLoan = new HashMap<>();
+        Map<Long, LoanXToolsEntity> toolsById = new HashMap<>();
+        List<LoanEntity> clientLoans = new ArrayList<>(size + 1);
+
+        LocalDate past = LocalDate.now().minusYears(1);
+        long lxtId = 1;
+        for (long i = 1; i <= size; i++) {
+            LoanEntity loan = loan(i, Date.valueOf(past), "FINALIZADO");
+            loan.setRealReturnDate(Date.valueOf(past));
+            LoanXToolsEntity lxt = loanXTool(lxtId++, loan, tools.get((int) (i % tools.size())));
+            lxt.setToolActivity("DEVUELTA");
+            loansById.put(loan.getId(), loan);
+            clientLoans.add(loan);
+            toolsByLoan.put(loan.getId(), List.of(lxt));
+            toolsById.put(lxt.getId(), lxt);
+        }
+
+        currentLoan = loan(size + 1L, Date.valueOf(LocalDate.now().plusDays(3)), "ACTIVO");
+        currentTools = new ArrayList<>();
+        states = new HashMap<>();
+        for (int i = 0; i < TOOLS_PER_LOAN; i++) {
+            LoanXToolsEntity lxt = loanXTool(lxtId++, currentLoan, tools.get(i));
+            currentTools.add(lxt);
+            toolsById.put(lxt.getId(), lxt);
+            states.put(lxt.getId(), "SIN DAÑO");
+        }
+        loansById.put(currentLoan.getId(), currentLoan);
+        clientLoans.add(currentLoan);
+        toolsByLoan.put(currentLoan.getId(), currentTools);
+
+        Map<Long, UserEntity> users = Map.of(employee.getId(), employee, client.getId(), client);
+
+        UserService userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", RepositoryStubs.stub(UserRepository.class, Map.of(
+                "findById", args -> Optional.ofNullable(users.get((Long) args[0])),
+                "save", args -> args[0],
+                // Cierre del pedido: libera el cupo con el UPDATE condicional
+                "decrementLoans", args -> 1)));
+
+        LoanRepository loanRepository = RepositoryStubs.stub(LoanRepository.class, Map.of(
+                "findByIdUser", args -> clientLoans,
+                "findById", args -> Optional.ofNullable(loansById.get((Long) args[0])),
+                "save", args -> args[0]));
+        LoanService loanService = new LoanService();
+        ReflectionTestUtils.setField(loanService, "loanRepository", loanRepository);
+
+        loanXToolsService = new LoanXToolsService();
+        ReflectionTestUtils.setField(loanXToolsService, "loanXToolsRepository", RepositoryStubs.stub(LoanXToolsRepository.class, Map.of(
+                "findById", args -> Optional.ofNullable(toolsById.get((Long) args[0])),
+                "findByIdLoan", args -> toolsByLoan.getOrDefault(((LoanEntity) args[0]).getId(), List.of()),
+                "save", args -> args[0])));
+        ReflectionTestUtils.setField(loanXToolsService, "loanRepository", loanRepository);
+        ReflectionTestUtils.setField(loanXToolsService, "userService", userService);
+        ReflectionTestUtils.setField(loanXToolsService, "loanService", loanService);
+        ReflectionTestUtils.setField(loanXToolsService, "inventoryService", Mockito.mock(InventoryService.class));
+        ReflectionTestUtils.setField(loanXToolsService, "kardexService", Mockito.mock(KardexService.class));
+    }
+
+    // receiveAllLoanTools modifica el pedido, sus herramientas y el cliente: se restauran antes de cada llamada
+    @Setup(Level.Invocation)
+    public void resetLoan() {
+        for (LoanXToolsEntity lxt : currentTools) {
+            lxt.setToolActivity("PRESTADA");
+            lxt.setFine(0);
+            lxt.setNeedRepair(false);
+            lxt.setIdEmployeeRec(null);
+        }
+        currentLoan.setRealReturnDate(null);
+        currentLoan.setStatus("ACTIVO");
+        client.setLoans(1);
+        client.setStateClient("ACTIVO");
+    }
+
+    @Benchmark
+    public List<LoanXToolsEntity> receiveAllLoanTools() {
+        return loanXToolsService.receiveAllLoanTools(1L, currentTools, states);
+    }
+
+    private LoanEntity loan(long id, Date returnDate, String status) {
+        LoanEntity loan = new LoanEntity();
+        loan.setId(id);
+        loan.setIdUser(client);
+        loan.setInitDate(Date.valueOf(returnDate.toLocalDate().minusDays(7)));
+        loan.setReturnDate(returnDate);
+        loan.setStatus(status);
+        return loan;
+    }
+
+    private LoanXToolsEntity loanXTool(long id, LoanEntity loan, ToolEntity tool) {
+        LoanXToolsEntity lxt = new LoanXToolsEntity();
+        lxt.setId(id);
+        lxt.setIdLoan(loan);
+        lxt.setIdTool(tool);
+        lxt.setNeedRepair(false);
+        return lxt;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.Benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Repositorios en memoria para los benchmarks: un proxy dinámico responde solo los métodos indicados
+ * (por nombre) y falla en cualquier otro, así se mide el código de los servicios y no la maquinaria de mocks.
+ */
+final class RepositoryStubs {
+
+    private RepositoryStubs() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> repositoryType, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer != null) {
+                        return answer.apply(args == null ? new Object[0] : args);
+                    }
+                    return switch (method.getName()) {
+                        case "toString" -> repositoryType.getSimpleName() + "Stub";
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> throw new UnsupportedOperationException(
+                                repositoryType.getSimpleName() + "." + method.getName() + " no está disponible en el benchmark");
+                    };
+                });
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.Benchmarks;
+
+import com.example.demo.Entities.*;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Datos sintéticos deterministas (semilla fija) con la forma del modelo real:
+ * cada herramienta tiene una fila de inventario por estado.
+ */
+final class SyntheticData {
+
+    static final long SEED = 42L;
+
+    static final String[] STATES = {"DISPONIBLE", "PRESTADA", "EN REPARACION", "DADA DE BAJA"};
+
+    static final int CATEGORIES = 20;
+
+    private SyntheticData() {
+    }
+
+    static List<CategoryEntity> categories() {
+        List<CategoryEntity> categories = new ArrayList<>(CATEGORIES);
+        for (int i = 0; i < CATEGORIES; i++) {
+            CategoryEntity category = new CategoryEntity();
+            category.setId((long) i + 1);
+            category.setName("Category " + i);
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    static List<ToolStateEntity> toolStates() {
+        List<ToolStateEntity> states = new ArrayList<>(STATES.length);
+        for (int i = 0; i < STATES.length; i++) {
+            ToolStateEntity state = new ToolStateEntity();
+            state.setId((long) i + 1);
+            state.setState(STATES[i]);
+            states.add(state);
+        }
+        return states;
+    }
+
+    static List<ToolEntity> tools(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<CategoryEntity> categories = categories();
+        List<ToolEntity> tools = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ToolEntity tool = new ToolEntity();
+            tool.setId((long) i + 1);
+            tool.setToolName("Tool " + i);
+            tool.setCategory(categories.get(random.nextInt(CATEGORIES)));
+            tool.setPriceRent(500 + random.nextInt(30_000));
+            tool.setPriceFineAtDate(100 + random.nextInt(2_000));
+            tool.setRepoCost(10_000 + random.nextInt(200_000));
+            tools.add(tool);
+        }
+        return tools;
+    }
+
+    /**
+     * Filas de inventario: size / 4 herramientas con una fila por estado.
+     */
+    static List<InventoryEntity> inventory(int size) {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        List<ToolEntity> tools = tools(Math.max(1, size / STATES.length));
+        List<ToolStateEntity> states = toolStates();
+        List<InventoryEntity> rows = new ArrayList<>(size);
+        long id = 1;
+        for (ToolEntity tool : tools) {
+            for (ToolStateEntity state : states) {
+                InventoryEntity row = new InventoryEntity();
+                row.setId(id++);
+                row.setIdTool(tool);
+                row.setToolState(state);
+                row.setStockTool(random.nextInt(50));
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Movimientos de kardex del mes en curso sobre un catálogo de herramientas proporcional al tamaño.
+     */
+    static List<KardexEntity> kardex(int size) {
+        SplittableRandom random = new SplittableRandom(SEED + 2);
+        List<ToolEntity> tools = tools(Math.max(10, size / 100));
+        String[] types = {"PRESTAMO", "DEVOLUCION", "REPARACION", "INGRESO"};
+        Date today = Date.valueOf(LocalDate.now());
+        List<KardexEntity> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            KardexEntity row = new KardexEntity();
+            row.setId((long) i + 1);
+            row.setIdTool(tools.get(random.nextInt(tools.size())));
+            row.setType(types[random.nextInt(types.length)]);
+            row.setDate(today);
+            row.setCant(1 + random.nextInt(3));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static UserEntity user(long id, String rol) {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setName("Name" + id);
+        user.setLastName("Last" + id);
+        user.setEmail("user" + id + "@toolrent.cl");
+        user.setRut(id + "-K");
+        user.setRol(rol);
+        user.setStateClient("ACTIVO");
+        return user;
+    }
+
+    static List<LoanEntity> loans(int size) {
+        SplittableRandom random = new SplittableRandom(SEED + 3);
+        String[] statuses = {"ACTIVO", "FINALIZADO", "PENDIENTE"};
+        List<UserEntity> clients = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, size / 10); i++) {
+            clients.add(user(i + 1, "CLIENT"));
+        }
+        LocalDate base = LocalDate.now().minusYears(1);
+        List<LoanEntity> loans = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LoanEntity loan = new LoanEntity();
+            loan.setId((long) i + 1);
+            loan.setIdUser(clients.get(random.nextInt(clients.size())));
+            LocalDate init = base.plusDays(random.nextInt(365));
+            loan.setInitDate(Date.valueOf(init));
+            loan.setReturnDate(Date.valueOf(init.plusDays(1 + random.nextInt(14))));
+            loan.setStatus(statuses[random.nextInt(statuses.length)]);
+            loans.add(loan);
+        }
+        return loans;
+    }
+}
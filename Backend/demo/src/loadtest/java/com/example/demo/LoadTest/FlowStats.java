@@ -0,0 +1,97 @@
+package com.example.demo.LoadTest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de un flujo: latencia del flujo completo y de cada petición HTTP (en microsegundos),
+ * cantidad de flujos y peticiones, fallos y códigos de estado.
+ */
+final class FlowStats {
+
+    private final String name;
+
+    private final Histogram flowLatency = new ConcurrentHistogram(3);
+
+    private final Histogram requestLatency = new ConcurrentHistogram(3);
+
+    private final LongAdder flows = new LongAdder();
+
+    private final LongAdder failedFlows = new LongAdder();
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder failedRequests = new LongAdder();
+
+    private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    FlowStats(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void recordRequest(long micros, int status) {
+        requestLatency.recordValue(Math.max(0, micros));
+        requests.increment();
+        if (status < 200 || status >= 400) {
+            failedRequests.increment();
+        }
+        statuses.computeIfAbsent(status == 0 ? "io-error" : String.valueOf(status), s -> new LongAdder()).increment();
+    }
+
+    void recordFlow(long micros, boolean success) {
+        flowLatency.recordValue(Math.max(0, micros));
+        flows.increment();
+        if (!success) {
+            failedFlows.increment();
+        }
+    }
+
+    Histogram flowLatency() {
+        return flowLatency;
+    }
+
+    Map<String, Object> summary(double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("flow", name);
+        summary.put("flows", flows.sum());
+        summary.put("flowsPerSecond", flows.sum() / seconds);
+        summary.put("flowErrorRate", rate(failedFlows.sum(), flows.sum()));
+        summary.put("requests", requests.sum());
+        summary.put("requestsPerSecond", requests.sum() / seconds);
+        summary.put("requestErrorRate", rate(failedRequests.sum(), requests.sum()));
+        summary.put("flowLatencyMs", percentiles(flowLatency));
+        summary.put("requestLatencyMs", percentiles(requestLatency));
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        statuses.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(e -> statusCounts.put(e.getKey(), e.getValue().sum()));
+        summary.put("statuses", statusCounts);
+        return summary;
+    }
+
+    private static double rate(long failed, long total) {
+        return total == 0 ? 0.0 : (double) failed / total;
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        if (histogram.getTotalCount() == 0) {
+            return values;
+        }
+        values.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+        values.put("p90", histogram.getValueAtPercentile(90) / 1000.0);
+        values.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+        values.put("p99.9", histogram.getValueAtPercentile(99.9) / 1000.0);
+        values.put("max", histogram.getMaxValue() / 1000.0);
+        values.put("mean", histogram.getMean() / 1000.0);
+        return values;
+    }
+}
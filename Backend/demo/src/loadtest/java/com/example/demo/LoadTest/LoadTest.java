@@ -0,0 +1,136 @@
+package com.example.demo.LoadTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba de carga HTTP con usuarios virtuales (un hilo virtual por usuario, modelo cerrado con tiempo de reflexión).
+ * Al terminar imprime por flujo throughput, tasa de error y percentiles de latencia (HdrHistogram), y deja
+ * el resumen en JSON y la distribución completa de cada flujo (.hgrm) en el directorio de reportes.
+ *
+ * Uso offline: ./gradlew stubKeycloak, levantar el backend con KEYCLOAK_URL=http://localhost:9099
+ * y luego ./gradlew loadTest -Pusers=50 -Pduration=120
+ *
+ * Para comparar dos corridas (por ejemplo backend con VIRTUAL_THREADS=true y false, usando -Plabel=virtual / -Plabel=platform):
+ * ./gradlew loadTest -Pcompare=build/reports/loadtest/20261019-101500-platform,build/reports/loadtest/20261019-103000-virtual
+ */
+public final class LoadTest {
+
+    static final List<String> FLOWS = List.of("login", "browse-inventory", "create-loan", "hand-over",
+            "return-tools", "pay-debt");
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        if (!options.compare().isEmpty()) {
+            ReportComparison.print(options.compare());
+            return;
+        }
+
+        StubKeycloak stub = null;
+        if (options.stubKeycloakPort() > 0) {
+            stub = new StubKeycloak(options.stubKeycloakPort(), options.realm());
+            stub.start();
+        }
+        try {
+            if (options.stubOnly()) {
+                System.out.println("Stub-only mode, press Ctrl+C to stop");
+                Thread.currentThread().join();
+                return;
+            }
+            run(options);
+        } finally {
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+
+    private static void run(LoadTestOptions options) throws Exception {
+        Map<String, FlowStats> stats = new LinkedHashMap<>();
+        FLOWS.forEach(flow -> stats.put(flow, new FlowStats(flow)));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        System.out.printf("Running %d virtual users against %s for %ds (ramp-up %ds)%n", options.users(),
+                options.baseUrl(), options.duration().toSeconds(), options.rampUp().toSeconds());
+
+        long start = System.nanoTime();
+        long deadline = start + options.rampUp().toNanos() + options.duration().toNanos();
+        long rampStep = options.users() > 1 ? options.rampUp().toNanos() / (options.users() - 1) : 0;
+
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < options.users(); u++) {
+                String username = options.staffUsers().get(u % options.staffUsers().size());
+                StaffSession session = new StaffSession(options, http, objectMapper, stats, username,
+                        options.seed() + u, deadline);
+                long delay = u * rampStep;
+                users.submit(() -> {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                    session.run();
+                    return null;
+                });
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        report(options, stats, seconds);
+    }
+
+    private static void report(LoadTestOptions options, Map<String, FlowStats> stats, double seconds) throws Exception {
+        List<Map<String, Object>> flows = new ArrayList<>();
+        PrintStream out = System.out;
+        out.printf("%n%-17s %9s %9s %8s %10s %10s %10s %10s %10s%n", "flow", "flows", "flows/s", "errors",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (FlowStats flow : stats.values()) {
+            Map<String, Object> summary = flow.summary(seconds);
+            flows.add(summary);
+            @SuppressWarnings("unchecked")
+            Map<String, Double> latency = (Map<String, Double>) summary.get("flowLatencyMs");
+            out.printf("%-17s %9d %9.1f %7.2f%% %10.1f %10.1f %10.1f %10.1f %10.1f%n", flow.name(),
+                    (Long) summary.get("flows"), (Double) summary.get("flowsPerSecond"),
+                    100 * (Double) summary.get("flowErrorRate"),
+                    latency.getOrDefault("p50", 0.0), latency.getOrDefault("p90", 0.0),
+                    latency.getOrDefault("p99", 0.0), latency.getOrDefault("p99.9", 0.0),
+                    latency.getOrDefault("max", 0.0));
+        }
+
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+                + (options.label() != null ? "-" + options.label() : "");
+        Path dir = Files.createDirectories(Path.of(options.reportDir(), stamp));
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", options.label());
+        report.put("baseUrl", options.baseUrl());
+        report.put("users", options.users());
+        report.put("durationSeconds", seconds);
+        report.put("flows", flows);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(dir.resolve("summary.json").toFile(), report);
+        for (FlowStats flow : stats.values()) {
+            try (PrintStream hgrm = new PrintStream(dir.resolve(flow.name() + ".hgrm").toFile())) {
+                flow.flowLatency().outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+        out.println("\nReport written to " + dir.toAbsolutePath());
+    }
+}
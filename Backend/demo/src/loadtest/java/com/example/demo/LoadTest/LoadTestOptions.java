@@ -0,0 +1,83 @@
+package com.example.demo.LoadTest;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Opciones de la prueba de carga, en formato --clave=valor.
+ */
+record LoadTestOptions(String baseUrl,
+                       int users,
+                       Duration duration,
+                       Duration rampUp,
+                       Duration thinkTime,
+                       int stubKeycloakPort,
+                       boolean stubOnly,
+                       String realm,
+                       List<String> staffUsers,
+                       String password,
+                       long firstClientId,
+                       long lastClientId,
+                       long firstToolId,
+                       long lastToolId,
+                       long seed,
+                       String reportDir,
+                       String label,
+                       List<String> compare) {
+
+    static LoadTestOptions parse(String[] args) {
+        String baseUrl = "http://localhost:8080";
+        int users = 20;
+        Duration duration = Duration.ofSeconds(60);
+        Duration rampUp = Duration.ofSeconds(10);
+        Duration thinkTime = Duration.ofMillis(250);
+        int stubPort = 9099;
+        boolean stubOnly = false;
+        String realm = "ToolRent";
+        List<String> staff = List.of("empleado1", "empleado2", "empleado3", "empleado4", "empleado5",
+                "empleado6", "empleado7", "empleado8", "empleado9", "empleado10");
+        String password = "loadtest";
+        long[] clients = {12, 200_011};
+        long[] tools = {1, 50_000};
+        long seed = 42;
+        String reportDir = "build/reports/loadtest";
+        String label = null;
+        List<String> compare = List.of();
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String key = eq < 0 ? arg : arg.substring(0, eq);
+            String value = eq < 0 ? "true" : arg.substring(eq + 1);
+            switch (key) {
+                case "--base-url" -> baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "--users" -> users = Integer.parseInt(value);
+                case "--duration" -> duration = Duration.ofSeconds(Long.parseLong(value));
+                case "--ramp-up" -> rampUp = Duration.ofSeconds(Long.parseLong(value));
+                case "--think-time" -> thinkTime = Duration.ofMillis(Long.parseLong(value));
+                case "--stub-keycloak-port" -> stubPort = Integer.parseInt(value);
+                case "--stub-only" -> stubOnly = Boolean.parseBoolean(value);
+                case "--realm" -> realm = value;
+                case "--staff" -> staff = List.of(value.split(","));
+                case "--password" -> password = value;
+                case "--clients" -> clients = range(value);
+                case "--tools" -> tools = range(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--report-dir" -> reportDir = value;
+                case "--label" -> label = value;
+                case "--compare" -> compare = List.of(value.split(","));
+                default -> throw new IllegalArgumentException("Argumento desconocido: " + arg);
+            }
+        }
+        return new LoadTestOptions(baseUrl, users, duration, rampUp, thinkTime, stubPort, stubOnly, realm, staff,
+                password, clients[0], clients[1], tools[0], tools[1], seed, reportDir, label, compare);
+    }
+
+    // "desde-hasta", ambos inclusive
+    private static long[] range(String value) {
+        String[] parts = value.split("-");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Rango inválido (se espera desde-hasta): " + value);
+        }
+        return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.LoadTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compara dos reportes (summary.json) flujo por flujo: throughput, tasa de error y p50/p99 del flujo completo.
+ */
+final class ReportComparison {
+
+    private ReportComparison() {
+    }
+
+    static void print(List<String> reports) throws IOException {
+        if (reports.size() != 2) {
+            throw new IllegalArgumentException("--compare espera dos reportes separados por coma");
+        }
+        JsonNode base = read(reports.get(0));
+        JsonNode other = read(reports.get(1));
+        String baseLabel = label(base, reports.get(0));
+        String otherLabel = label(other, reports.get(1));
+
+        Map<String, JsonNode> otherFlows = new LinkedHashMap<>();
+        other.path("flows").forEach(flow -> otherFlows.put(flow.path("flow").asText(), flow));
+
+        System.out.printf("%s (base) vs %s%n%n", baseLabel, otherLabel);
+        System.out.printf("%-17s %12s %12s %8s %10s %10s %10s %10s %8s %8s%n", "flow", "flows/s base", "flows/s",
+                "ratio", "p50 base", "p50", "p99 base", "p99", "err base", "err");
+        for (JsonNode flow : base.path("flows")) {
+            String name = flow.path("flow").asText();
+            JsonNode cmp = otherFlows.get(name);
+            if (cmp == null) {
+                continue;
+            }
+            double baseRate = flow.path("flowsPerSecond").asDouble();
+            double rate = cmp.path("flowsPerSecond").asDouble();
+            System.out.printf("%-17s %12.1f %12.1f %7.2fx %10.1f %10.1f %10.1f %10.1f %7.2f%% %7.2f%%%n", name,
+                    baseRate, rate, baseRate > 0 ? rate / baseRate : 0.0,
+                    flow.path("flowLatencyMs").path("p50").asDouble(), cmp.path("flowLatencyMs").path("p50").asDouble(),
+                    flow.path("flowLatencyMs").path("p99").asDouble(), cmp.path("flowLatencyMs").path("p99").asDouble(),
+                    100 * flow.path("flowErrorRate").asDouble(), 100 * cmp.path("flowErrorRate").asDouble());
+        }
+    }
+
+    private static JsonNode read(String report) throws IOException {
+        Path path = Path.of(report);
+        if (Files.isDirectory(path)) {
+            path = path.resolve("summary.json");
+        }
+        return new ObjectMapper().readTree(path.toFile());
+    }
+
+    private static String label(JsonNode report, String fallback) {
+        JsonNode label = report.path("label");
+        return label.isTextual() ? label.asText() : fallback;
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.demo.LoadTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Usuario virtual con rol de empleado que repite los flujos de ToolRent.side a nivel HTTP:
+ * login, revisión de inventario, creación de pedido con herramientas, entrega, devolución con
+ * estados de daño y pago de deudas y reparaciones.
+ */
+final class StaffSession implements Runnable {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestOptions options;
+
+    private final HttpClient http;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, FlowStats> stats;
+
+    private final String username;
+
+    private final SplittableRandom random;
+
+    private final long deadlineNanos;
+
+    private String accessToken;
+
+    private long tokenExpiresAtNanos;
+
+    private long employeeId;
+
+    // Pedido en curso dentro de la iteración
+    private long loanId;
+
+    StaffSession(LoadTestOptions options, HttpClient http, ObjectMapper objectMapper, Map<String, FlowStats> stats,
+                 String username, long seed, long deadlineNanos) {
+        this.options = options;
+        this.http = http;
+        this.objectMapper = objectMapper;
+        this.stats = stats;
+        this.username = username;
+        this.random = new SplittableRandom(seed);
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public void run() {
+        while (System.nanoTime() < deadlineNanos && !Thread.currentThread().isInterrupted()) {
+            if (accessToken == null || System.nanoTime() > tokenExpiresAtNanos) {
+                if (!flow("login", this::login)) {
+                    pause();
+                    continue;
+                }
+            }
+            flow("browse-inventory", this::browseInventory);
+            pause();
+            if (flow("create-loan", this::createLoan)) {
+                pause();
+                if (flow("hand-over", this::handOver)) {
+                    pause();
+                    if (flow("return-tools", this::returnTools)) {
+                        pause();
+                        flow("pay-debt", this::payDebt);
+                    }
+                }
+            }
+            pause();
+        }
+    }
+
+    private interface Step {
+        boolean run() throws IOException, InterruptedException;
+    }
+
+    private boolean flow(String name, Step step) {
+        FlowStats flowStats = stats.get(name);
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = step.run();
+        } catch (IOException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            success = false;
+        }
+        flowStats.recordFlow((System.nanoTime() - start) / 1_000, success);
+        return success;
+    }
+
+    // Login_Test: /auth/login devuelve el token emitido por Keycloak (el stub en pruebas offline)
+    private boolean login() throws IOException, InterruptedException {
+        JsonNode body = call("login", "POST", "/auth/login", Map.of("username", username, "password", options.password()));
+        if (body == null || !body.hasNonNull("token")) {
+            return false;
+        }
+        accessToken = body.path("token").path("access_token").asText();
+        long expiresIn = body.path("token").path("expires_in").asLong(300);
+        tokenExpiresAtNanos = System.nanoTime() + Duration.ofSeconds(Math.max(10, expiresIn - 30)).toNanos();
+        employeeId = body.path("user").path("id").asLong();
+        return true;
+    }
+
+    // Pantalla de creación de pedido: catálogo disponible y verificación de stock de una herramienta
+    private boolean browseInventory() throws IOException, InterruptedException {
+        JsonNode inventory = call("browse-inventory", "GET", "/inventory/filter?state=DISPONIBLE&asc=true", null);
+        JsonNode stock = call("browse-inventory", "GET", "/inventory/check-stock/" + randomTool(), null);
+        return inventory != null && stock != null;
+    }
+
+    // Epica 2, Tests 1-8: pedido de 1 a 3 herramientas para un cliente
+    private boolean createLoan() throws IOException, InterruptedException {
+        List<Long> tools = new ArrayList<>();
+        int count = 1 + random.nextInt(3);
+        while (tools.size() < count) {
+            long tool = randomTool();
+            if (!tools.contains(tool)) {
+                tools.add(tool);
+            }
+        }
+        LocalDate today = LocalDate.now();
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("clientId", options.firstClientId() + random.nextLong(options.lastClientId() - options.firstClientId() + 1));
+        request.put("initDate", today.toString());
+        request.put("returnDate", today.plusDays(1 + random.nextInt(7)).toString());
+        request.put("toolIds", tools);
+
+        JsonNode loan = call("create-loan", "POST", "/loan/create-with-tools/" + employeeId, request);
+        if (loan == null || !loan.hasNonNull("id")) {
+            return false;
+        }
+        loanId = loan.get("id").asLong();
+        return true;
+    }
+
+    // Entrega de todas las herramientas del pedido
+    private boolean handOver() throws IOException, InterruptedException {
+        JsonNode lines = call("hand-over", "GET", "/loantool/loan/" + loanId, null);
+        if (lines == null || !lines.isArray() || lines.isEmpty()) {
+            return false;
+        }
+        List<Long> ids = new ArrayList<>();
+        lines.forEach(line -> ids.add(line.get("id").asLong()));
+        return call("hand-over", "POST", "/loantool/give/all/user/" + employeeId, ids) != null;
+    }
+
+    // Epica 2, Tests 9-10: devolución con estado de daño por herramienta
+    private boolean returnTools() throws IOException, InterruptedException {
+        JsonNode lines = call("return-tools", "GET", "/loantool/loan/" + loanId, null);
+        if (lines == null || !lines.isArray() || lines.isEmpty()) {
+            return false;
+        }
+        Map<String, String> states = new LinkedHashMap<>();
+        lines.forEach(line -> {
+            double r = random.nextDouble();
+            states.put(line.get("id").asText(), r < 0.80 ? "SIN DAÑO" : r < 0.95 ? "DAÑO" : "IRREPARABLE");
+        });
+        return call("return-tools", "POST", "/loantool/receive/all/loan/" + loanId + "/user/" + employeeId, states) != null;
+    }
+
+    // Pago de multas y reparaciones pendientes del pedido
+    private boolean payDebt() throws IOException, InterruptedException {
+        JsonNode fine = call("pay-debt", "GET", "/loantool/total/fine/" + loanId, null);
+        if (fine == null) {
+            return false;
+        }
+        if (fine.asInt() > 0 && call("pay-debt", "POST", "/loantool/paydebt/" + loanId + "/user/" + employeeId, null) == null) {
+            return false;
+        }
+        JsonNode repairs = call("pay-debt", "GET", "/loantool/repair/" + loanId, null);
+        if (repairs == null) {
+            return false;
+        }
+        if (repairs.isArray() && !repairs.isEmpty()) {
+            Map<String, Object> payment = Map.of("adminUser", employeeId, "cost", 10_000);
+            return call("pay-debt", "POST", "/loantool/repair/" + loanId + "/pay", payment) != null;
+        }
+        return true;
+    }
+
+    /**
+     * Ejecuta una petición y registra su latencia en el flujo. Devuelve el cuerpo JSON, o null si falló.
+     */
+    private JsonNode call(String flow, String method, String path, Object body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(options.baseUrl() + path))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json");
+        if (accessToken != null) {
+            request.header("Authorization", "Bearer " + accessToken);
+        }
+        if (body != null) {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+
+        FlowStats flowStats = stats.get(flow);
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            flowStats.recordRequest((System.nanoTime() - start) / 1_000, 0);
+            throw e;
+        }
+        flowStats.recordRequest((System.nanoTime() - start) / 1_000, response.statusCode());
+
+        if (response.statusCode() == 401) {
+            accessToken = null;
+        }
+        if (response.statusCode() >= 400) {
+            return null;
+        }
+        byte[] bytes = response.body();
+        return bytes.length == 0 ? objectMapper.nullNode() : objectMapper.readTree(bytes);
+    }
+
+    private long randomTool() {
+        return options.firstToolId() + random.nextLong(options.lastToolId() - options.firstToolId() + 1);
+    }
+
+    private void pause() {
+        long think = options.thinkTime().toMillis();
+        if (think <= 0) {
+            return;
+        }
+        try {
+            // Tiempo de reflexión con ±50% de variación para no sincronizar a los usuarios virtuales
+            Thread.sleep(think / 2 + random.nextLong(think + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
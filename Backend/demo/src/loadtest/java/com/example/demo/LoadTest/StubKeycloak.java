@@ -0,0 +1,138 @@
+package com.example.demo.LoadTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+/**
+ * Emisor de tokens con la forma de Keycloak para correr sin red: publica el JWKS en
+ * /realms/{realm}/protocol/openid-connect/certs y acepta password y refresh_token grants en .../token.
+ * El backend se levanta con KEYCLOAK_URL apuntando a este servidor; cualquier contraseña es válida
+ * y el rol sale del nombre de usuario (admin* es ADMIN, el resto EMPLOYEE).
+ */
+final class StubKeycloak implements AutoCloseable {
+
+    private static final long TOKEN_TTL_SECONDS = 300;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final RSAKey signingKey;
+
+    private final HttpServer server;
+
+    private final String issuer;
+
+    StubKeycloak(int port, String realm) throws IOException, JOSEException {
+        this.signingKey = new RSAKeyGenerator(2048).keyID("loadtest").generate();
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.issuer = "http://localhost:" + port + "/realms/" + realm;
+        String base = "/realms/" + realm + "/protocol/openid-connect";
+
+        String jwks = new JWKSet(signingKey.toPublicJWK()).toString();
+        server.createContext(base + "/certs", exchange -> respond(exchange, 200, jwks));
+        server.createContext(base + "/token", this::token);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    void start() {
+        server.start();
+        System.out.println("Stub Keycloak listening on " + issuer);
+    }
+
+    private void token(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, "{\"error\":\"method_not_allowed\"}");
+            return;
+        }
+        Map<String, String> form = parseForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        String username = switch (form.getOrDefault("grant_type", "")) {
+            case "password" -> form.get("username");
+            case "refresh_token" -> form.get("refresh_token") == null ? null
+                    : new String(java.util.Base64.getUrlDecoder().decode(form.get("refresh_token")), StandardCharsets.UTF_8);
+            default -> null;
+        };
+        if (username == null || username.isBlank()) {
+            respond(exchange, 400, "{\"error\":\"invalid_grant\"}");
+            return;
+        }
+
+        try {
+            Map<String, Object> body = new HashMap<>();
+            body.put("access_token", sign(username));
+            body.put("expires_in", TOKEN_TTL_SECONDS);
+            body.put("refresh_expires_in", TOKEN_TTL_SECONDS * 6);
+            body.put("refresh_token", java.util.Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(username.getBytes(StandardCharsets.UTF_8)));
+            body.put("token_type", "Bearer");
+            respond(exchange, 200, objectMapper.writeValueAsString(body));
+        } catch (JOSEException e) {
+            respond(exchange, 500, "{\"error\":\"server_error\"}");
+        }
+    }
+
+    private String sign(String username) throws JOSEException {
+        String role = username.toLowerCase().startsWith("admin") ? "ADMIN" : "EMPLOYEE";
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .subject("loadtest-" + username)
+                .audience("account")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(TOKEN_TTL_SECONDS)))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("preferred_username", username)
+                .claim("realm_access", Map.of("roles", List.of(role)))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(signingKey));
+        return jwt.serialize();
+    }
+
+    private static Map<String, String> parseForm(String body) {
+        Map<String, String> form = new HashMap<>();
+        for (String pair : body.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                form.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return form;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -1,5 +1,10 @@
 package com.example.demo.Config;
 
+import com.example.demo.Services.FileStorageService;
+import com.example.demo.Services.ImageVariantService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.io.Resource;
@@ -8,17 +13,54 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Copia las imágenes iniciales del classpath al volumen sin bloquear el arranque.
+ * La copia corre en segundo plano con varios hilos; al terminar se escribe un manifiesto con la huella
+ * del set de imágenes, y en los siguientes arranques basta leer ese archivo para saltarse la copia.
+ * Mientras la copia no termina, las imágenes faltantes se sirven directo desde el classpath.
+ */
 @Component
 public class ImageInitializer implements CommandLineRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(ImageInitializer.class);
+
+    public static final String MANIFEST_FILE = ".seed-manifest";
+
+    // Nombres con timestamp que ya existen en la base de datos para algunas herramientas
+    private static final Map<String, String> TIMESTAMPED_COPIES = Map.of(
+            "1771455824130_Sierra.png", "Sierra.png",
+            "1771531179609_Pala.png", "Pala.png",
+            "1764735846760_Martillo.png", "Martillo.png"
+    );
+
     @Value("${IMAGES_PATH:file:images/}")
     private String imagesPathStr;
 
+    @Value("${images.seed.parallelism:4}")
+    private int parallelism;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    private volatile Map<String, Resource> seeds = Map.of();
+
+    private volatile boolean seeding = false;
+
     @Override
     public void run(String... args) throws Exception {
         // Usa la variable de entorno si existe, sino usa la propiedad inyectada
@@ -34,55 +76,135 @@ public class ImageInitializer implements CommandLineRunner {
             Files.createDirectories(targetDir);
         }
 
-        // Copy images from classpath to the target directory
-        copyInitialImages(targetDir);
+        Map<String, Resource> resources = loadSeeds();
+        seeds = resources;
+        String fingerprint = fingerprint(resources);
+        if (fingerprint.equals(readManifest(targetDir))) {
+            return;
+        }
+
+        seeding = true;
+        Thread.ofVirtual().name("image-seeder").start(() -> seed(targetDir, fingerprint));
+    }
+
+    /**
+     * Imagen inicial del classpath para un nombre que todavía no se copió al volumen, o null.
+     */
+    public Resource fallbackResource(String name) {
+        return seeding ? seeds.get(name) : null;
+    }
+
+    /**
+     * Nombres de las imágenes iniciales; el recolector de huérfanos nunca las elimina.
+     */
+    public Set<String> seedNames() {
+        return seeds.keySet();
+    }
+
+    public boolean isSeeding() {
+        return seeding;
     }
 
-    private void copyInitialImages(Path targetDir) {
+    private Map<String, Resource> loadSeeds() {
+        Map<String, Resource> resources = new TreeMap<>();
         try {
             PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
-            Resource[] resources = resolver.getResources("classpath:initial-images/*.*");
-
-            for (Resource resource : resources) {
-                if (resource.exists() && resource.isReadable()) {
-                    String filename = resource.getFilename();
-                    if (filename != null) {
-                        Path targetFile = targetDir.resolve(filename);
-                        // Copy the base image if it doesn't exist
-                        if (!Files.exists(targetFile)) {
-                            try (InputStream inputStream = resource.getInputStream()) {
-                                Files.copy(inputStream, targetFile, StandardCopyOption.REPLACE_EXISTING);
-                                System.out.println("Initialized image: " + filename);
-                            } catch (IOException e) {
-                                System.err.println("Failed to copy image " + filename + ": " + e.getMessage());
-                            }
-                        }
-                        
-                        // Also copy with timestamp for existing DB entries
-                        if (filename.equals("Sierra.png")) {
-                            copyWithTimestamp(resource, targetDir, "1771455824130_Sierra.png");
-                        } else if (filename.equals("Pala.png")) {
-                            copyWithTimestamp(resource, targetDir, "1771531179609_Pala.png");
-                        } else if (filename.equals("Martillo.png")) {
-                            copyWithTimestamp(resource, targetDir, "1764735846760_Martillo.png");
-                        }
-                    }
+            for (Resource resource : resolver.getResources("classpath:initial-images/*.*")) {
+                if (resource.exists() && resource.isReadable() && resource.getFilename() != null) {
+                    resources.put(resource.getFilename(), resource);
                 }
             }
         } catch (IOException e) {
-            System.err.println("Failed to load initial images from classpath: " + e.getMessage());
+            logger.warn("Failed to load initial images from classpath: {}", e.getMessage());
         }
+        // Also copy with timestamp for existing DB entries
+        TIMESTAMPED_COPIES.forEach((timestampedName, baseName) -> {
+            Resource resource = resources.get(baseName);
+            if (resource != null) {
+                resources.putIfAbsent(timestampedName, resource);
+            }
+        });
+        return resources;
     }
-    
-    private void copyWithTimestamp(Resource resource, Path targetDir, String timestampedName) {
-        Path targetFile = targetDir.resolve(timestampedName);
-        if (!Files.exists(targetFile)) {
-            try (InputStream inputStream = resource.getInputStream()) {
-                Files.copy(inputStream, targetFile, StandardCopyOption.REPLACE_EXISTING);
-                System.out.println("Initialized timestamped image: " + timestampedName);
+
+    private void seed(Path targetDir, String fingerprint) {
+        long start = System.currentTimeMillis();
+        AtomicInteger copied = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        try (ExecutorService copier = Executors.newFixedThreadPool(Math.max(1, parallelism))) {
+            seeds.forEach((name, resource) -> copier.submit(() -> {
+                try {
+                    if (copyIfChanged(resource, targetDir, name)) {
+                        copied.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    failed.incrementAndGet();
+                    logger.warn("Failed to copy image {}: {}", name, e.getMessage());
+                }
+            }));
+        }
+
+        // Sin manifiesto, el próximo arranque vuelve a intentar las copias que fallaron
+        if (failed.get() == 0) {
+            try {
+                Files.writeString(targetDir.resolve(MANIFEST_FILE), fingerprint, StandardCharsets.UTF_8);
             } catch (IOException e) {
-                System.err.println("Failed to copy timestamped image " + timestampedName + ": " + e.getMessage());
+                logger.warn("Failed to write image seed manifest: {}", e.getMessage());
+            }
+        }
+        seeding = false;
+        logger.info("Initialized {} images in {} ms", copied.get(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Copia la imagen si falta en el volumen o si su tamaño no coincide con la del classpath (una imagen inicial
+     * reemplazada en una versión nueva, o una copia que quedó a medias). Devuelve true si copió.
+     */
+    private boolean copyIfChanged(Resource resource, Path targetDir, String name) throws IOException {
+        Path targetFile = targetDir.resolve(name);
+        if (Files.exists(targetFile) && Files.size(targetFile) == resource.contentLength()) {
+            return false;
+        }
+
+        // Se copia a un temporal y se mueve, para no dejar archivos a medias visibles en /images
+        Path tempDir = Files.createDirectories(targetDir.resolve(FileStorageService.TEMP_DIR));
+        Path tempFile = Files.createTempFile(tempDir, "seed-", ".tmp");
+        try (InputStream inputStream = resource.getInputStream()) {
+            Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tempFile, targetFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        imageVariantService.generateAsync(name);
+        return true;
+    }
+
+    private String readManifest(Path targetDir) {
+        try {
+            Path manifest = targetDir.resolve(MANIFEST_FILE);
+            return Files.exists(manifest) ? Files.readString(manifest, StandardCharsets.UTF_8).trim() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Huella del set de imágenes (nombres y tamaños); cambia si se agrega o reemplaza una imagen inicial
+    private String fingerprint(Map<String, Resource> resources) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Map.Entry<String, Resource> entry : resources.entrySet()) {
+                long length;
+                try {
+                    length = entry.getValue().contentLength();
+                } catch (IOException e) {
+                    length = -1;
+                }
+                digest.update((entry.getKey() + ":" + length + "\n").getBytes(StandardCharsets.UTF_8));
             }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 }
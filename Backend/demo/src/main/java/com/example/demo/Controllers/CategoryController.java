@@ -2,10 +2,13 @@ package com.example.demo.Controllers;
 
 import com.example.demo.Entities.CategoryEntity;
 import com.example.demo.Services.CategoryService;
+import com.example.demo.Services.ChangeCounterService;
+import com.example.demo.Services.ChangeCounterService.Aggregate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,9 +20,13 @@ public class CategoryController {
     @Autowired
     CategoryService categoryService;
 
+    @Autowired
+    ChangeCounterService changeCounterService;
+
     @GetMapping("/")
-    public List<CategoryEntity> getAllCategories() {
-        return categoryService.getAllCategories();
+    public ResponseEntity<List<CategoryEntity>> getAllCategories(WebRequest request) {
+        String etag = changeCounterService.etag(null, Aggregate.CATEGORY);
+        return ConditionalGet.respond(request, etag, categoryService::getAllCategories);
     }
 
     @PostMapping("/")
@@ -0,0 +1,34 @@
+package com.example.demo.Controllers;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * GET condicional para los endpoints públicos del catálogo.
+ * Si el If-None-Match del cliente coincide con el ETag actual se responde 304 sin ejecutar la consulta.
+ */
+final class ConditionalGet {
+
+    // Los clientes pueden guardar la respuesta pero deben revalidarla (barato, vía 304) en cada uso
+    static final CacheControl CATALOG_CACHE = CacheControl.noCache().cachePublic();
+
+    private ConditionalGet() {
+    }
+
+    static <T> ResponseEntity<T> respond(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CATALOG_CACHE)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CATALOG_CACHE)
+                .body(body.get());
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.demo.Controllers;
+
+import com.example.demo.Services.ImageServingService;
+import com.example.demo.Services.ImageServingService.ImageFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Sirve /images/** desde el volumen de imágenes.
+ * Los nombres direccionados por contenido nunca cambian, así que se publican como immutable por un año.
+ * Soporta ETag/If-None-Match, Range (206) y versiones precomprimidas; los archivos grandes se envían
+ * con sendfile de Tomcat (zero-copy) o FileChannel.transferTo, y los chicos desde una caché en memoria.
+ */
+@Controller
+@CrossOrigin("*")
+public class ImageController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE_CACHE = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic().immutable().getHeaderValue();
+
+    private static final String DEFAULT_CACHE = CacheControl.maxAge(Duration.ofHours(1))
+            .cachePublic().getHeaderValue();
+
+    @Autowired
+    private ImageServingService imageServingService;
+
+    @Value("${images.serving.sendfile-threshold:65536}")
+    private long sendfileThreshold;
+
+    @RequestMapping(value = "/images/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serveImage(HttpServletRequest request, HttpServletResponse response,
+                           @RequestParam(required = false) Integer w) throws IOException {
+        String prefix = request.getContextPath() + "/images/";
+        String requestPath = UriUtils.decode(request.getRequestURI().substring(prefix.length()), StandardCharsets.UTF_8);
+
+        ImageFile file = imageServingService.resolve(requestPath, w);
+        if (file == null) {
+            serveSeedFallback(request, response, requestPath);
+            return;
+        }
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        // Las versiones precomprimidas se envían completas; los rangos aplican solo al archivo original
+        if (rangeHeader == null) {
+            ImageFile encoded = imageServingService.resolveEncoded(file, request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            if (encoded != null) {
+                file = encoded;
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, encoded.encoding());
+            }
+        }
+
+        response.setHeader(HttpHeaders.ETAG, file.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, file.immutable() ? IMMUTABLE_CACHE : DEFAULT_CACHE);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, file.lastModified());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (notModified(request, file)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = file.size() - 1;
+        if (rangeHeader != null && ifRangeMatches(request, file)) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                // Varios rangos (multipart/byteranges) no se usan con imágenes: se responde el archivo completo
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(file.size());
+                    end = ranges.get(0).getRangeEnd(file.size());
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + file.size());
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size());
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(file.contentType().toString());
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        byte[] cached = imageServingService.cachedContent(file);
+        if (cached != null) {
+            response.getOutputStream().write(cached, (int) start, (int) length);
+            return;
+        }
+
+        if (length >= sendfileThreshold && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat envía el archivo con sendfile después de que termine el handler
+            request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+            out.flush();
+        }
+    }
+
+    // Mientras se copian las imágenes iniciales se responden desde el classpath, sin caché en el cliente
+    private void serveSeedFallback(HttpServletRequest request, HttpServletResponse response, String requestPath)
+            throws IOException {
+        Resource resource = imageServingService.resolveSeedFallback(requestPath);
+        if (resource == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+        response.setContentType(MediaTypeFactory.getMediaType(requestPath)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(resource.contentLength());
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            in.transferTo(response.getOutputStream());
+        }
+    }
+
+    private boolean notModified(HttpServletRequest request, ImageFile file) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(file.etag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince >= 0 && file.lastModified() / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private boolean ifRangeMatches(HttpServletRequest request, ImageFile file) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        return ifRange == null || ifRange.trim().equals(file.etag());
+    }
+}
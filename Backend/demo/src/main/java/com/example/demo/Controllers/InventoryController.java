@@ -3,7 +3,12 @@ package com.example.demo.Controllers;
 import com.example.demo.Entities.InventoryEntity;
 import com.example.demo.Entities.ToolEntity;
 import com.example.demo.Entities.UserEntity;
+import com.example.demo.Services.ChangeCounterService;
+import com.example.demo.Services.ChangeCounterService.Aggregate;
+import com.example.demo.Services.InventoryHoldService;
+import com.example.demo.Services.InventoryHoldService.Hold;
 import com.example.demo.Services.InventoryService;
+import com.example.demo.Services.InventoryStreamService;
 import com.example.demo.Services.ToolService;
 import org.springframework.http.MediaType;
 import org.springframework.web.multipart.MultipartFile;
@@ -12,7 +17,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -29,14 +37,24 @@ public class InventoryController {
     @Autowired
     private ToolService toolService;
 
+    @Autowired
+    private InventoryStreamService inventoryStreamService;
+
+    @Autowired
+    private ChangeCounterService changeCounterService;
+
+    @Autowired
+    private InventoryHoldService inventoryHoldService;
+
     /*
      GET
      */
 
     @GetMapping("/")
-    public ResponseEntity<List<InventoryEntity>> getAllInventory() {
-        List<InventoryEntity> inventory = inventoryService.getAllInventory();
-        return ResponseEntity.ok(inventory);
+    public ResponseEntity<List<InventoryEntity>> getAllInventory(WebRequest request) {
+        String etag = changeCounterService.etag(null,
+                Aggregate.INVENTORY, Aggregate.TOOL, Aggregate.CATEGORY, Aggregate.TOOL_STATE);
+        return ConditionalGet.respond(request, etag, inventoryService::getAllInventory);
     }
 
     @GetMapping("/filter")
@@ -64,10 +82,45 @@ public class InventoryController {
         return ResponseEntity.ok(hasStock);
     }
 
+    /*
+     * GET: Stream SSE con los cambios de stock (toolId, state, newStock, version).
+     * Al reconectar, el navegador envía Last-Event-ID y se reenvían solo los eventos perdidos.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamInventory(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return inventoryStreamService.subscribe(lastEventId);
+    }
+
+    @GetMapping("/holds/{idClient}")
+    @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE', 'SUPERADMIN')")
+    public ResponseEntity<List<Hold>> getHoldsByClient(@PathVariable Long idClient) {
+        return ResponseEntity.ok(inventoryHoldService.getHoldsByClient(idClient));
+    }
+
     /*
      POST
      */
 
+    /*
+     * POST: Aparta unidades de una herramienta para el carrito de un cliente durante ttlSeconds
+     * (por defecto holds.ttl). El préstamo se crea después con los holdIds en /loan/create-with-tools.
+     */
+    @PostMapping("/holds/{idUser}")
+    @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE', 'SUPERADMIN')")
+    public ResponseEntity<Hold> placeHold(
+            @PathVariable Long idUser,
+            @RequestParam Long idTool,
+            @RequestParam Long idClient,
+            @RequestParam(defaultValue = "1") int quantity,
+            @RequestParam(required = false) Long ttlSeconds) {
+
+        UserEntity employee = userService.findUserById(idUser);
+        userService.validateAdminOrEmployee(employee);
+        Duration ttl = ttlSeconds == null ? null : Duration.ofSeconds(ttlSeconds);
+        return ResponseEntity.ok(inventoryHoldService.placeHold(employee, idTool, idClient, quantity, ttl));
+    }
+
     @PostMapping("/add-stock/{idUser}/{idTool}")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
     public ResponseEntity<InventoryEntity> addStock(
@@ -80,4 +133,14 @@ public class InventoryController {
         return ResponseEntity.ok(inventory);
     }
 
+    /*
+     DELETE
+     */
+
+    @DeleteMapping("/holds/{idHold}")
+    @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE', 'SUPERADMIN')")
+    public ResponseEntity<Boolean> releaseHold(@PathVariable Long idHold) {
+        return ResponseEntity.ok(inventoryHoldService.release(idHold));
+    }
+
 }
@@ -1,6 +1,8 @@
 package com.example.demo.Controllers;
 
 import com.example.demo.Entities.KardexEntity;
+import com.example.demo.Services.ChangeCounterService;
+import com.example.demo.Services.ChangeCounterService.Aggregate;
 import com.example.demo.Services.KardexService;
 import com.example.demo.Services.ToolService;
 import com.example.demo.Services.UserService;
@@ -8,10 +10,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.sql.Date;
 
 import java.sql.Date;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +33,9 @@ public class KardexController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ChangeCounterService changeCounterService;
+
     /*
     GET
      */
@@ -76,9 +83,11 @@ public class KardexController {
     }
 
     @GetMapping("/ranking")
-    public ResponseEntity<List<Map<String, Object>>> getRanking() {
-        List<Map<String, Object>> kardexList = kardexService.getRankingTools();
-        return ResponseEntity.ok(kardexList);
+    public ResponseEntity<List<Map<String, Object>>> getRanking(WebRequest request) {
+        // El ranking es del mes en curso, así que el mes forma parte del ETag
+        String etag = changeCounterService.etag(YearMonth.now().toString(),
+                Aggregate.KARDEX, Aggregate.TOOL, Aggregate.CATEGORY);
+        return ConditionalGet.respond(request, etag, kardexService::getRankingTools);
     }
 
     @GetMapping("/ranking/range")
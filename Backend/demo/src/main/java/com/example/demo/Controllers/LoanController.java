@@ -149,12 +149,6 @@ public class LoanController {
             Date initDate = Date.valueOf(body.get("initDate").toString());
             Date returnDate = Date.valueOf(body.get("returnDate").toString());
             
-            @SuppressWarnings("unchecked")
-            List<Integer> toolIdsInt = (List<Integer>) body.get("toolIds");
-            List<Long> toolIds = toolIdsInt.stream()
-                    .map(Integer::longValue)
-                    .collect(java.util.stream.Collectors.toList());
-
             // Buscar el empleado
             UserEntity employee = userService.findUserById(employeeId);
             if (employee == null) {
@@ -163,6 +157,22 @@ public class LoanController {
                 );
             }
 
+            // Si el carrito tiene reservas de stock, el préstamo se crea convirtiéndolas
+            if (body.get("holdIds") != null) {
+                @SuppressWarnings("unchecked")
+                List<Number> holdIdsRaw = (List<Number>) body.get("holdIds");
+                List<Long> holdIds = holdIdsRaw.stream()
+                        .map(Number::longValue)
+                        .collect(java.util.stream.Collectors.toList());
+                return ResponseEntity.ok(loanService.createLoanFromHolds(employee, clientId, initDate, returnDate, holdIds));
+            }
+
+            @SuppressWarnings("unchecked")
+            List<Integer> toolIdsInt = (List<Integer>) body.get("toolIds");
+            List<Long> toolIds = toolIdsInt.stream()
+                    .map(Integer::longValue)
+                    .collect(java.util.stream.Collectors.toList());
+
             // Crear el préstamo con sus herramientas
             LoanEntity loan = loanService.createLoanWithTools(employee, clientId, initDate, returnDate, toolIds);
 
@@ -0,0 +1,24 @@
+package com.example.demo.Controllers;
+
+import com.example.demo.DTO.CatalogSyncDTO;
+import com.example.demo.Services.SyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/sync")
+@CrossOrigin("*")
+public class SyncController {
+
+    @Autowired
+    private SyncService syncService;
+
+    /*
+     * GET: Cambios de herramientas, inventario y categorías desde la versión "since"
+     */
+    @GetMapping({"", "/"})
+    public ResponseEntity<CatalogSyncDTO> getChangesSince(@RequestParam(required = false) Long since) {
+        return ResponseEntity.ok(syncService.getChangesSince(since));
+    }
+}
@@ -4,12 +4,15 @@ import com.example.demo.DTO.PageResponseDTO;
 import com.example.demo.DTO.ToolDTO;
 import com.example.demo.Entities.ToolEntity;
 import com.example.demo.Entities.UserEntity;
+import com.example.demo.Services.ChangeCounterService;
+import com.example.demo.Services.ChangeCounterService.Aggregate;
 import com.example.demo.Services.ToolService;
 import com.example.demo.Services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -23,14 +26,16 @@ public class ToolController {
     private ToolService toolService;
     @Autowired
     private UserService userService;
+    @Autowired
+    private ChangeCounterService changeCounterService;
 
     /*
      * GET: Traer todas las herramientas
      */
     @GetMapping("/")
-    public ResponseEntity<List<ToolEntity>> getAllTools() {
-        List<ToolEntity> tools = toolService.getAllTools();
-        return ResponseEntity.ok(tools);
+    public ResponseEntity<List<ToolEntity>> getAllTools(WebRequest request) {
+        String etag = changeCounterService.etag(null, Aggregate.TOOL, Aggregate.CATEGORY);
+        return ConditionalGet.respond(request, etag, toolService::getAllTools);
     }
     
     /*
@@ -39,9 +44,10 @@ public class ToolController {
     @GetMapping("/paginated")
     public ResponseEntity<PageResponseDTO<ToolDTO>> getAllToolsPaginated(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "8") int size) {
-        PageResponseDTO<ToolDTO> tools = toolService.getAllToolsPaginated(page, size);
-        return ResponseEntity.ok(tools);
+            @RequestParam(defaultValue = "8") int size,
+            WebRequest request) {
+        String etag = changeCounterService.etag(null, Aggregate.TOOL, Aggregate.CATEGORY);
+        return ConditionalGet.respond(request, etag, () -> toolService.getAllToolsPaginated(page, size));
     }
     
     /*
@@ -1,9 +1,13 @@
 package com.example.demo.Controllers;
 
 import com.example.demo.Entities.ToolStateEntity;
+import com.example.demo.Services.ChangeCounterService;
+import com.example.demo.Services.ChangeCounterService.Aggregate;
 import com.example.demo.Services.ToolStateService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,9 +19,13 @@ public class ToolStateController {
     @Autowired
     ToolStateService toolStateService;
 
+    @Autowired
+    ChangeCounterService changeCounterService;
+
     @GetMapping("/")
-    public List<ToolStateEntity> getAllStates() {
-        return toolStateService.getAllStates();
+    public ResponseEntity<List<ToolStateEntity>> getAllStates(WebRequest request) {
+        String etag = changeCounterService.etag(null, Aggregate.TOOL_STATE);
+        return ConditionalGet.respond(request, etag, toolStateService::getAllStates);
     }
 
     @PostMapping("/")
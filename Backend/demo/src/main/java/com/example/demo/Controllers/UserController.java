@@ -4,6 +4,8 @@ import com.example.demo.Entities.UserEntity;
 import com.example.demo.Services.UserService;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -72,8 +74,14 @@ public class UserController {
     // Actualizar datos de usuario
     @PutMapping("/")
     @PreAuthorize("hasAnyRole('CLIENT','EMPLOYEE', 'ADMIN','SUPERADMIN')")
-    public ResponseEntity<UserEntity> updateUser(@RequestBody UserEntity user) {
-        return ResponseEntity.ok(userService.updateUser(user));
+    public ResponseEntity<?> updateUser(@RequestBody UserEntity user) {
+        try {
+            return ResponseEntity.ok(userService.updateUser(user));
+        } catch (OptimisticLockingFailureException ex) {
+            // El formulario se armó con una versión vieja del usuario (otro cambio ganó mientras se editaba)
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                    Map.of("error", "El usuario fue modificado por otra operación, recargue e intente nuevamente"));
+        }
     }
 
     /*
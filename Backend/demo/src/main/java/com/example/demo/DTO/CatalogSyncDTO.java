@@ -0,0 +1,28 @@
+package com.example.demo.DTO;
+
+import com.example.demo.Entities.CatalogTombstoneEntity;
+import com.example.demo.Entities.CategoryEntity;
+import com.example.demo.Entities.InventoryEntity;
+import com.example.demo.Entities.ToolEntity;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta de /sync: filas cambiadas y eliminadas desde la versión pedida.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogSyncDTO {
+    // Nueva marca de agua; el cliente la envía como "since" en la siguiente llamada
+    private long version;
+    // true cuando la respuesta es el catálogo completo y el cliente debe reemplazar su copia
+    private boolean full;
+    private List<ToolEntity> tools;
+    private List<InventoryEntity> inventory;
+    private List<CategoryEntity> categories;
+    private List<CatalogTombstoneEntity> deleted;
+}
@@ -0,0 +1,18 @@
+package com.example.demo.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para eventos de cambio de stock enviados por /inventory/stream
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryStockEventDTO {
+    private Long toolId;
+    private String state;
+    private int newStock;
+    private long version;
+}
@@ -0,0 +1,42 @@
+package com.example.demo.Entities;
+
+import com.example.demo.Services.CatalogVersionService;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreRemove;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA que sella con una nueva versión cada alta o modificación del catálogo
+ * y deja una lápida (tombstone) por cada borrado.
+ */
+@Component
+public class CatalogChangeListener {
+
+    @Autowired
+    @Lazy
+    private CatalogVersionService catalogVersionService;
+
+    @PrePersist
+    @PreUpdate
+    public void onWrite(CatalogVersioned entity) {
+        entity.setChangeVersion(catalogVersionService.nextVersion());
+    }
+
+    @PreRemove
+    public void onRemove(CatalogVersioned entity) {
+        catalogVersionService.recordDeletion(entityType(entity), entity.getId());
+    }
+
+    public static String entityType(CatalogVersioned entity) {
+        if (entity instanceof ToolEntity) {
+            return "tool";
+        }
+        if (entity instanceof InventoryEntity) {
+            return "inventory";
+        }
+        return "category";
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.Entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Registro de una fila eliminada del catálogo, para que /sync pueda informar los borrados.
+ */
+@Data
+@Entity
+@Table(name="catalog_tombstone")
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class CatalogTombstoneEntity {
+
+    @Id
+    @GeneratedValue(strategy=GenerationType.IDENTITY)
+    @Column(unique=true, nullable=false)
+    private Long id;
+
+    // "tool", "inventory" o "category"
+    private String entityType;
+
+    private Long entityId;
+
+    private Long changeVersion;
+}
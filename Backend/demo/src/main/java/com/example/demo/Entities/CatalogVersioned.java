@@ -0,0 +1,13 @@
+package com.example.demo.Entities;
+
+/**
+ * Entidades del catálogo cuyas escrituras avanzan la versión global de cambios (ver /sync).
+ */
+public interface CatalogVersioned {
+
+    Long getId();
+
+    Long getChangeVersion();
+
+    void setChangeVersion(Long changeVersion);
+}
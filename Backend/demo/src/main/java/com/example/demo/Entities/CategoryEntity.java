@@ -6,11 +6,12 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @Table(name = "categories")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class CategoryEntity {
+public class CategoryEntity implements CatalogVersioned {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,4 +20,7 @@ public class CategoryEntity {
 
     @Column(unique = true, nullable = false)
     private String name;
+
+    // Versión del último cambio, usada por /sync
+    private Long changeVersion;
 }
@@ -1,17 +1,20 @@
 package com.example.demo.Entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 @Data
 @Entity
-@Table(name="inventory")
+@EntityListeners(CatalogChangeListener.class)
+@Table(name="inventory",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"idTool", "tool_state_id"}))
 @NoArgsConstructor
 @AllArgsConstructor
 
-public class InventoryEntity {
+public class InventoryEntity implements CatalogVersioned {
 
     @Id
     @GeneratedValue(strategy=GenerationType.IDENTITY)
@@ -28,4 +31,12 @@ public class InventoryEntity {
 
     private int stockTool;
 
+    // Versión del último cambio, usada por /sync
+    private Long changeVersion;
+
+    // Bloqueo optimista: préstamos, devoluciones y reparaciones simultáneas mueven el mismo stock
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
 }
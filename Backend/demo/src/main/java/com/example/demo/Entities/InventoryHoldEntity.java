@@ -0,0 +1,50 @@
+package com.example.demo.Entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Bitácora de las reservas de stock (InventoryHoldService): cuántas unidades de una herramienta quedan apartadas
+ * para un cliente hasta expiresAt. El estado vigente vive en memoria; esta tabla solo permite reconstruirlo al
+ * reiniciar y deja registro de cómo terminó cada reserva (ACTIVA, CONVERTIDA, LIBERADA o EXPIRADA).
+ */
+@Data
+@Entity
+@Table(name="inventory_hold",
+        indexes = @Index(columnList = "status, expiresAt"))
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class InventoryHoldEntity {
+
+    @Id
+    @GeneratedValue(strategy=GenerationType.IDENTITY)
+    @Column(unique=true, nullable=false)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "idTool", referencedColumnName = "id", nullable = false)
+    private ToolEntity idTool;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "idUser", referencedColumnName = "id", nullable = false)
+    private UserEntity idUser;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "idEmployee", referencedColumnName = "id", nullable = true)
+    private UserEntity idEmployee;
+
+    private int quantity;
+
+    // Epoch en milisegundos
+    @Column(nullable=false)
+    private Long createdAt;
+
+    @Column(nullable=false)
+    private Long expiresAt;
+
+    @Column(nullable=false, length=20)
+    private String status;
+}
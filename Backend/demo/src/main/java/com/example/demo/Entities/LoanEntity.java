@@ -2,6 +2,7 @@ package com.example.demo.Entities;
 
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -32,4 +33,10 @@ public class LoanEntity {
     private Date realReturnDate;
 
     private String status;
+
+    // La devolución y los pagos pueden cambiar el estado del mismo pedido a la vez
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
 }
@@ -1,6 +1,7 @@
 package com.example.demo.Entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -42,4 +43,8 @@ public class LoanXToolsEntity {
 
     private Boolean needRepair;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
 }
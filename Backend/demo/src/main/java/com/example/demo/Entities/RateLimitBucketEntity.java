@@ -0,0 +1,27 @@
+package com.example.demo.Entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Estado compartido de un token bucket (store postgres de RateLimitService).
+ * tat es el "theoretical arrival time" de GCRA en microsegundos del reloj de la base de datos:
+ * el bucket está lleno cuando tat <= ahora, así que las filas vencidas se pueden borrar sin perder nada.
+ */
+@Data
+@Entity
+@Table(name="rate_limit_buckets")
+@NoArgsConstructor
+@AllArgsConstructor
+
+public class RateLimitBucketEntity {
+
+    @Id
+    @Column(nullable=false, length=200)
+    private String bucketKey;
+
+    @Column(nullable=false)
+    private Long tat;
+}
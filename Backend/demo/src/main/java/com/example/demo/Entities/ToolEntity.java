@@ -7,11 +7,12 @@ import lombok.AllArgsConstructor;
 
 @Data
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @Table(name="tool")
 @NoArgsConstructor
 @AllArgsConstructor
 
-public class ToolEntity {
+public class ToolEntity implements CatalogVersioned {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,4 +32,7 @@ public class ToolEntity {
     private int priceFineAtDate;
 
     private String imageUrl;
+
+    // Versión del último cambio, usada por /sync
+    private Long changeVersion;
 }
@@ -1,6 +1,7 @@
 package com.example.demo.Entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -38,7 +39,16 @@ public class UserEntity {
 
     private String rol;
 
+    // Préstamos activos. Solo lo cambian las sentencias atómicas de UserRepository (incrementLoans/decrementLoans)
+    // y la reconciliación; guardar la entidad no lo sobrescribe
+    @Column(updatable = false)
     private int loans;
     
     private String keycloakId;
+
+    // loans y stateClient los cambian préstamos y devoluciones concurrentes; un cambio perdido deja mal al cliente
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
 }
@@ -0,0 +1,13 @@
+package com.example.demo.Repositories;
+
+import com.example.demo.Entities.CatalogTombstoneEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CatalogTombstoneRepository extends JpaRepository<CatalogTombstoneEntity, Long> {
+
+    List<CatalogTombstoneEntity> findByChangeVersionBetween(Long from, Long to);
+}
@@ -4,7 +4,11 @@ import com.example.demo.Entities.CategoryEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<CategoryEntity, Long> {
     CategoryEntity findByName(String name);
+
+    List<CategoryEntity> findByChangeVersionBetween(Long from, Long to);
 }
@@ -0,0 +1,40 @@
+package com.example.demo.Repositories;
+
+import com.example.demo.Entities.InventoryHoldEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventoryHoldRepository extends JpaRepository<InventoryHoldEntity, Long> {
+
+    /*
+     * Reservas vigentes, para reconstruir el estado en memoria al arrancar.
+     */
+    @Query("SELECT h.id, h.idTool.id, h.idUser.id, h.quantity, h.expiresAt FROM InventoryHoldEntity h " +
+            "WHERE h.status = 'ACTIVA' AND h.expiresAt > :now")
+    List<Object[]> findActiveRows(@Param("now") long now);
+
+    /*
+     * Cierra reservas que sigan ACTIVA. El WHERE sobre el estado evita que una misma reserva termine dos veces
+     * (por ejemplo convertida en préstamo y a la vez vencida); devuelve cuántas se cerraron.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE InventoryHoldEntity h SET h.status = :status WHERE h.id IN :ids AND h.status = 'ACTIVA'")
+    int close(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
+    /*
+     * Marca como vencidas las reservas cuyo plazo pasó mientras la aplicación estaba detenida.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE InventoryHoldEntity h SET h.status = 'EXPIRADA' WHERE h.status = 'ACTIVA' AND h.expiresAt <= :now")
+    int expireBefore(@Param("now") long now);
+}
@@ -2,9 +2,17 @@ package com.example.demo.Repositories;
 
 import com.example.demo.Entities.InventoryEntity;
 import com.example.demo.Entities.ToolEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -21,8 +29,53 @@ public interface InventoryRepository extends JpaRepository<InventoryEntity, Long
     List<InventoryEntity> findByIdTool_Category_Name(String category);
 
     List<InventoryEntity> findByToolState_StateAndIdTool_Category_Name(String toolState, String category);
-    
+
+    // Los listados completos (filtro de inventario) traen herramienta, categoría y estado en la misma consulta;
+    // sin esto cada relación EAGER se cargaba con un SELECT aparte por fila distinta (N+1)
+    @EntityGraph(attributePaths = {"idTool", "idTool.category", "toolState"})
     List<InventoryEntity> findAllByOrderByIdTool_PriceRentAsc();
 
+    @EntityGraph(attributePaths = {"idTool", "idTool.category", "toolState"})
     List<InventoryEntity> findAllByOrderByIdTool_PriceRentDesc();
+
+    @Override
+    @EntityGraph(attributePaths = {"idTool", "idTool.category", "toolState"})
+    List<InventoryEntity> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"idTool", "idTool.category", "toolState"})
+    List<InventoryEntity> findAll(Sort sort);
+
+    /*
+     * Crea en una sola sentencia la fila (herramienta, estado) con stock 0 para todas las herramientas.
+     * Las combinaciones que ya existen se ignoran gracias al índice único (id_tool, tool_state_id), que
+     * InventoryUniqueIndexService garantiza antes de llamar a este método.
+     * Al no pasar por JPA, la versión de cambio (/sync) se recibe como parámetro.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO inventory (id_tool, tool_state_id, stock_tool, change_version) " +
+            "SELECT t.id, :stateId, 0, :version FROM tool t " +
+            "ON CONFLICT (id_tool, tool_state_id) DO NOTHING",
+            nativeQuery = true)
+    int insertStateForAllTools(@Param("stateId") Long stateId, @Param("version") Long version);
+
+    /*
+     * Crea en una sola sentencia las filas de inventario con stock 0 de una herramienta para todos los estados.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO inventory (id_tool, tool_state_id, stock_tool, change_version) " +
+            "SELECT :toolId, s.id, 0, :version FROM tool_states s " +
+            "ON CONFLICT (id_tool, tool_state_id) DO NOTHING",
+            nativeQuery = true)
+    int insertAllStatesForTool(@Param("toolId") Long toolId, @Param("version") Long version);
+
+    List<InventoryEntity> findByChangeVersionBetween(Long from, Long to);
+
+    /*
+     * SELECT ... FOR UPDATE de todas las filas de inventario de las herramientas, ordenadas por herramienta e id:
+     * el ORDER BY se aplica antes de tomar los locks, así que siempre se bloquean en el mismo orden.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InventoryEntity i WHERE i.idTool.id IN :toolIds ORDER BY i.idTool.id, i.id")
+    List<InventoryEntity> lockByToolIds(@Param("toolIds") Collection<Long> toolIds);
 }
@@ -0,0 +1,38 @@
+package com.example.demo.Repositories;
+
+import com.example.demo.Entities.RateLimitBucketEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RateLimitBucketRepository extends JpaRepository<RateLimitBucketEntity, String> {
+
+    /*
+     * Consume un token con GCRA en una sola sentencia atómica, usando el reloj de la base de datos para que
+     * todas las réplicas vean el mismo tiempo. Devuelve cuánto "debe" el bucket tras consumir (tat - ahora,
+     * en microsegundos), o null si no había token (el WHERE del DO UPDATE no deja actualizar la fila).
+     */
+    @Transactional
+    @Query(value = "WITH clock AS (SELECT CAST(EXTRACT(EPOCH FROM clock_timestamp()) * 1000000 AS bigint) AS now_us) " +
+            "INSERT INTO rate_limit_buckets AS b (bucket_key, tat) " +
+            "SELECT :bucketKey, clock.now_us + :intervalUs FROM clock " +
+            "ON CONFLICT (bucket_key) DO UPDATE " +
+            "SET tat = GREATEST(b.tat, (SELECT now_us FROM clock)) + :intervalUs " +
+            "WHERE GREATEST(b.tat, (SELECT now_us FROM clock)) + :intervalUs - (SELECT now_us FROM clock) <= :burstUs " +
+            "RETURNING b.tat - (SELECT now_us FROM clock)",
+            nativeQuery = true)
+    Long consume(@Param("bucketKey") String bucketKey, @Param("intervalUs") long intervalUs, @Param("burstUs") long burstUs);
+
+    /*
+     * Borra los buckets que ya se rellenaron por completo.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM rate_limit_buckets WHERE tat < CAST(EXTRACT(EPOCH FROM clock_timestamp()) * 1000000 AS bigint)",
+            nativeQuery = true)
+    int deleteFull();
+}
@@ -4,9 +4,11 @@ import com.example.demo.Entities.ToolEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ToolRepository extends JpaRepository<ToolEntity,Long> {
@@ -31,5 +33,8 @@ public interface ToolRepository extends JpaRepository<ToolEntity,Long> {
     
     Page<ToolEntity> findAllByOrderByPriceRentDesc(Pageable pageable);
 
+    List<ToolEntity> findByChangeVersionBetween(Long from, Long to);
 
+    @Query("SELECT DISTINCT t.imageUrl FROM ToolEntity t WHERE t.imageUrl IS NOT NULL")
+    Stream<String> streamReferencedImageUrls();
 }
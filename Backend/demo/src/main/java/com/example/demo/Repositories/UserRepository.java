@@ -1,9 +1,15 @@
 package com.example.demo.Repositories;
 
 import com.example.demo.Entities.UserEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,4 +23,39 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
     List<UserEntity> findByRol(String rol);
 
+    /*
+     * Ocupa un cupo de préstamo en una sola sentencia: dos pedidos simultáneos no pueden pasar los dos el límite.
+     * Devuelve 0 si el cliente ya tenía maxLoans préstamos activos.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE users SET loans = loans + 1 WHERE id = :id AND loans < :maxLoans", nativeQuery = true)
+    int incrementLoans(@Param("id") Long id, @Param("maxLoans") int maxLoans);
+
+    /*
+     * Libera un cupo; nunca deja el contador bajo cero. Devuelve 0 si ya estaba en 0.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE users SET loans = loans - 1 WHERE id = :id AND loans > 0", nativeQuery = true)
+    int decrementLoans(@Param("id") Long id);
+
+    /*
+     * Un bloque de usuarios ordenados por id, con [id, contador guardado, préstamos realmente activos].
+     * Contador y conteo salen de la misma sentencia, así que son consistentes entre sí.
+     */
+    @Query("SELECT u.id, u.loans, (SELECT count(l) FROM LoanEntity l WHERE l.idUser = u AND l.status IN :activeStates)" +
+            " FROM UserEntity u WHERE u.id > :afterId ORDER BY u.id")
+    List<Object[]> findLoanCountersAfter(@Param("afterId") Long afterId,
+                                         @Param("activeStates") Collection<String> activeStates,
+                                         Pageable pageable);
+
+    /*
+     * Corrige el contador solo si nadie lo cambió desde que se leyó (un préstamo creado entretanto gana).
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE users SET loans = :active WHERE id = :id AND loans = :seen", nativeQuery = true)
+    int setLoansIfUnchanged(@Param("id") Long id, @Param("seen") int seen, @Param("active") int active);
+
 }
@@ -0,0 +1,65 @@
+package com.example.demo.Services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+
+/**
+ * Contadores de negocio: movimientos de stock por transición de estado y movimientos de kardex por tipo.
+ * Dentro de una transacción se incrementan recién al hacer commit, para no contar operaciones revertidas.
+ */
+@Service
+public class BusinessMetricsService {
+
+    // Estados de inventario y tipos de kardex conocidos; cualquier otro valor se agrupa como OTRO
+    private static final Set<String> STATES = Set.of("NUEVO", "DISPONIBLE", "PRESTADA", "EN REPARACION", "DADA DE BAJA");
+
+    private static final Set<String> KARDEX_TYPES = Set.of("INGRESO", "PRESTAMO", "DEVOLUCION", "REPARACION", "BAJA",
+            "PAGO DEUDA", "PAGO REPARACION");
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public BusinessMetricsService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordStockMove(String fromState, String toState, int quantity) {
+        Counter counter = Counter.builder("toolrent.inventory.moves")
+                .description("Unidades de herramientas movidas entre estados de inventario")
+                .tag("from", known(STATES, fromState))
+                .tag("to", known(STATES, toState))
+                .register(meterRegistry);
+        afterCommit(() -> counter.increment(quantity));
+    }
+
+    public void recordKardexMovement(String type) {
+        Counter counter = Counter.builder("toolrent.kardex.movements")
+                .description("Movimientos registrados en el kardex")
+                .tag("type", known(KARDEX_TYPES, type))
+                .register(meterRegistry);
+        afterCommit(counter::increment);
+    }
+
+    private static String known(Set<String> values, String value) {
+        return value != null && values.contains(value) ? value : "OTRO";
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
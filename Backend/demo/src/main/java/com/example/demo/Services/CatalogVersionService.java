@@ -0,0 +1,104 @@
+package com.example.demo.Services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.util.TreeSet;
+
+/**
+ * Entrega las versiones de cambios del catálogo desde la secuencia catalog_version_seq.
+ * Se usa JDBC directo porque se invoca desde callbacks JPA durante el flush.
+ *
+ * Pedir un valor a la secuencia no bloquea ninguna fila, así que las escrituras del catálogo y del inventario no
+ * se esperan entre sí. A cambio las versiones pueden confirmarse fuera de orden; por eso currentVersion() no
+ * devuelve la mayor entregada sino la marca segura: la mayor versión por debajo de la cual ninguna transacción
+ * sigue abierta. /sync nunca anuncia una versión cuyo cambio todavía no es visible.
+ * Las versiones en curso se siguen en memoria, lo que supone una sola réplica (como el despliegue de producción).
+ */
+@Service
+public class CatalogVersionService {
+
+    static final String SEQUENCE = "catalog_version_seq";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String nextValueSql;
+
+    // Versiones entregadas cuya transacción no terminó
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+
+    private long highestIssued = -1;
+
+    /**
+     * Devuelve una versión nueva. Si hay una transacción activa la versión queda "en curso" hasta que termine.
+     * La secuencia se consulta dentro del monitor para que una versión menor no quede sin registrar mientras
+     * otra mayor ya se confirmó.
+     */
+    public long nextVersion() {
+        long version;
+        synchronized (this) {
+            ensureSequence();
+            version = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+            highestIssued = Math.max(highestIssued, version);
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                return version;
+            }
+            inFlight.add(version);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                complete(version);
+            }
+        });
+        return version;
+    }
+
+    /**
+     * Marca segura de versiones confirmadas (0 si todavía no hubo cambios): todo cambio con versión menor
+     * o igual ya es visible.
+     */
+    public synchronized long currentVersion() {
+        ensureSequence();
+        return inFlight.isEmpty() ? highestIssued : inFlight.first() - 1;
+    }
+
+    public void recordDeletion(String entityType, Long entityId) {
+        long version = nextVersion();
+        jdbcTemplate.update("INSERT INTO catalog_tombstone (entity_type, entity_id, change_version) VALUES (?, ?, ?)",
+                entityType, entityId, version);
+    }
+
+    private synchronized void complete(long version) {
+        inFlight.remove(version);
+    }
+
+    /**
+     * Crea la secuencia la primera vez, empezando después de la mayor versión ya guardada, y fija la marca inicial.
+     * Es perezoso para que el arranque no toque la base de datos.
+     */
+    private void ensureSequence() {
+        if (nextValueSql != null) {
+            return;
+        }
+        long highest = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(v), 0) FROM ("
+                        + "SELECT MAX(change_version) AS v FROM tool "
+                        + "UNION ALL SELECT MAX(change_version) FROM inventory "
+                        + "UNION ALL SELECT MAX(change_version) FROM categories "
+                        + "UNION ALL SELECT MAX(change_version) FROM catalog_tombstone) versions",
+                Long.class);
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE + " START WITH " + (highest + 1));
+        String product = jdbcTemplate.execute(
+                (Connection connection) -> connection.getMetaData().getDatabaseProductName());
+        nextValueSql = "PostgreSQL".equalsIgnoreCase(product)
+                ? "SELECT nextval('" + SEQUENCE + "')"
+                : "SELECT NEXT VALUE FOR " + SEQUENCE;
+        highestIssued = Math.max(highestIssued, highest);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.demo.Services;
 
 import com.example.demo.Entities.CategoryEntity;
 import com.example.demo.Repositories.CategoryRepository;
+import com.example.demo.Services.ChangeCounterService.Aggregate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -15,6 +16,9 @@ public class CategoryService {
     @Autowired
     CategoryRepository categoryRepository;
 
+    @Autowired
+    ChangeCounterService changeCounterService;
+
     public List<CategoryEntity> getAllCategories() {
         // Ordenar por ID descendente (más reciente primero)
         return categoryRepository.findAll()
@@ -27,7 +31,9 @@ public class CategoryService {
         if (categoryRepository.findByName(category.getName()) != null) {
             return categoryRepository.findByName(category.getName());
         }
-        return categoryRepository.save(category);
+        CategoryEntity saved = categoryRepository.save(category);
+        changeCounterService.markChanged(Aggregate.CATEGORY);
+        return saved;
     }
     
     public CategoryEntity findByName(String name) {
@@ -40,7 +46,9 @@ public class CategoryService {
             return null;
         }
         existing.setName(category.getName());
-        return categoryRepository.save(existing);
+        CategoryEntity saved = categoryRepository.save(existing);
+        changeCounterService.markChanged(Aggregate.CATEGORY);
+        return saved;
     }
 
     public boolean deleteCategory(Long id) {
@@ -48,6 +56,7 @@ public class CategoryService {
             return false;
         }
         categoryRepository.deleteById(id);
+        changeCounterService.markChanged(Aggregate.CATEGORY);
         return true;
     }
 }
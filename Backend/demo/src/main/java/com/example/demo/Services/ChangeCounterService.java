@@ -0,0 +1,64 @@
+package com.example.demo.Services;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contadores de cambios en memoria por agregado, usados para generar ETags de los endpoints públicos.
+ * Consultar un ETag no toca la base de datos; los contadores se incrementan tras el commit de cada escritura.
+ */
+@Service
+public class ChangeCounterService {
+
+    public enum Aggregate { INVENTORY, TOOL, CATEGORY, TOOL_STATE, KARDEX }
+
+    // Distingue instancias/reinicios para que un ETag antiguo nunca coincida con contadores reiniciados
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLongArray counters = new AtomicLongArray(Aggregate.values().length);
+
+    /**
+     * Marca los agregados como modificados. Dentro de una transacción se aplica después del commit,
+     * así un GET concurrente nunca asocia datos antiguos a un ETag nuevo.
+     */
+    public void markChanged(Aggregate... aggregates) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(aggregates);
+                }
+            });
+        } else {
+            increment(aggregates);
+        }
+    }
+
+    public long getVersion(Aggregate aggregate) {
+        return counters.get(aggregate.ordinal());
+    }
+
+    /**
+     * ETag fuerte a partir de los contadores de los agregados que componen la respuesta.
+     * scope permite distinguir respuestas que dependen de algo más (por ejemplo, el mes del ranking).
+     */
+    public String etag(String scope, Aggregate... aggregates) {
+        StringBuilder tag = new StringBuilder("\"").append(epoch);
+        if (scope != null && !scope.isBlank()) {
+            tag.append('-').append(scope);
+        }
+        for (Aggregate aggregate : aggregates) {
+            tag.append('-').append(counters.get(aggregate.ordinal()));
+        }
+        return tag.append('"').toString();
+    }
+
+    private void increment(Aggregate... aggregates) {
+        for (Aggregate aggregate : aggregates) {
+            counters.incrementAndGet(aggregate.ordinal());
+        }
+    }
+}
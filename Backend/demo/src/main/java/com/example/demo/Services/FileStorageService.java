@@ -4,15 +4,37 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
 
+/**
+ * Almacenamiento de imágenes direccionado por contenido.
+ * Cada archivo se guarda como ab/cd/abcd….ext según su SHA-256, así la misma imagen subida
+ * para varias herramientas se guarda una sola vez.
+ */
 @Service
 public class FileStorageService {
 
+    // Directorio para las subidas en curso; está dentro del volumen para que el move final sea atómico
+    public static final String TEMP_DIR = ".tmp";
+
+    private static final long TRANSFER_CHUNK = 1L << 20;
+
     private final Path fileStorageLocation;
 
     public FileStorageService(@Value("${file.upload-dir:images}") String uploadDir) {
@@ -29,21 +51,86 @@ public class FileStorageService {
         }
     }
 
+    public Path getFileStorageLocation() {
+        return fileStorageLocation;
+    }
+
+    /**
+     * Guarda la imagen sin cargarla completa en memoria: se copia por canales NIO a un archivo
+     * temporal mientras se calcula el SHA-256, y luego se mueve a su ruta definitiva.
+     * Si ya existe un archivo con el mismo contenido se reutiliza.
+     * @return nombre relativo del archivo (ej. "ab/cd/abcd….png"), o null si no hay imagen
+     */
     public String saveFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             return null;
         }
 
+        Path tempFile = null;
         try {
-            String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
+            Path tempDir = this.fileStorageLocation.resolve(TEMP_DIR);
+            Files.createDirectories(tempDir);
+            tempFile = Files.createTempFile(tempDir, "upload-", ".part");
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+                 ReadableByteChannel source = Channels.newChannel(in);
+                 FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                long position = 0;
+                long transferred = target.transferFrom(source, position, TRANSFER_CHUNK);
+                while (transferred > 0) {
+                    position += transferred;
+                    transferred = target.transferFrom(source, position, TRANSFER_CHUNK);
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String fileName = contentAddressedName(hash, extension(file.getOriginalFilename()));
             Path filePath = this.fileStorageLocation.resolve(fileName);
 
-            Files.write(filePath, file.getBytes());
+            if (!Files.exists(filePath)) {
+                Files.createDirectories(filePath.getParent());
+                try {
+                    Files.move(tempFile, filePath, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, filePath, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else {
+                // Reutilizar un archivo lo vuelve reciente, para que el recolector de huérfanos respete su período de gracia
+                Files.setLastModifiedTime(filePath, FileTime.fromMillis(System.currentTimeMillis()));
+            }
 
             return fileName;
 
         } catch (IOException e) {
             throw new RuntimeException("Error al guardar la imagen: " + e.getMessage());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {
+                    // Un temporal huérfano no afecta el guardado
+                }
+            }
+        }
+    }
+
+    public static String contentAddressedName(String hash, String extension) {
+        String name = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+        return extension.isEmpty() ? name : name + "." + extension;
+    }
+
+    private String extension(String originalFilename) {
+        if (originalFilename == null) {
+            return "";
+        }
+        int dot = originalFilename.lastIndexOf('.');
+        if (dot < 0 || dot == originalFilename.length() - 1) {
+            return "";
         }
+        String ext = originalFilename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return ext.matches("[a-z0-9]{1,5}") ? ext : "";
     }
 }
@@ -0,0 +1,208 @@
+package com.example.demo.Services;
+
+import com.example.demo.Config.ImageInitializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Resolución de archivos para /images/**: selección de variante por ancho, versiones precomprimidas,
+ * ETags y una caché LRU acotada (en bytes) de imágenes pequeñas y frecuentes.
+ */
+@Service
+public class ImageServingService {
+
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final FileStorageService fileStorageService;
+
+    private final ImageInitializer imageInitializer;
+
+    private final int[] widths;
+
+    private final long maxCachedFileBytes;
+
+    private final long maxCacheBytes;
+
+    private final Map<String, CachedImage> cache = new LinkedHashMap<>(128, 0.75f, true);
+
+    private long cachedBytes = 0;
+
+    @Autowired
+    public ImageServingService(FileStorageService fileStorageService,
+                               ImageVariantService imageVariantService,
+                               ImageInitializer imageInitializer,
+                               @Value("${images.serving.cache-max-file-bytes:65536}") long maxCachedFileBytes,
+                               @Value("${images.serving.cache-max-bytes:33554432}") long maxCacheBytes) {
+        this.fileStorageService = fileStorageService;
+        this.imageInitializer = imageInitializer;
+        this.widths = imageVariantService.getWidths();
+        this.maxCachedFileBytes = maxCachedFileBytes;
+        this.maxCacheBytes = maxCacheBytes;
+    }
+
+    /**
+     * Archivo a servir para una ruta pedida.
+     * @param etag ETag fuerte; para nombres direccionados por contenido se deriva del hash
+     * @param encoding "br" o "gzip" si es una versión precomprimida, o null
+     */
+    public record ImageFile(Path path, String name, long size, long lastModified, MediaType contentType,
+                            boolean immutable, String etag, String encoding) {
+    }
+
+    /**
+     * Resuelve la imagen (o su variante más pequeña que cubra width), o null si no existe o la ruta es inválida.
+     */
+    public ImageFile resolve(String requestPath, Integer width) {
+        if (requestPath == null || requestPath.isBlank() || requestPath.startsWith(".")
+                || requestPath.contains("..") || requestPath.contains("\\")) {
+            return null;
+        }
+        Path root = fileStorageService.getFileStorageLocation();
+
+        boolean variantPending = false;
+        if (width != null && width > 0) {
+            for (int w : widths) {
+                if (w >= width) {
+                    ImageFile variant = describe(root.resolve(ImageVariantService.VARIANTS_DIR)
+                            .resolve(String.valueOf(w)).resolve(requestPath), requestPath, "w" + w, null);
+                    if (variant != null) {
+                        return variant;
+                    }
+                    variantPending = true;
+                }
+            }
+        }
+        ImageFile original = describe(root.resolve(requestPath), requestPath, null, null);
+        if (original == null || !variantPending) {
+            return original;
+        }
+        // La variante todavía no se generó: el original sale bajo la URL de la variante, así que no puede
+        // marcarse immutable o el navegador y la CDN lo seguirían usando cuando la variante exista
+        return new ImageFile(original.path(), original.name(), original.size(), original.lastModified(),
+                original.contentType(), false, original.etag(), original.encoding());
+    }
+
+    /**
+     * Imagen inicial del classpath para una ruta que todavía no existe en el volumen porque la copia
+     * de arranque no ha terminado; null en cualquier otro caso.
+     */
+    public Resource resolveSeedFallback(String requestPath) {
+        if (requestPath == null || requestPath.contains("/") || requestPath.startsWith(".")) {
+            return null;
+        }
+        return imageInitializer.fallbackResource(requestPath);
+    }
+
+    /**
+     * Versión precomprimida (.br o .gz) del archivo, si existe y el cliente la acepta.
+     */
+    public ImageFile resolveEncoded(ImageFile file, String acceptEncoding) {
+        if (file == null || acceptEncoding == null || file.encoding() != null) {
+            return null;
+        }
+        String accepted = acceptEncoding.toLowerCase();
+        if (accepted.contains("br")) {
+            ImageFile br = describeEncoded(file, ".br", "br");
+            if (br != null) {
+                return br;
+            }
+        }
+        if (accepted.contains("gzip")) {
+            return describeEncoded(file, ".gz", "gzip");
+        }
+        return null;
+    }
+
+    /**
+     * Contenido completo si el archivo es lo bastante chico para la caché en memoria; null si debe leerse del disco.
+     */
+    public byte[] cachedContent(ImageFile file) throws IOException {
+        if (file.size() > maxCachedFileBytes) {
+            return null;
+        }
+        String key = file.path().toString();
+        synchronized (cache) {
+            CachedImage cached = cache.get(key);
+            if (cached != null && cached.lastModified == file.lastModified() && cached.bytes.length == file.size()) {
+                return cached.bytes;
+            }
+        }
+
+        byte[] bytes = Files.readAllBytes(file.path());
+        synchronized (cache) {
+            CachedImage previous = cache.put(key, new CachedImage(bytes, file.lastModified()));
+            if (previous != null) {
+                cachedBytes -= previous.bytes.length;
+            }
+            cachedBytes += bytes.length;
+            var eldest = cache.entrySet().iterator();
+            while (cachedBytes > maxCacheBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().getValue().bytes.length;
+                eldest.remove();
+            }
+        }
+        return bytes;
+    }
+
+    private ImageFile describeEncoded(ImageFile file, String suffix, String encoding) {
+        Path encodedPath = file.path().resolveSibling(file.path().getFileName() + suffix);
+        ImageFile encoded = describe(encodedPath, file.name(), null, encoding);
+        if (encoded == null) {
+            return null;
+        }
+        String etag = file.etag().substring(0, file.etag().length() - 1) + "-" + encoding + "\"";
+        return new ImageFile(encoded.path(), file.name(), encoded.size(), encoded.lastModified(),
+                file.contentType(), file.immutable(), etag, encoding);
+    }
+
+    private ImageFile describe(Path path, String requestPath, String variant, String encoding) {
+        Path root = fileStorageService.getFileStorageLocation();
+        Path normalized = path.normalize();
+        if (!normalized.startsWith(root)) {
+            return null;
+        }
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(normalized, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+        if (!attrs.isRegularFile()) {
+            return null;
+        }
+
+        String fileName = normalized.getFileName().toString();
+        String baseName = fileName.contains(".") ? fileName.substring(0, fileName.indexOf('.')) : fileName;
+        boolean immutable = CONTENT_HASH.matcher(baseName).matches();
+        long lastModified = attrs.lastModifiedTime().toMillis();
+
+        String tag = immutable
+                ? baseName
+                : Long.toHexString(attrs.size()) + "-" + Long.toHexString(lastModified);
+        if (variant != null) {
+            tag += "-" + variant;
+        }
+        if (encoding != null) {
+            tag += "-" + encoding;
+        }
+
+        MediaType contentType = MediaTypeFactory.getMediaType(requestPath).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        return new ImageFile(normalized, requestPath, attrs.size(), lastModified, contentType, immutable,
+                "\"" + tag + "\"", encoding);
+    }
+
+    private record CachedImage(byte[] bytes, long lastModified) {
+    }
+}
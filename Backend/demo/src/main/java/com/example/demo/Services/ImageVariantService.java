@@ -0,0 +1,245 @@
+package com.example.demo.Services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Genera versiones reducidas de las imágenes de herramientas (por defecto 16, 160, 320 y 800 px de ancho;
+ * la de 16 px sirve como placeholder). Se guardan en .variants/<ancho>/<nombre original> y se piden con ?w=.
+ * El procesamiento corre en un pool acotado para no competir con las peticiones.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    public static final String VARIANTS_DIR = ".variants";
+
+    private final FileStorageService fileStorageService;
+
+    private final int[] widths;
+
+    private final boolean backfillOnStartup;
+
+    private final ThreadPoolExecutor workers;
+
+    @Autowired
+    public ImageVariantService(FileStorageService fileStorageService,
+                               @Value("${images.variants.widths:16,160,320,800}") int[] widths,
+                               @Value("${images.variants.workers:2}") int workerCount,
+                               @Value("${images.variants.queue-size:100}") int queueSize,
+                               @Value("${images.variants.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.fileStorageService = fileStorageService;
+        this.widths = Arrays.stream(widths).sorted().toArray();
+        this.backfillOnStartup = backfillOnStartup;
+        // Si la cola se llena la imagen se descarta; el backfill la procesará en el próximo arranque
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                Thread.ofPlatform().name("image-variants-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.DiscardPolicy());
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    public int[] getWidths() {
+        return widths.clone();
+    }
+
+    /**
+     * Encola la generación de variantes de una imagen recién guardada.
+     */
+    public void generateAsync(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            return;
+        }
+        try {
+            workers.execute(() -> generate(fileName));
+        } catch (RejectedExecutionException e) {
+            // Pool detenido (apagado de la aplicación)
+        }
+    }
+
+    /**
+     * Genera las variantes que falten para una imagen. Devuelve cuántas se crearon.
+     */
+    public int generate(String fileName) {
+        Path source = fileStorageService.getFileStorageLocation().resolve(fileName).normalize();
+        String format = writerFormat(fileName);
+        if (format == null || !Files.isRegularFile(source)) {
+            return 0;
+        }
+
+        int created = 0;
+        try {
+            int[] missing = Arrays.stream(widths)
+                    .filter(w -> !Files.exists(variantPath(fileName, w)))
+                    .toArray();
+            if (missing.length == 0) {
+                return 0;
+            }
+
+            BufferedImage image = read(source, missing[missing.length - 1]);
+            if (image == null) {
+                return 0;
+            }
+
+            for (int width : missing) {
+                // No se agrandan imágenes: si el original es más angosto se sirve el original
+                if (width >= image.getWidth()) {
+                    continue;
+                }
+                write(resize(image, width, "png".equals(format)), format, variantPath(fileName, width));
+                created += 1;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to generate image variants for {}: {}", fileName, e.getMessage());
+        }
+        return created;
+    }
+
+    /**
+     * Recorre el volumen y genera las variantes faltantes de las imágenes existentes.
+     */
+    public int backfill() {
+        Path root = fileStorageService.getFileStorageLocation();
+        int[] processed = {0};
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    String name = dir.getFileName() != null ? dir.getFileName().toString() : "";
+                    return !dir.equals(root) && name.startsWith(".")
+                            ? FileVisitResult.SKIP_SUBTREE
+                            : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (file.getFileName().toString().startsWith(".")) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    String relative = root.relativize(file).toString().replace('\\', '/');
+                    if (generate(relative) > 0) {
+                        processed[0] += 1;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to backfill image variants: {}", e.getMessage());
+        }
+        return processed[0];
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            Thread.ofVirtual().name("image-variants-backfill").start(() -> {
+                int processed = backfill();
+                if (processed > 0) {
+                    logger.info("Generated image variants for {} existing images", processed);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    public Path variantPath(String fileName, int width) {
+        return fileStorageService.getFileStorageLocation()
+                .resolve(VARIANTS_DIR).resolve(String.valueOf(width)).resolve(fileName);
+    }
+
+    private BufferedImage read(Path source, int largestWidth) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Submuestreo al decodificar: una foto de 4000 px no se carga completa para generar 800 px
+                int subsampling = Math.max(1, reader.getWidth(0) / (largestWidth * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage image, int width, boolean keepAlpha) {
+        int height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+        BufferedImage target = new BufferedImage(width, height,
+                keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "variant-", ".part");
+        try {
+            if (!ImageIO.write(image, format, temp.toFile())) {
+                return;
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private String writerFormat(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".png")) {
+            return "png";
+        }
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+            return "jpg";
+        }
+        return null;
+    }
+}
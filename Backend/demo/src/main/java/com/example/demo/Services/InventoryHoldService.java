@@ -0,0 +1,361 @@
+package com.example.demo.Services;
+
+import com.example.demo.Entities.InventoryEntity;
+import com.example.demo.Entities.InventoryHoldEntity;
+import com.example.demo.Entities.ToolEntity;
+import com.example.demo.Entities.UserEntity;
+import com.example.demo.Repositories.InventoryHoldRepository;
+import com.example.demo.Repositories.InventoryRepository;
+import com.example.demo.Repositories.ToolRepository;
+import com.example.demo.Repositories.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservas de stock con plazo: mientras se arma un pedido, las unidades elegidas quedan apartadas para el cliente
+ * y nadie más puede llevárselas. InventoryService.isAvailableTool y checkStockAvailable descuentan las unidades
+ * reservadas, y LoanService.createLoanFromHolds convierte las reservas en el préstamo en la misma transacción.
+ *
+ * El estado vigente vive en memoria (reservas por id y total reservado por herramienta), así que consultar la
+ * disponibilidad no toca la base de datos. inventory_hold es la bitácora: se escribe al reservar y al cerrar, y
+ * al arrancar (holds.recover-on-startup) se reconstruye desde ella. Cada reserva programa su propio vencimiento en un timer; no hay barrido
+ * periódico que recorra todas las reservas. Vale para una sola réplica (el despliegue de producción usa una).
+ * Reservar toma el lock de la fila de inventario (como los préstamos, vía lockByToolIds) antes de comparar el stock,
+ * así una reserva y un préstamo de la misma herramienta no validan contra el mismo stock a la vez.
+ */
+@Service
+public class InventoryHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryHoldService.class);
+
+    public static final String ACTIVE = "ACTIVA";
+
+    public static final String CONVERTED = "CONVERTIDA";
+
+    public static final String RELEASED = "LIBERADA";
+
+    public static final String EXPIRED = "EXPIRADA";
+
+    /**
+     * Reserva vigente. expiresAt en epoch milisegundos.
+     */
+    public record Hold(Long id, Long toolId, Long clientId, int quantity, long expiresAt) {
+    }
+
+    private final InventoryHoldRepository holdRepository;
+
+    private final InventoryRepository inventoryRepository;
+
+    private final ToolRepository toolRepository;
+
+    private final UserRepository userRepository;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Duration defaultTtl;
+
+    private final Duration maxTtl;
+
+    private final int maxHoldsPerClient;
+
+    private final boolean recoverOnStartup;
+
+    private final ConcurrentHashMap<Long, Hold> holds = new ConcurrentHashMap<>();
+
+    // Unidades reservadas por herramienta; la entrada desaparece cuando llega a cero
+    private final ConcurrentHashMap<Long, Integer> heldByTool = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Long, ScheduledFuture<?>> timers = new ConcurrentHashMap<>();
+
+    private final ScheduledThreadPoolExecutor timer =
+            new ScheduledThreadPoolExecutor(1, Thread.ofVirtual().name("inventory-holds").factory());
+
+    @Autowired
+    public InventoryHoldService(InventoryHoldRepository holdRepository,
+                                InventoryRepository inventoryRepository,
+                                ToolRepository toolRepository,
+                                UserRepository userRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${holds.ttl:PT10M}") Duration defaultTtl,
+                                @Value("${holds.max-ttl:PT30M}") Duration maxTtl,
+                                @Value("${holds.max-per-client:10}") int maxHoldsPerClient,
+                                @Value("${holds.recover-on-startup:true}") boolean recoverOnStartup) {
+        this.holdRepository = holdRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.toolRepository = toolRepository;
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl.compareTo(defaultTtl) < 0 ? defaultTtl : maxTtl;
+        this.maxHoldsPerClient = Math.max(1, maxHoldsPerClient);
+        this.recoverOnStartup = recoverOnStartup;
+        // Al convertir o liberar se cancela el vencimiento; sin esto la tarea seguiría ocupando la cola
+        timer.setRemoveOnCancelPolicy(true);
+        Gauge.builder("toolrent.holds.active", holds, ConcurrentHashMap::size)
+                .description("Reservas de stock vigentes")
+                .register(meterRegistry);
+        Gauge.builder("toolrent.holds.units", heldByTool,
+                        m -> m.values().stream().mapToInt(Integer::intValue).sum())
+                .description("Unidades apartadas por reservas vigentes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Corre con la aplicación lista y no al crear el bean, para que levantar el contexto (por ejemplo el
+     * entrenamiento de AppCDS, que no tiene base de datos) no dependa de la bitácora.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        if (recoverOnStartup) {
+            recover();
+        }
+    }
+
+    /**
+     * Reconstruye las reservas vigentes desde la bitácora y cierra las que vencieron con la aplicación detenida.
+     */
+    public void recover() {
+        long now = System.currentTimeMillis();
+        int expired = holdRepository.expireBefore(now);
+        List<Object[]> rows = holdRepository.findActiveRows(now);
+        for (Object[] row : rows) {
+            Hold hold = new Hold(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue(), ((Number) row[3]).intValue(), ((Number) row[4]).longValue());
+            addUnits(hold.toolId(), hold.quantity());
+            track(hold);
+        }
+        if (expired > 0 || !rows.isEmpty()) {
+            logger.info("Reservas de stock: {} recuperadas, {} vencidas", rows.size(), expired);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Aparta quantity unidades de la herramienta para el cliente durante ttl (null usa holds.ttl, con tope
+     * holds.max-ttl). Falla si el stock disponible menos lo ya reservado no alcanza.
+     */
+    @Transactional
+    public Hold placeHold(UserEntity employee, Long toolId, Long clientId, int quantity, Duration ttl) {
+        if (quantity <= 0) {
+            throw new RuntimeException("La cantidad debe ser mayor que cero.");
+        }
+        ToolEntity tool = toolRepository.findById(toolId)
+                .orElseThrow(() -> new RuntimeException("Herramienta no encontrada"));
+        UserEntity client = userRepository.findById(clientId)
+                .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
+        if ("RESTRINGIDO".equals(client.getStateClient())) {
+            throw new RuntimeException("El usuario se encuentra restringido.");
+        }
+        if (getHoldsByClient(clientId).size() >= maxHoldsPerClient) {
+            throw new RuntimeException("El cliente ya tiene " + maxHoldsPerClient + " reservas vigentes.");
+        }
+
+        // El lock se mantiene hasta el commit: un préstamo de la misma herramienta espera a que la reserva quede
+        // registrada y la descuenta al validar su stock
+        int stock = inventoryRepository.lockByToolIds(List.of(toolId)).stream()
+                .filter(i -> i.getToolState() != null && "DISPONIBLE".equals(i.getToolState().getState()))
+                .mapToInt(InventoryEntity::getStockTool)
+                .findFirst()
+                .orElse(0);
+        reserveUnits(toolId, quantity, stock, tool.getToolName());
+
+        Duration effectiveTtl = ttl == null || ttl.isNegative() || ttl.isZero() ? defaultTtl
+                : ttl.compareTo(maxTtl) > 0 ? maxTtl : ttl;
+        long now = System.currentTimeMillis();
+        InventoryHoldEntity entity = new InventoryHoldEntity(null, tool, client, employee, quantity, now,
+                now + effectiveTtl.toMillis(), ACTIVE);
+        try {
+            entity = holdRepository.save(entity);
+        } catch (RuntimeException e) {
+            addUnits(toolId, -quantity);
+            throw e;
+        }
+
+        Hold hold = new Hold(entity.getId(), toolId, clientId, quantity, entity.getExpiresAt());
+        track(hold);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Si el commit falla la fila de la bitácora no existe: la reserva tampoco debe quedar en memoria
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        untrack(hold);
+                    }
+                }
+            });
+        }
+        meterRegistry.counter("toolrent.holds", "outcome", "PLACED").increment();
+        return hold;
+    }
+
+    /**
+     * Libera una reserva antes de su vencimiento (el carrito se vació o se canceló).
+     */
+    public boolean release(Long holdId) {
+        Hold hold = holds.get(holdId);
+        if (hold == null || !untrack(hold)) {
+            return false;
+        }
+        holdRepository.close(List.of(holdId), RELEASED);
+        meterRegistry.counter("toolrent.holds", "outcome", "RELEASED").increment();
+        return true;
+    }
+
+    /**
+     * Herramientas de las reservas vigentes del cliente entre holdIds, sin tomarlas. LoanService las usa para
+     * bloquear el inventario antes de convertHolds.
+     */
+    public List<Long> toolIdsOf(Long clientId, List<Long> holdIds) {
+        if (holdIds == null) {
+            return List.of();
+        }
+        return holdIds.stream()
+                .filter(Objects::nonNull)
+                .map(holds::get)
+                .filter(h -> h != null && h.clientId().equals(clientId))
+                .map(Hold::toolId)
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Toma las reservas del cliente para convertirlas en préstamo dentro de la transacción en curso.
+     * Las unidades se devuelven al stock visible de inmediato, para que la validación de disponibilidad del
+     * préstamo no cuente la reserva del propio cliente; si la transacción se revierte, las reservas vuelven
+     * (la bitácora también se revierte, así que sigue diciendo ACTIVA). Quien llama debe haber bloqueado antes el
+     * inventario de esas herramientas (toolIdsOf + InventoryService.lockInventory), porque desde aquí las unidades
+     * ya no figuran como reservadas.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Hold> convertHolds(Long clientId, List<Long> holdIds) {
+        if (holdIds == null || holdIds.isEmpty()) {
+            throw new RuntimeException("Debe indicar al menos una reserva");
+        }
+        List<Hold> taken = new ArrayList<>();
+        for (Long holdId : holdIds.stream().distinct().toList()) {
+            Hold hold = holds.get(holdId);
+            if (hold == null || !hold.clientId().equals(clientId) || !untrack(hold)) {
+                taken.forEach(this::restore);
+                throw new RuntimeException("La reserva " + holdId + " venció, ya se usó o no es de este cliente.");
+            }
+            taken.add(hold);
+        }
+
+        List<Long> ids = taken.stream().map(Hold::id).toList();
+        if (holdRepository.close(ids, CONVERTED) != ids.size()) {
+            taken.forEach(this::restore);
+            throw new RuntimeException("Una de las reservas ya no está vigente.");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    meterRegistry.counter("toolrent.holds", "outcome", "CONVERTED").increment(taken.size());
+                } else {
+                    taken.forEach(InventoryHoldService.this::restore);
+                }
+            }
+        });
+        return taken;
+    }
+
+    /** Unidades de la herramienta apartadas por reservas vigentes */
+    public int heldUnits(Long toolId) {
+        return toolId == null ? 0 : heldByTool.getOrDefault(toolId, 0);
+    }
+
+    public List<Hold> getHoldsByClient(Long clientId) {
+        return holds.values().stream()
+                .filter(h -> h.clientId().equals(clientId))
+                .sorted(Comparator.comparing(Hold::expiresAt))
+                .toList();
+    }
+
+    /** Llamado por el timer cuando vence la reserva */
+    private void expire(Hold hold) {
+        if (!untrack(hold)) {
+            return;
+        }
+        meterRegistry.counter("toolrent.holds", "outcome", "EXPIRED").increment();
+        try {
+            holdRepository.close(List.of(hold.id()), EXPIRED);
+        } catch (RuntimeException e) {
+            // Las unidades ya se liberaron en memoria; recover() cierra la fila en el próximo arranque
+            logger.warn("No se pudo registrar el vencimiento de la reserva {}: {}", hold.id(), e.getMessage());
+        }
+    }
+
+    private void reserveUnits(Long toolId, int quantity, int stock, String toolName) {
+        heldByTool.compute(toolId, (id, held) -> {
+            int current = held == null ? 0 : held;
+            if (stock - current < quantity) {
+                throw new RuntimeException("No hay stock disponible para reservar " + quantity + " unidades de "
+                        + toolName + " (disponibles: " + Math.max(0, stock - current) + ")");
+            }
+            return current + quantity;
+        });
+    }
+
+    private void addUnits(Long toolId, int delta) {
+        heldByTool.compute(toolId, (id, held) -> {
+            int next = (held == null ? 0 : held) + delta;
+            return next <= 0 ? null : next;
+        });
+    }
+
+    private void track(Hold hold) {
+        holds.put(hold.id(), hold);
+        long delay = Math.max(0, hold.expiresAt() - System.currentTimeMillis());
+        timers.put(hold.id(), timer.schedule(() -> expire(hold), delay, TimeUnit.MILLISECONDS));
+        // Con delay 0 el vencimiento puede haber corrido antes de registrar su tarea
+        if (!holds.containsKey(hold.id())) {
+            timers.remove(hold.id());
+        }
+    }
+
+    /**
+     * Quita la reserva del estado en memoria. Solo uno de vencer, liberar o convertir puede ganar.
+     */
+    private boolean untrack(Hold hold) {
+        if (!holds.remove(hold.id(), hold)) {
+            return false;
+        }
+        addUnits(hold.toolId(), -hold.quantity());
+        ScheduledFuture<?> pending = timers.remove(hold.id());
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        return true;
+    }
+
+    private void restore(Hold hold) {
+        addUnits(hold.toolId(), hold.quantity());
+        track(hold);
+    }
+}
@@ -4,14 +4,19 @@ import com.example.demo.Entities.InventoryEntity;
 import com.example.demo.Entities.ToolEntity;
 import com.example.demo.Entities.UserEntity;
 import com.example.demo.Repositories.InventoryRepository;
+import com.example.demo.Services.ChangeCounterService.Aggregate;
+import com.example.demo.config.ToolRentEvents.InventoryTransfer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.sql.Date;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class InventoryService {
@@ -28,8 +33,50 @@ public class InventoryService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private InventoryStreamService inventoryStreamService;
+
+    @Autowired
+    private ChangeCounterService changeCounterService;
+
+    @Autowired
+    private RequestCoalescingService requestCoalescingService;
+
+    @Autowired
+    private BusinessMetricsService businessMetricsService;
+
+    @Autowired
+    private InventoryHoldService inventoryHoldService;
+
+    /**
+     * Bloquea las filas de inventario de varias herramientas en orden ascendente de id de herramienta.
+     * Las operaciones de varias herramientas (crear pedido, entregar y recibir todo) lo llaman al inicio de su
+     * transacción y antes de tocar al usuario, así todas toman los locks en el mismo orden (inventario por id,
+     * después el usuario) y dos pedidos con herramientas en común se esperan en lugar de caer en un deadlock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<InventoryEntity> lockInventory(Collection<Long> toolIds) {
+        List<Long> sorted = toolIds.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        if (sorted.isEmpty()) {
+            return List.of();
+        }
+        return inventoryRepository.lockByToolIds(sorted);
+    }
+
+    /**
+     * Los movimientos de una sola herramienta también toman el lock de sus filas antes de tocarlas, en el mismo
+     * orden que lockInventory; si no, una devolución que actualiza EN REPARACION antes que PRESTADA podría cruzarse
+     * con un pedido que bloquea las filas por id.
+     */
+    private void lockTool(Long idTool) {
+        inventoryRepository.lockByToolIds(List.of(idTool));
+    }
+
     public InventoryEntity saveInventoryEntity(InventoryEntity inventoryEntity) {
-        return inventoryRepository.save(inventoryEntity);
+        InventoryEntity saved = inventoryRepository.save(inventoryEntity);
+        inventoryStreamService.publishStockChange(saved);
+        changeCounterService.markChanged(Aggregate.INVENTORY);
+        return saved;
     }
 
     public List<InventoryEntity> getInventoryByTool(ToolEntity toolEntity) {
@@ -99,11 +146,14 @@ public class InventoryService {
     }
 
     public boolean isAvailableTool(ToolEntity toolEntity) {
-        return getAvailableTools(toolEntity).getStockTool() >= 1;
+        // Las unidades apartadas por reservas vigentes de otros pedidos no cuentan como disponibles
+        return getAvailableTools(toolEntity).getStockTool() - inventoryHoldService.heldUnits(toolEntity.getId()) >= 1;
     }
 
     @Transactional
     public void loanTool(Long idTool) {
+        InventoryTransfer event = InventoryTransfer.begin(idTool, "DISPONIBLE", "PRESTADA", 1);
+        lockTool(idTool);
         ToolEntity tool = toolService.getToolById(idTool);
 
         InventoryEntity availableTools = getAvailableTools(tool);
@@ -114,10 +164,18 @@ public class InventoryService {
 
         inventoryRepository.save(availableTools);
         inventoryRepository.save(loanTools);
+
+        inventoryStreamService.publishStockChange(availableTools);
+        inventoryStreamService.publishStockChange(loanTools);
+        changeCounterService.markChanged(Aggregate.INVENTORY);
+        businessMetricsService.recordStockMove("DISPONIBLE", "PRESTADA", 1);
+        event.commit();
     }
 
     @Transactional
     public void receiveTool(Long idTool, String stateTool) {
+        InventoryTransfer event = InventoryTransfer.begin(idTool, "PRESTADA", stateTool, 1);
+        lockTool(idTool);
         ToolEntity tool = toolService.getToolById(idTool);
 
         InventoryEntity loanTools = getLoanTools(tool);
@@ -128,10 +186,18 @@ public class InventoryService {
 
         inventoryRepository.save(toolsRecieve);
         inventoryRepository.save(loanTools);
+
+        inventoryStreamService.publishStockChange(toolsRecieve);
+        inventoryStreamService.publishStockChange(loanTools);
+        changeCounterService.markChanged(Aggregate.INVENTORY);
+        businessMetricsService.recordStockMove("PRESTADA", stateTool, 1);
+        event.commit();
     }
 
     @Transactional
     public void repairTool(Long idTool) {
+        InventoryTransfer event = InventoryTransfer.begin(idTool, "EN REPARACION", "DISPONIBLE", 1);
+        lockTool(idTool);
         ToolEntity tool = toolService.getToolById(idTool);
 
         InventoryEntity availableTools = getAvailableTools(tool);
@@ -142,6 +208,12 @@ public class InventoryService {
 
         inventoryRepository.save(availableTools);
         inventoryRepository.save(repairsTools);
+
+        inventoryStreamService.publishStockChange(availableTools);
+        inventoryStreamService.publishStockChange(repairsTools);
+        changeCounterService.markChanged(Aggregate.INVENTORY);
+        businessMetricsService.recordStockMove("EN REPARACION", "DISPONIBLE", 1);
+        event.commit();
     }
 
     @Transactional
@@ -152,11 +224,16 @@ public class InventoryService {
             throw new RuntimeException("La cantidad debe ser mayor que cero.");
         }
 
+        InventoryTransfer event = InventoryTransfer.begin(idTool, "NUEVO", "DISPONIBLE", quantity);
         ToolEntity tool = toolService.getToolById(idTool);
         InventoryEntity available = getAvailableTools(tool);
 
         available.setStockTool(available.getStockTool() + quantity);
         inventoryRepository.save(available);
+        inventoryStreamService.publishStockChange(available);
+        changeCounterService.markChanged(Aggregate.INVENTORY);
+        businessMetricsService.recordStockMove("NUEVO", "DISPONIBLE", quantity);
+        event.commit();
 
     Date actualDate = new Date(System.currentTimeMillis());
     // cost is null for inventory movements; cost is only set for debt payments
@@ -188,6 +265,30 @@ public class InventoryService {
             recent = false;
         }
 
+        // Los filtros de texto se normalizan una sola vez y esos mismos valores forman la clave y el cálculo:
+        // dos pedidos que comparten clave tienen que producir el mismo resultado
+        String stateKey = normalize(state);
+        String categoryKey = normalize(category);
+        String searchKey = normalize(search);
+        String key = String.join("|",
+                stateKey, categoryKey, String.valueOf(idTool),
+                String.valueOf(minPrice), String.valueOf(maxPrice),
+                String.valueOf(Boolean.TRUE.equals(asc)), String.valueOf(Boolean.TRUE.equals(desc)),
+                String.valueOf(Boolean.TRUE.equals(recent)), searchKey);
+        String version = changeCounterService.etag(null,
+                Aggregate.INVENTORY, Aggregate.TOOL, Aggregate.CATEGORY, Aggregate.TOOL_STATE);
+
+        Boolean sortAsc = asc;
+        Boolean sortDesc = desc;
+        Boolean sortRecent = recent;
+        return requestCoalescingService.execute("inventory-filter", key, version, () ->
+                computeFilterInventory(stateKey, categoryKey, idTool, minPrice, maxPrice, sortAsc, sortDesc, sortRecent,
+                        searchKey));
+    }
+
+    private List<InventoryEntity> computeFilterInventory(String state, String category, Long idTool,
+                                                         Integer minPrice, Integer maxPrice,
+                                                         Boolean asc, Boolean desc, Boolean recent, String search) {
         List<InventoryEntity> inventoryList;
 
         if (recent != null && recent) {
@@ -249,12 +350,17 @@ public class InventoryService {
         return inventoryList;
     }
 
+    private String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+
     // Check if tool has available stock for loan
     public boolean checkStockAvailable(Long idTool) {
         try {
             ToolEntity tool = toolService.getToolById(idTool);
             InventoryEntity availableInventory = inventoryRepository.findByIdToolAndToolState_State(tool, "DISPONIBLE");
-            return availableInventory != null && availableInventory.getStockTool() > 0;
+            return availableInventory != null
+                    && availableInventory.getStockTool() - inventoryHoldService.heldUnits(idTool) > 0;
         } catch (Exception e) {
             return false;
         }
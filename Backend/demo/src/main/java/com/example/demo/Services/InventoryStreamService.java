@@ -0,0 +1,230 @@
+package com.example.demo.Services;
+
+import com.example.demo.DTO.InventoryStockEventDTO;
+import com.example.demo.Entities.InventoryEntity;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hub de eventos de stock para /inventory/stream (Server-Sent Events).
+ * Cada suscriptor tiene su propia cola acotada y la vacía un hilo virtual solo mientras tiene eventos pendientes,
+ * así un cliente lento no demora a los demás y los inactivos no ocupan hilos. Si un cliente se atrasa más que
+ * su cola, se cierra su conexión: al reconectar con Last-Event-ID recibe lo que falte o un "resync".
+ * Los últimos eventos se guardan en un buffer circular acotado para reanudar con Last-Event-ID.
+ */
+@Service
+public class InventoryStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryStreamService.class);
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService senders =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("inventory-stream-", 0).factory());
+
+    private final InventoryStockEventDTO[] buffer;
+
+    private final long emitterTimeout;
+
+    private final int queueSize;
+
+    // Version del último evento publicado; el evento i ocupa buffer[i % buffer.length]
+    private long lastVersion = 0;
+
+    public InventoryStreamService(@Value("${inventory.stream.buffer-size:1024}") int bufferSize,
+                                  @Value("${inventory.stream.timeout-ms:1800000}") long emitterTimeout,
+                                  @Value("${inventory.stream.queue-size:256}") int queueSize) {
+        this.buffer = new InventoryStockEventDTO[Math.max(1, bufferSize)];
+        this.emitterTimeout = emitterTimeout;
+        this.queueSize = Math.max(1, queueSize);
+    }
+
+    /**
+     * Registra un nuevo suscriptor. Si trae Last-Event-ID se le reenvían los eventos posteriores
+     * que sigan en el buffer; si ya no están, recibe un evento "resync" para que recargue el inventario.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        // La réplica y el alta ocurren bajo el mismo lock que dispatch(), así el suscriptor
+        // no pierde ni recibe dos veces un evento publicado mientras se conecta
+        synchronized (this) {
+            List<InventoryStockEventDTO> missed = lastEventId != null ? eventsAfter(lastEventId) : List.of();
+            if (missed == null || missed.size() >= queueSize) {
+                subscriber.offer(SseEmitter.event().name("resync").data(lastVersion));
+            } else {
+                for (InventoryStockEventDTO event : missed) {
+                    subscriber.offer(toSseEvent(event));
+                }
+            }
+            subscribers.add(subscriber);
+        }
+
+        return emitter;
+    }
+
+    /**
+     * Publica el nuevo stock de una fila de inventario. Dentro de una transacción el evento
+     * se emite solo tras el commit, para no anunciar cambios que luego se revierten.
+     */
+    public void publishStockChange(InventoryEntity inventory) {
+        if (inventory == null || inventory.getIdTool() == null) {
+            return;
+        }
+        Long toolId = inventory.getIdTool().getId();
+        String state = inventory.getToolState() != null ? inventory.getToolState().getState() : null;
+        int newStock = inventory.getStockTool();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(toolId, state, newStock);
+                }
+            });
+        } else {
+            dispatch(toolId, state, newStock);
+        }
+    }
+
+    /**
+     * Eventos con version mayor a lastEventId, o null si alguno ya salió del buffer.
+     */
+    public synchronized List<InventoryStockEventDTO> eventsAfter(long lastEventId) {
+        long oldest = Math.max(1, lastVersion - buffer.length + 1);
+        if (lastEventId > lastVersion || lastEventId < oldest - 1) {
+            return null;
+        }
+        List<InventoryStockEventDTO> events = new ArrayList<>();
+        for (long v = lastEventId + 1; v <= lastVersion; v++) {
+            events.add(buffer[(int) (v % buffer.length)]);
+        }
+        return events;
+    }
+
+    public synchronized long getLastVersion() {
+        return lastVersion;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Comentario periódico para que proxies e ingress no corten conexiones inactivas
+    @Scheduled(fixedRateString = "${inventory.stream.heartbeat-ms:20000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(SseEmitter.event().comment("keep-alive"));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    private synchronized void dispatch(Long toolId, String state, int newStock) {
+        lastVersion += 1;
+        InventoryStockEventDTO event = new InventoryStockEventDTO(toolId, state, newStock, lastVersion);
+        buffer[(int) (lastVersion % buffer.length)] = event;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(toSseEvent(event));
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSseEvent(InventoryStockEventDTO event) {
+        return SseEmitter.event()
+                .id(String.valueOf(event.getVersion()))
+                .name("stock")
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Un cliente conectado: su cola de eventos pendientes y a lo sumo un envío en curso, que conserva el orden.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final ArrayBlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(queueSize);
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                logger.warn("Cliente de /inventory/stream atrasado en {} eventos; se cierra la conexión", queueSize);
+                close();
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event = queue.poll();
+                if (event == null) {
+                    draining.set(false);
+                    // Un evento encolado justo después del poll no lanzó otro envío: se retoma aquí
+                    if (queue.isEmpty() || !draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                if (closed) {
+                    return;
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Cliente desconectado: se descarta sin afectar al resto
+                    close();
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            closed = true;
+            queue.clear();
+            subscribers.remove(this);
+        }
+    }
+}
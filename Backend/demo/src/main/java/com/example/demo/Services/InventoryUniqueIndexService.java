@@ -0,0 +1,74 @@
+package com.example.demo.Services;
+
+import com.example.demo.Services.ChangeCounterService.Aggregate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Garantiza el índice único (id_tool, tool_state_id) que necesitan los INSERT ... ON CONFLICT del inventario.
+ * Con ddl-auto=update Hibernate no logra agregar la restricción si ya hay filas repetidas (solo lo registra en el log),
+ * y entonces ON CONFLICT falla al no encontrar un índice único. Por eso, antes del primer insert de ese tipo,
+ * se fusionan las filas repetidas (el stock se suma en la de menor id y las demás se borran dejando su tombstone
+ * para /sync) y se crea el índice. Es perezoso, como la secuencia de CatalogVersionService, para que el arranque
+ * no toque la base de datos; después de la primera vez no vuelve a consultarla.
+ */
+@Service
+public class InventoryUniqueIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryUniqueIndexService.class);
+
+    static final String INDEX = "uk_inventory_tool_state";
+
+    // Filas que repiten (herramienta, estado) de otra con menor id
+    private static final String DUPLICATES =
+            "SELECT d.id FROM inventory d WHERE d.id > (SELECT MIN(k.id) FROM inventory k "
+                    + "WHERE k.id_tool = d.id_tool AND k.tool_state_id = d.tool_state_id)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ChangeCounterService changeCounterService;
+
+    private volatile boolean ensured;
+
+    /**
+     * Fusiona las filas repetidas y crea el índice único la primera vez. Va en su propia transacción para que
+     * el índice quede confirmado aunque la operación que la invoca se revierta.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public synchronized void ensureUniqueIndex() {
+        if (ensured) {
+            return;
+        }
+        // FOR UPDATE: ningún préstamo o ajuste modifica el stock de una fila repetida mientras se fusiona
+        List<Long> duplicates = jdbcTemplate.queryForList(DUPLICATES + " FOR UPDATE", Long.class);
+        if (!duplicates.isEmpty()) {
+            long version = catalogVersionService.nextVersion();
+            int merged = jdbcTemplate.update(
+                    "UPDATE inventory i SET change_version = ?, stock_tool = (SELECT SUM(s.stock_tool) FROM inventory s "
+                            + "WHERE s.id_tool = i.id_tool AND s.tool_state_id = i.tool_state_id) "
+                            + "WHERE i.id IN (SELECT MIN(k.id) FROM inventory k GROUP BY k.id_tool, k.tool_state_id "
+                            + "HAVING COUNT(*) > 1)",
+                    version);
+            jdbcTemplate.update("DELETE FROM inventory WHERE id IN (" + DUPLICATES + ")");
+            for (Long id : duplicates) {
+                catalogVersionService.recordDeletion("inventory", id);
+            }
+            changeCounterService.markChanged(Aggregate.INVENTORY);
+            logger.warn("Inventario: {} filas (herramienta, estado) repetidas fusionadas en {}", duplicates.size(), merged);
+        }
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + INDEX + " ON inventory (id_tool, tool_state_id)");
+        ensured = true;
+    }
+}
@@ -5,11 +5,14 @@ import com.example.demo.Entities.ToolEntity;
 import com.example.demo.Entities.UserEntity;
 import com.example.demo.Repositories.KardexRepository;
 import com.example.demo.Repositories.ToolRepository;
+import com.example.demo.Services.ChangeCounterService.Aggregate;
+import com.example.demo.config.ToolRentEvents.KardexAppend;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.sql.Date;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -27,11 +30,28 @@ public class KardexService {
     @Autowired
     private ToolRepository toolRepository;
 
+    @Autowired
+    private ChangeCounterService changeCounterService;
+
+    @Autowired
+    private RequestCoalescingService requestCoalescingService;
+
+    @Autowired
+    private BusinessMetricsService businessMetricsService;
+
     public KardexEntity saveKardexEntity(KardexEntity kardexEntity) {
-        return kardexRepository.save(kardexEntity);
+        KardexAppend event = KardexAppend.begin(
+                kardexEntity.getIdTool() != null ? kardexEntity.getIdTool().getId() : null,
+                kardexEntity.getType(), kardexEntity.getCant());
+        KardexEntity saved = kardexRepository.save(kardexEntity);
+        changeCounterService.markChanged(Aggregate.KARDEX);
+        businessMetricsService.recordKardexMovement(kardexEntity.getType());
+        event.commit();
+        return saved;
     }
 
     public KardexEntity createKardexEntity(ToolEntity idTool, String type, Date actualDate, int cant, Integer cost, UserEntity idUser, UserEntity idEmployee) {
+        KardexAppend event = KardexAppend.begin(idTool != null ? idTool.getId() : null, type, cant);
         KardexEntity kardex = new KardexEntity();
 
         if (cost != null) {
@@ -62,7 +82,11 @@ public class KardexService {
         }
         kardex.setIdEmployee(idEmployee);
 
-        return kardexRepository.save(kardex);
+        KardexEntity saved = kardexRepository.save(kardex);
+        changeCounterService.markChanged(Aggregate.KARDEX);
+        businessMetricsService.recordKardexMovement(type);
+        event.commit();
+        return saved;
     }
 
     public List<KardexEntity> getAllKardex() {
@@ -162,7 +186,17 @@ public class KardexService {
         return result;
     }
 
+    /**
+     * Ranking del mes en curso. Los llamados concurrentes comparten un único cálculo
+     * y el resultado se reutiliza mientras no haya movimientos de kardex ni cambios de herramientas.
+     */
     public List<Map<String, Object>> getRankingTools() {
+        String version = changeCounterService.etag(YearMonth.now().toString(),
+                Aggregate.KARDEX, Aggregate.TOOL, Aggregate.CATEGORY);
+        return requestCoalescingService.executeCurrent("ranking", "", version, this::computeRankingTools);
+    }
+
+    private List<Map<String, Object>> computeRankingTools() {
         Calendar calendar = Calendar.getInstance();
 
         calendar.set(Calendar.DAY_OF_MONTH, 1);
@@ -1,15 +1,23 @@
 package com.example.demo.Services;
 
 import com.example.demo.Entities.UserEntity;
+import com.example.demo.config.ToolRentEvents.KeycloakCall;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class KeycloakAdminService {
@@ -28,14 +36,87 @@ public class KeycloakAdminService {
     @Value("${keycloak.client-secret}")
     private String clientSecret;
 
+    // Con hilos virtuales no hay pool que limite cuántas peticiones esperan a Keycloak a la vez;
+    // este límite evita que un Keycloak lento acumule miles de llamadas colgadas
+    @Value("${keycloak.max-concurrent-calls:16}")
+    private int maxConcurrentCalls = 16;
+
+    @Value("${keycloak.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs = 2000;
+
+    @Value("${keycloak.connect-timeout-ms:2000}")
+    private int connectTimeoutMs = 2000;
+
+    @Value("${keycloak.read-timeout-ms:5000}")
+    private int readTimeoutMs = 5000;
+
     private final RestTemplate rest;
 
+    private final boolean ownRestTemplate;
+
     public KeycloakAdminService() {
         this.rest = new RestTemplate();
+        this.ownRestTemplate = true;
     }
 
     public KeycloakAdminService(RestTemplate rest) {
         this.rest = rest;
+        this.ownRestTemplate = false;
+    }
+
+    @PostConstruct
+    public void configureClient() {
+        if (!ownRestTemplate) {
+            return;
+        }
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        rest.setRequestFactory(requestFactory);
+        rest.getInterceptors().add(flightRecorder());
+        rest.getInterceptors().add(concurrencyLimit(new Semaphore(maxConcurrentCalls, true), acquireTimeoutMs));
+    }
+
+    /** Interceptor que deja pasar como máximo permits.availablePermits() llamadas simultáneas a Keycloak */
+    public static ClientHttpRequestInterceptor concurrencyLimit(Semaphore permits, long acquireTimeoutMs) {
+        return (request, body, execution) -> {
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrumpido esperando turno para Keycloak", e);
+            }
+            if (!acquired) {
+                logger.warn("Keycloak saturado: {} llamadas esperando turno", permits.getQueueLength());
+                throw new IOException("Keycloak saturado, se superó el límite de llamadas simultáneas");
+            }
+            try {
+                return execution.execute(request, body);
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    /** Interceptor que emite un evento JFR KeycloakCall por llamada, con estado HTTP o error */
+    public static ClientHttpRequestInterceptor flightRecorder() {
+        return (request, body, execution) -> {
+            KeycloakCall event = new KeycloakCall();
+            event.begin();
+            event.method = request.getMethod().name();
+            event.path = request.getURI().getPath();
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                event.status = response.getStatusCode().value();
+                return response;
+            } catch (IOException | RuntimeException e) {
+                event.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+                throw e;
+            } finally {
+                event.commit();
+            }
+        };
     }
 
     /** URL del endpoint donde se pide el token admin */
@@ -0,0 +1,101 @@
+package com.example.demo.Services;
+
+import com.example.demo.Repositories.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Recalcula users.loans desde los pedidos activos (UserService.ACTIVE_LOAN_STATES) y corrige los desvíos.
+ * Recorre los usuarios por id en bloques; cada bloque es una sola lectura, así que no retiene locks.
+ * La corrección es condicional (solo si el contador no cambió desde la lectura), de modo que un préstamo
+ * creado o devuelto mientras corre nunca se pisa: ese usuario queda para la próxima pasada.
+ */
+@Service
+public class LoanCounterReconcilerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanCounterReconcilerService.class);
+
+    /**
+     * Resultado de una pasada: usuarios revisados, con desvío, corregidos y suma de |contador - activos|.
+     */
+    public record Report(int scanned, int drifted, int corrected, long totalDrift) {
+    }
+
+    private final UserRepository userRepository;
+
+    private final int chunkSize;
+
+    private final boolean enabled;
+
+    private final Counter driftedCounter;
+
+    private final Counter correctedCounter;
+
+    @Autowired
+    public LoanCounterReconcilerService(UserRepository userRepository,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${loans.reconcile.chunk-size:500}") int chunkSize,
+                                        @Value("${loans.reconcile.enabled:true}") boolean enabled) {
+        this.userRepository = userRepository;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.enabled = enabled;
+        this.driftedCounter = Counter.builder("toolrent.loans.counter.drifted")
+                .description("Usuarios cuyo contador de préstamos no coincidía con sus pedidos activos")
+                .register(meterRegistry);
+        this.correctedCounter = Counter.builder("toolrent.loans.counter.corrected")
+                .description("Contadores de préstamos corregidos por la reconciliación")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${loans.reconcile.cron:0 15 4 * * *}")
+    public void scheduledReconcile() {
+        if (!enabled) {
+            return;
+        }
+        Report report = reconcile();
+        logger.info("Reconciliación de préstamos: revisados {}, con desvío {}, corregidos {}, desvío total {}",
+                report.scanned(), report.drifted(), report.corrected(), report.totalDrift());
+    }
+
+    public Report reconcile() {
+        int scanned = 0;
+        int drifted = 0;
+        int corrected = 0;
+        long totalDrift = 0;
+        long afterId = 0;
+        while (true) {
+            List<Object[]> rows = userRepository.findLoanCountersAfter(afterId, UserService.ACTIVE_LOAN_STATES,
+                    PageRequest.of(0, chunkSize));
+            for (Object[] row : rows) {
+                long id = ((Number) row[0]).longValue();
+                int stored = ((Number) row[1]).intValue();
+                int active = ((Number) row[2]).intValue();
+                scanned++;
+                afterId = id;
+                if (stored == active) {
+                    continue;
+                }
+                drifted++;
+                totalDrift += Math.abs(stored - active);
+                driftedCounter.increment();
+                logger.warn("Usuario {}: contador de préstamos {}, activos {}", id, stored, active);
+                if (userRepository.setLoansIfUnchanged(id, stored, active) == 1) {
+                    corrected++;
+                    correctedCounter.increment();
+                }
+            }
+            if (rows.size() < chunkSize) {
+                return new Report(scanned, drifted, corrected, totalDrift);
+            }
+        }
+    }
+}
@@ -36,6 +36,9 @@ public class LoanService {
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private InventoryHoldService inventoryHoldService;
+
     public LoanEntity saveLoan(LoanEntity loanEntity) {
         return loanRepository.save(loanEntity);
     }
@@ -91,15 +94,19 @@ public class LoanService {
         return EntityMapper.toPageResponseDTO(loanPage);
     }
 
+    @Transactional
     public LoanEntity createLoan(UserEntity idClient, UserEntity user, Date initDate, Date returnDate) {
 
         // Validar que el usuario que crea el préstamo sea admin o empleado
         userService.validateAdminOrEmployee(user);
-        idClient.setLoans(idClient.getLoans() + 1);
-        userService.saveUser(idClient);
 
         validateConditions(idClient,initDate,returnDate);
 
+        // El cupo se toma al final: si algo falla antes, el contador no queda incrementado
+        if (!userService.reserveLoanSlot(idClient)) {
+            throw new RuntimeException("El usuario ya cuenta con 5 prestamos.");
+        }
+
         LoanEntity loan = new LoanEntity();
         loan.setIdUser(idClient);
         loan.setInitDate(initDate);
@@ -164,10 +171,12 @@ public class LoanService {
             LoanEntity loan = getLoanById(loanId);
             UserEntity user = loan.getIdUser();
 
-            user.setLoans(user.getLoans() - 1);
-            userService.saveUser(user);
-
+            // Primero se borra: si falla (p. ej. el pedido tiene herramientas asociadas) el contador no se toca
             loanRepository.deleteById(loanId);
+
+            if (UserService.ACTIVE_LOAN_STATES.contains(loan.getStatus())) {
+                userService.releaseLoanSlot(user);
+            }
             return true;
         } catch (Exception ex){
             return false;
@@ -203,9 +212,13 @@ public class LoanService {
             throw new RuntimeException("Debe proporcionar al menos una herramienta");
         }
 
-        // Incrementar contador de préstamos del cliente
-        client.setLoans(client.getLoans() + 1);
-        userService.saveUser(client);
+        // Bloquear el inventario de las herramientas antes que al usuario, en el orden global de locks
+        inventoryService.lockInventory(toolIds);
+
+        // Ocupar un cupo del cliente de forma atómica (el límite se respeta aunque haya pedidos en paralelo)
+        if (!userService.reserveLoanSlot(client)) {
+            throw new RuntimeException("El usuario ya cuenta con 5 prestamos.");
+        }
 
         // Crear el préstamo
         LoanEntity loan = new LoanEntity();
@@ -260,4 +273,25 @@ public class LoanService {
 
         return loan;
     }
+
+    /**
+     * Crea el préstamo a partir de las reservas de stock del cliente, en un solo paso: las reservas se cierran
+     * como CONVERTIDA en la misma transacción que crea el Loan y sus LoanXTools. Si algo falla, las reservas
+     * siguen vigentes. Cada herramienta entra una vez en el pedido aunque la reserva tuviera más unidades.
+     * @param holdIds IDs de las reservas (InventoryHoldService) del cliente
+     * @return El Loan creado con sus LoanXTools
+     */
+    @Transactional
+    public LoanEntity createLoanFromHolds(UserEntity employee, Long clientId, Date initDate, Date returnDate, List<Long> holdIds) {
+        userService.validateAdminOrEmployee(employee);
+
+        // Las reservas liberan sus unidades al convertirse: el inventario se bloquea antes para que otro pedido
+        // no las tome en el medio
+        inventoryService.lockInventory(inventoryHoldService.toolIdsOf(clientId, holdIds));
+        List<Long> toolIds = inventoryHoldService.convertHolds(clientId, holdIds).stream()
+                .map(InventoryHoldService.Hold::toolId)
+                .distinct()
+                .toList();
+        return createLoanWithTools(employee, clientId, initDate, returnDate, toolIds);
+    }
 }
@@ -3,6 +3,7 @@ package com.example.demo.Services;
 import com.example.demo.Entities.*;
 import com.example.demo.Repositories.LoanRepository;
 import com.example.demo.Repositories.LoanXToolsRepository;
+import com.example.demo.config.ToolRentEvents.LoanStep;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -107,6 +108,7 @@ public class LoanXToolsService {
 
     @Transactional
     public LoanXToolsEntity giveLoanTool(UserEntity employee, Long idLoanXTool){
+        LoanStep event = LoanStep.begin("ENTREGA", null, idLoanXTool);
         userService.validateAdminOrEmployee(employee);
 
         LoanXToolsEntity loanXToolsEntity = findLoanXToolsEntityById(idLoanXTool);
@@ -137,11 +139,22 @@ public class LoanXToolsService {
         loanXToolsEntity.setIdEmployeeDel(employee);
         kardexService.createKardexEntity(loanXToolsEntity.getIdTool(), "PRESTAMO", actualDate, 1, null, user, employee);
 
-        return loanXToolsRepository.save(loanXToolsEntity);
+        LoanXToolsEntity saved = loanXToolsRepository.save(loanXToolsEntity);
+        event.setLoan(loanXToolsEntity.getIdLoan().getId());
+        event.commit();
+        return saved;
     }
 
     @Transactional
     public List<LoanXToolsEntity> giveAllLoanTools(UserEntity idUser, List<Long> ids){
+        LoanStep event = LoanStep.begin("ENTREGA_PEDIDO", null, null);
+        event.tools = ids.size();
+        // Bloquear el inventario de todas las herramientas del pedido en orden de id, sin importar el orden de la lista
+        List<Long> toolIds = new ArrayList<>();
+        for (Long id : ids) {
+            toolIds.add(findLoanXToolsEntityById(id).getIdTool().getId());
+        }
+        inventoryService.lockInventory(toolIds);
         List<LoanXToolsEntity> results = new ArrayList<>();
         int i = 0;
         while (i < ids.size()) {
@@ -150,11 +163,13 @@ public class LoanXToolsService {
             results.add(updated);
             i+=1;
         }
+        event.commit();
         return results;
     }
 
     @Transactional
     public LoanXToolsEntity createLoanXTool(Long loanId, Long toolId) {
+        LoanStep event = LoanStep.begin("AGREGAR_HERRAMIENTA", loanId, null);
         // Fetch loan
         LoanEntity loan = loanRepository.findById(loanId)
                 .orElseThrow(() -> new RuntimeException("No se encontró el pedido solicitado"));
@@ -199,7 +214,10 @@ public class LoanXToolsService {
         lxt.setFine(0);
         lxt.setNeedRepair(false);
 
-        return loanXToolsRepository.save(lxt);
+        LoanXToolsEntity saved = loanXToolsRepository.save(lxt);
+        event.loanXToolId = lxt.getId() != null ? lxt.getId() : -1;
+        event.commit();
+        return saved;
     }
 
     public int calculateFineByDate(LoanXToolsEntity lxt){
@@ -257,6 +275,7 @@ public class LoanXToolsService {
 
     @Transactional
     public LoanXToolsEntity receiveLoanTool(Long idUser, Long idLoanXTool, String damageTool){
+        LoanStep event = LoanStep.begin("DEVOLUCION", null, idLoanXTool);
         UserEntity employee = userService.findUserById(idUser);
         userService.validateAdminOrEmployee(employee);
 
@@ -302,7 +321,10 @@ public class LoanXToolsService {
         loanXToolsEntity.setIdEmployeeRec(employee);
         kardexService.createKardexEntity(loanXToolsEntity.getIdTool(), stateTool, actualDate, 1,null, user,employee);
 
-        return loanXToolsRepository.save(loanXToolsEntity);
+        LoanXToolsEntity saved = loanXToolsRepository.save(loanXToolsEntity);
+        event.setLoan(loanXToolsEntity.getIdLoan().getId());
+        event.commit();
+        return saved;
     }
 
     @Transactional
@@ -341,6 +363,8 @@ public class LoanXToolsService {
     public List<LoanXToolsEntity> receiveAllLoanTools(Long idEmployee, List<LoanXToolsEntity> lxtList, Map<Long, String> states) {
 
         LoanEntity loan = lxtList.get(0).getIdLoan();
+        LoanStep event = LoanStep.begin("DEVOLUCION_PEDIDO", loan.getId(), null);
+        event.tools = lxtList.size();
 
         UserEntity client = loan.getIdUser();
 
@@ -352,6 +376,12 @@ public class LoanXToolsService {
             throw new IllegalArgumentException("Cantidad de estados no coincide con cantidad de herramientas");
         }
 
+        List<Long> toolIds = new ArrayList<>();
+        for (LoanXToolsEntity lxt : lxtList) {
+            toolIds.add(lxt.getIdTool().getId());
+        }
+        inventoryService.lockInventory(toolIds);
+
         int i = 0;
         while (i < lxtList.size()) {
             LoanXToolsEntity lxt = lxtList.get(i);
@@ -379,7 +409,7 @@ public class LoanXToolsService {
             Date actualDate = new Date(System.currentTimeMillis());
             loan.setRealReturnDate(actualDate);
 
-            client.setLoans(client.getLoans() - 1);
+            userService.releaseLoanSlot(client);
 
             // Un pedido solo está FINALIZADO cuando no hay multas pendientes NI reparaciones pendientes
             if (totalFine == 0 && !anyNeedRepair) {
@@ -398,6 +428,7 @@ public class LoanXToolsService {
             userService.saveUser(client);
         }
 
+        event.commit();
         return results;
     }
 
@@ -458,6 +489,7 @@ public class LoanXToolsService {
 
     @Transactional
     public boolean payDebt(Long loanId, Long adminUser) {
+        LoanStep event = LoanStep.begin("PAGO_DEUDA", loanId, null);
         UserEntity admin = userService.findUserById(adminUser);
         userService.validateAdminOrEmployee(admin);
         LoanEntity loan = loanService.getLoanById(loanId);
@@ -483,6 +515,8 @@ public class LoanXToolsService {
                 loan.setStatus("FINALIZADO");
             }
             loanRepository.save(loan);
+            event.tools = lxt.size();
+            event.commit();
             return true;
         }else{
             return false;
@@ -491,6 +525,7 @@ public class LoanXToolsService {
 
     @Transactional
     public boolean payRepairTool(Long loanId, Long adminUser, int cost) {
+        LoanStep event = LoanStep.begin("PAGO_REPARACION", loanId, null);
         UserEntity admin = userService.findUserById(adminUser);
         userService.validateAdminOrEmployee(admin);
 
@@ -533,6 +568,8 @@ public class LoanXToolsService {
             }
             loanService.saveLoan(loan);
 
+            event.tools = lxtList.size();
+            event.commit();
             return true;
         }
 
@@ -544,6 +581,7 @@ public class LoanXToolsService {
         List<LoanXToolsEntity> lxt =  getAllLoanXToolsByIdLoan(loan);
         if (loan.getStatus().equals("ACTIVO") && lxt.isEmpty()) {
             loan.setStatus("FINALIZADO");
+            userService.releaseLoanSlot(loan.getIdUser());
         }
         return loanService.saveLoan(loan);
     }
@@ -0,0 +1,236 @@
+package com.example.demo.Services;
+
+import com.example.demo.Config.ImageInitializer;
+import com.example.demo.Repositories.ToolRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Recolector mark-and-sweep de imágenes huérfanas.
+ * Marca: se leen en streaming los imageUrl referenciados por la tabla tool y se guardan como hashes de 64 bits
+ * en un arreglo ordenado (una colisión solo hace que se conserve un archivo, nunca que se borre uno en uso).
+ * Barrido: se recorre el volumen y se eliminan los archivos no referenciados más antiguos que el período de gracia,
+ * junto con sus variantes y los temporales abandonados de .tmp.
+ */
+@Service
+public class OrphanImageCollectorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanImageCollectorService.class);
+
+    /**
+     * Resultado de una pasada del recolector.
+     */
+    public record Report(int referenced, int scanned, int orphaned, int deleted, long reclaimedBytes, boolean dryRun) {
+    }
+
+    private final FileStorageService fileStorageService;
+
+    private final ToolRepository toolRepository;
+
+    private final ImageInitializer imageInitializer;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Duration gracePeriod;
+
+    private final boolean dryRun;
+
+    private final boolean enabled;
+
+    private final Counter orphanedCounter;
+
+    private final Counter deletedCounter;
+
+    private final Counter reclaimedBytesCounter;
+
+    private final Timer runTimer;
+
+    @Autowired
+    public OrphanImageCollectorService(FileStorageService fileStorageService,
+                                       ToolRepository toolRepository,
+                                       ImageInitializer imageInitializer,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${images.gc.grace-period:PT24H}") Duration gracePeriod,
+                                       @Value("${images.gc.dry-run:false}") boolean dryRun,
+                                       @Value("${images.gc.enabled:true}") boolean enabled) {
+        this.fileStorageService = fileStorageService;
+        this.toolRepository = toolRepository;
+        this.imageInitializer = imageInitializer;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.gracePeriod = gracePeriod;
+        this.dryRun = dryRun;
+        this.enabled = enabled;
+        this.orphanedCounter = Counter.builder("images.gc.orphaned")
+                .description("Archivos sin referencia encontrados por el recolector")
+                .register(meterRegistry);
+        this.deletedCounter = Counter.builder("images.gc.deleted")
+                .description("Archivos eliminados por el recolector")
+                .register(meterRegistry);
+        this.reclaimedBytesCounter = Counter.builder("images.gc.reclaimed")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("images.gc.duration").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${images.gc.cron:0 30 3 * * *}")
+    public void scheduledCollect() {
+        if (!enabled) {
+            return;
+        }
+        Report report = collect();
+        if (report != null) {
+            logger.info("Image GC{}: scanned {}, orphaned {}, deleted {}, reclaimed {} bytes",
+                    report.dryRun() ? " (dry-run)" : "", report.scanned(), report.orphaned(), report.deleted(),
+                    report.reclaimedBytes());
+        }
+    }
+
+    /**
+     * Ejecuta una pasada completa. Devuelve null si las imágenes iniciales todavía se están copiando.
+     */
+    public Report collect() {
+        Set<String> seedNames = imageInitializer.seedNames();
+        if (imageInitializer.isSeeding() || seedNames.isEmpty()) {
+            return null;
+        }
+        return runTimer.record(() -> {
+            long[] referenced = markReferenced();
+            return sweep(referenced, seedNames);
+        });
+    }
+
+    private long[] markReferenced() {
+        return readOnlyTransaction.execute(status -> {
+            try (Stream<String> urls = toolRepository.streamReferencedImageUrls()) {
+                long[] hashes = urls.mapToLong(OrphanImageCollectorService::hash).toArray();
+                Arrays.sort(hashes);
+                return hashes;
+            }
+        });
+    }
+
+    private Report sweep(long[] referenced, Set<String> seedNames) {
+        Path root = fileStorageService.getFileStorageLocation();
+        Path tempDir = root.resolve(FileStorageService.TEMP_DIR);
+        Path variantsDir = root.resolve(ImageVariantService.VARIANTS_DIR);
+        long cutoff = System.currentTimeMillis() - gracePeriod.toMillis();
+        int[] counts = new int[3];
+        long[] reclaimed = {0};
+
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (dir.equals(root) || dir.startsWith(tempDir) || dir.startsWith(variantsDir)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    return dir.getFileName().toString().startsWith(".")
+                            ? FileVisitResult.SKIP_SUBTREE
+                            : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    counts[0]++;
+                    if (attrs.lastModifiedTime().toMillis() > cutoff) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    String name;
+                    if (file.startsWith(tempDir)) {
+                        name = null;
+                    } else if (file.startsWith(variantsDir)) {
+                        // .variants/<ancho>/<nombre original>
+                        Path relative = variantsDir.relativize(file);
+                        if (relative.getNameCount() < 2) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        name = relative.subpath(1, relative.getNameCount()).toString().replace('\\', '/');
+                    } else {
+                        name = root.relativize(file).toString().replace('\\', '/');
+                        if (name.startsWith(".")) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                    }
+
+                    if (name != null && (seedNames.contains(name) || isReferenced(referenced, name))) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    counts[1]++;
+                    orphanedCounter.increment();
+                    if (!dryRun) {
+                        try {
+                            if (Files.deleteIfExists(file)) {
+                                counts[2]++;
+                                reclaimed[0] += attrs.size();
+                                deletedCounter.increment();
+                                reclaimedBytesCounter.increment(attrs.size());
+                            }
+                        } catch (IOException e) {
+                            logger.warn("Failed to delete orphaned image {}: {}", file, e.getMessage());
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                    // Los directorios ab/cd vacíos se eliminan para mantener cortos los listados; solo si tampoco
+                    // cambiaron durante el período de gracia, para no competir con una subida que acaba de crearlos
+                    if (!dryRun && !dir.equals(root) && !dir.equals(tempDir) && !dir.equals(variantsDir)) {
+                        try (Stream<Path> entries = Files.list(dir)) {
+                            if (entries.findAny().isEmpty() && Files.getLastModifiedTime(dir).toMillis() <= cutoff) {
+                                Files.deleteIfExists(dir);
+                            }
+                        } catch (IOException ignored) {
+                            // Un directorio que no se pudo limpiar se intenta en la siguiente pasada
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to sweep image volume: {}", e.getMessage());
+        }
+
+        return new Report(referenced.length, counts[0], counts[1], counts[2], reclaimed[0], dryRun);
+    }
+
+    private static boolean isReferenced(long[] referenced, String name) {
+        return Arrays.binarySearch(referenced, hash(name)) >= 0;
+    }
+
+    // FNV-1a de 64 bits sobre el nombre relativo
+    static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.demo.Services;
+
+import com.example.demo.Repositories.RateLimitBucketRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token buckets por cliente y ruta para los endpoints públicos, implementados con GCRA: cada bucket es un
+ * único long (el instante en que quedaría lleno otra vez) que se actualiza con CAS, sin locks.
+ * En memoria la cantidad de buckets está acotada: los que ya se rellenaron se borran periódicamente y,
+ * si aun así se llega a max-entries, los clientes nuevos comparten un arreglo fijo de buckets por hash
+ * (una colisión solo hace el límite más estricto). Con ratelimit.store=postgres el estado vive en la tabla
+ * rate_limit_buckets y lo comparten todas las réplicas.
+ */
+@Service
+public class RateLimitService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitService.class);
+
+    /**
+     * Presupuesto de una ruta: ráfaga máxima (capacity) y tokens que se recuperan por segundo.
+     */
+    public record Budget(String prefix, long capacity, double refillPerSecond) {
+
+        long intervalNanos() {
+            return (long) (1_000_000_000L / refillPerSecond);
+        }
+
+        String policy() {
+            return String.format(Locale.ROOT, "%d;w=%d", capacity, (long) Math.ceil(capacity / refillPerSecond));
+        }
+
+        Budget scaled(int multiplier) {
+            return new Budget(prefix, capacity * multiplier, refillPerSecond * multiplier);
+        }
+    }
+
+    /**
+     * Resultado de pedir un token; los valores alimentan los headers RateLimit-* y Retry-After.
+     */
+    public record Decision(boolean allowed, long limit, long remaining, long resetSeconds, long retryAfterSeconds,
+                           String policy) {
+    }
+
+    private interface Cell {
+        long get();
+
+        boolean compareAndSet(long expected, long value);
+    }
+
+    private static final int OVERFLOW_BUCKETS = 4096;
+
+    private static final long FAIL_OPEN_WARN_INTERVAL_NANOS = 60_000_000_000L;
+
+    private final List<Budget> budgets;
+
+    private final Set<String> apiKeys;
+
+    private final int apiKeyMultiplier;
+
+    private final boolean postgres;
+
+    private final int maxEntries;
+
+    private final RateLimitBucketRepository repository;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final AtomicLongArray overflow = new AtomicLongArray(OVERFLOW_BUCKETS);
+
+    private final AtomicLong lastInlineSweep = new AtomicLong(System.nanoTime());
+
+    private final AtomicLong lastFailOpenWarning = new AtomicLong(System.nanoTime() - FAIL_OPEN_WARN_INTERVAL_NANOS);
+
+    @Autowired
+    public RateLimitService(RateLimitBucketRepository repository,
+                            MeterRegistry meterRegistry,
+                            @Value("${ratelimit.budgets:/kardex/ranking=10/0.5,/inventory=60/10,/tool=60/10}") String budgets,
+                            @Value("${ratelimit.api-keys:}") String apiKeys,
+                            @Value("${ratelimit.api-key-multiplier:10}") int apiKeyMultiplier,
+                            @Value("${ratelimit.store:memory}") String store,
+                            @Value("${ratelimit.max-entries:100000}") int maxEntries) {
+        this.repository = repository;
+        this.budgets = parseBudgets(budgets);
+        this.apiKeys = apiKeys.isBlank() ? Set.of() : Set.of(apiKeys.split(","));
+        this.apiKeyMultiplier = apiKeyMultiplier;
+        this.postgres = "postgres".equalsIgnoreCase(store);
+        this.maxEntries = maxEntries;
+        for (int i = 0; i < OVERFLOW_BUCKETS; i++) {
+            overflow.set(i, Long.MIN_VALUE);
+        }
+        Gauge.builder("toolrent.ratelimit.buckets", buckets, ConcurrentHashMap::size)
+                .description("Buckets en memoria del rate limiter")
+                .register(meterRegistry);
+    }
+
+    static List<Budget> parseBudgets(String value) {
+        List<Budget> parsed = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] route = entry.trim().split("=");
+            String[] rate = route.length == 2 ? route[1].split("/") : new String[0];
+            if (rate.length != 2) {
+                throw new IllegalArgumentException("Presupuesto inválido (se espera ruta=capacidad/porSegundo): " + entry);
+            }
+            parsed.add(new Budget(route[0], Long.parseLong(rate[0]), Double.parseDouble(rate[1])));
+        }
+        // el prefijo más largo gana
+        parsed.sort(Comparator.comparingInt((Budget b) -> b.prefix().length()).reversed());
+        return List.copyOf(parsed);
+    }
+
+    /**
+     * Presupuesto que aplica a la ruta (sin /api), o null si la ruta no está limitada.
+     */
+    public Budget budgetFor(String path) {
+        for (Budget budget : budgets) {
+            if (path.equals(budget.prefix()) || path.startsWith(budget.prefix() + "/")) {
+                return budget;
+            }
+        }
+        return null;
+    }
+
+    public boolean isKnownApiKey(String apiKey) {
+        return apiKey != null && apiKeys.contains(apiKey);
+    }
+
+    /**
+     * Consume un token del bucket (ruta, cliente). client es "ip:..." o "key:..." (ver RateLimitFilter).
+     */
+    public Decision tryConsume(Budget budget, String client) {
+        Budget effective = client.startsWith("key:") ? budget.scaled(apiKeyMultiplier) : budget;
+        String key = budget.prefix() + "|" + client;
+        if (postgres) {
+            return consumeShared(effective, key);
+        }
+        return consume(effective, cell(key));
+    }
+
+    @Scheduled(fixedDelayString = "${ratelimit.sweep-interval-ms:30000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        buckets.entrySet().removeIf(e -> isFull(e.getValue().get(), now));
+        if (postgres) {
+            try {
+                repository.deleteFull();
+            } catch (RuntimeException e) {
+                logger.warn("No se pudieron limpiar los buckets de rate limit: {}", e.getMessage());
+            }
+        }
+    }
+
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    private Cell cell(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxEntries) {
+                sweepInline();
+            }
+            if (buckets.size() < maxEntries) {
+                bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+            }
+        }
+        if (bucket != null) {
+            AtomicLong found = bucket;
+            return new Cell() {
+                @Override
+                public long get() {
+                    return found.get();
+                }
+
+                @Override
+                public boolean compareAndSet(long expected, long value) {
+                    return found.compareAndSet(expected, value);
+                }
+            };
+        }
+        int index = Math.floorMod(key.hashCode(), OVERFLOW_BUCKETS);
+        return new Cell() {
+            @Override
+            public long get() {
+                return overflow.get(index);
+            }
+
+            @Override
+            public boolean compareAndSet(long expected, long value) {
+                return overflow.compareAndSet(index, expected, value);
+            }
+        };
+    }
+
+    // Con el mapa lleno se limpia en línea, como mucho una vez por segundo
+    private void sweepInline() {
+        long now = System.nanoTime();
+        long last = lastInlineSweep.get();
+        if (now - last >= 1_000_000_000L && lastInlineSweep.compareAndSet(last, now)) {
+            buckets.entrySet().removeIf(e -> isFull(e.getValue().get(), now));
+        }
+    }
+
+    private Decision consume(Budget budget, Cell cell) {
+        long interval = budget.intervalNanos();
+        long burst = budget.capacity() * interval;
+        while (true) {
+            long now = System.nanoTime();
+            long tat = cell.get();
+            long base = isFull(tat, now) ? now : tat;
+            long debt = base + interval - now;
+            if (debt > burst) {
+                return denied(budget, debt - burst, base - now);
+            }
+            if (cell.compareAndSet(tat, base + interval)) {
+                return allowed(budget, debt);
+            }
+        }
+    }
+
+    // Long.MIN_VALUE marca un bucket nuevo; la resta evita problemas con el desborde de nanoTime
+    private static boolean isFull(long tat, long now) {
+        return tat == Long.MIN_VALUE || tat - now <= 0;
+    }
+
+    private Decision consumeShared(Budget budget, String key) {
+        long intervalUs = budget.intervalNanos() / 1000;
+        try {
+            Long debtUs = repository.consume(key, intervalUs, budget.capacity() * intervalUs);
+            if (debtUs == null) {
+                return denied(budget, budget.intervalNanos(), budget.capacity() * budget.intervalNanos());
+            }
+            return allowed(budget, debtUs * 1000);
+        } catch (RuntimeException e) {
+            // si la base no responde no se bloquea el catálogo: se deja pasar
+            logFailOpen(e);
+            return allowed(budget, budget.intervalNanos());
+        }
+    }
+
+    // Con la base caída esto pasa en cada petición: se avisa como mucho una vez por minuto y el resto va a debug
+    private void logFailOpen(RuntimeException e) {
+        long now = System.nanoTime();
+        long last = lastFailOpenWarning.get();
+        if (now - last >= FAIL_OPEN_WARN_INTERVAL_NANOS && lastFailOpenWarning.compareAndSet(last, now)) {
+            logger.warn("Rate limit compartido no disponible, se deja pasar el tráfico: {}", e.getMessage());
+        } else {
+            logger.debug("Rate limit compartido no disponible: {}", e.getMessage());
+        }
+    }
+
+    private static Decision allowed(Budget budget, long debtNanos) {
+        long burst = budget.capacity() * budget.intervalNanos();
+        long remaining = Math.max(0, (burst - debtNanos) / budget.intervalNanos());
+        return new Decision(true, budget.capacity(), remaining, seconds(debtNanos), 0, budget.policy());
+    }
+
+    private static Decision denied(Budget budget, long waitNanos, long untilFullNanos) {
+        return new Decision(false, budget.capacity(), 0, seconds(untilFullNanos), Math.max(1, seconds(waitNanos)),
+                budget.policy());
+    }
+
+    private static long seconds(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+}
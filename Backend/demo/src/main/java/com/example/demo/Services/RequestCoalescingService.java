@@ -0,0 +1,188 @@
+package com.example.demo.Services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Coalescencia de lecturas públicas costosas (single-flight).
+ * Para cada clave normalizada solo corre un cálculo a la vez y los llamados concurrentes comparten su resultado.
+ * El último resultado se conserva mientras la versión de los datos no cambie; cuando cambia, se sigue
+ * sirviendo durante una ventana corta (stale-while-revalidate) mientras se recalcula en segundo plano.
+ * Los endpoints con ETag usan executeCurrent, que nunca devuelve un resultado de otra versión: el ETag se arma
+ * con la versión actual y un cuerpo anterior quedaría guardado en el cliente bajo ese ETag hasta la próxima escritura.
+ */
+@Service
+public class RequestCoalescingService {
+
+    private final MeterRegistry meterRegistry;
+
+    private final long maxAgeMs;
+
+    private final long staleWindowMs;
+
+    private final int maxEntries;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final ExecutorService refresher = Executors.newVirtualThreadPerTaskExecutor();
+
+    // LRU acotado: las búsquedas libres (search) no deben hacer crecer la memoria sin límite
+    private final Map<String, Entry> results;
+
+    public RequestCoalescingService(MeterRegistry meterRegistry,
+                                    @Value("${coalescing.max-age-ms:60000}") long maxAgeMs,
+                                    @Value("${coalescing.stale-window-ms:2000}") long staleWindowMs,
+                                    @Value("${coalescing.max-entries:512}") int maxEntries) {
+        this.meterRegistry = meterRegistry;
+        this.maxAgeMs = maxAgeMs;
+        this.staleWindowMs = staleWindowMs;
+        this.maxEntries = maxEntries;
+        this.results = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > RequestCoalescingService.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Ejecuta loader para (name, key) o reutiliza un resultado en curso o vigente.
+     * version identifica el estado de los datos de origen (por ejemplo, un ETag de ChangeCounterService).
+     */
+    public <T> T execute(String name, String key, String version, Supplier<T> loader) {
+        return execute(name, key, version, loader, true);
+    }
+
+    /**
+     * Como execute, pero sin la ventana stale: el resultado siempre corresponde a version.
+     */
+    public <T> T executeCurrent(String name, String key, String version, Supplier<T> loader) {
+        return execute(name, key, version, loader, false);
+    }
+
+    public void invalidateAll() {
+        synchronized (results) {
+            results.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T execute(String name, String key, String version, Supplier<T> loader, boolean allowStale) {
+        String cacheKey = name + ":" + key;
+        long now = System.currentTimeMillis();
+        Entry entry;
+        synchronized (results) {
+            entry = results.get(cacheKey);
+            if (entry != null && !entry.isFresh(version, now)) {
+                if (entry.staleSince == 0) {
+                    entry.staleSince = now;
+                }
+                if (!allowStale || now - entry.staleSince > staleWindowMs) {
+                    entry = null;
+                }
+            }
+        }
+
+        if (entry != null) {
+            if (entry.isFresh(version, now)) {
+                count(name, "fresh");
+            } else {
+                count(name, "stale");
+                if (!inFlight.containsKey(flightKey(cacheKey, version))) {
+                    refresher.execute(() -> {
+                        try {
+                            load(name, cacheKey, version, loader);
+                        } catch (RuntimeException e) {
+                            // El próximo llamado volverá a intentarlo de forma síncrona
+                        }
+                    });
+                }
+            }
+            return (T) entry.value;
+        }
+
+        return (T) load(name, cacheKey, version, loader);
+    }
+
+    private Object load(String name, String cacheKey, String version, Supplier<?> loader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        String flightKey = flightKey(cacheKey, version);
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flightKey, mine);
+        if (running != null) {
+            count(name, "coalesced");
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        count(name, "computed");
+        try {
+            Object value = loader.get();
+            synchronized (results) {
+                results.put(cacheKey, new Entry(value, version, System.currentTimeMillis()));
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, mine);
+        }
+    }
+
+    // Solo se comparte un cálculo de la misma versión; uno iniciado antes de un cambio no sirve a quien ya lo ve
+    private static String flightKey(String cacheKey, String version) {
+        return cacheKey + "@" + version;
+    }
+
+    // outcome: computed (consulta real), coalesced (esperó un cálculo en curso), fresh o stale (desde memoria)
+    private void count(String name, String outcome) {
+        Counter.builder("catalog.coalescing.requests")
+                .description("Lecturas públicas por resultado de la coalescencia")
+                .tag("cache", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private class Entry {
+        private final Object value;
+        private final String version;
+        private final long computedAt;
+        private long staleSince;
+
+        private Entry(Object value, String version, long computedAt) {
+            this.value = value;
+            this.version = version;
+            this.computedAt = computedAt;
+        }
+
+        private boolean isFresh(String currentVersion, long now) {
+            return Objects.equals(version, currentVersion) && now - computedAt <= maxAgeMs;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.Services;
+
+import com.example.demo.DTO.CatalogSyncDTO;
+import com.example.demo.Repositories.CatalogTombstoneRepository;
+import com.example.demo.Repositories.CategoryRepository;
+import com.example.demo.Repositories.InventoryRepository;
+import com.example.demo.Repositories.ToolRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class SyncService {
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ToolRepository toolRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CatalogTombstoneRepository catalogTombstoneRepository;
+
+    /**
+     * Devuelve los cambios del catálogo con versión en (since, versión actual].
+     * Sin "since", o si es mayor que la versión actual (base reiniciada), se envía el catálogo completo.
+     */
+    public CatalogSyncDTO getChangesSince(Long since) {
+        long version = catalogVersionService.currentVersion();
+
+        if (since == null || since <= 0 || since > version) {
+            return new CatalogSyncDTO(version, true,
+                    toolRepository.findAll(),
+                    inventoryRepository.findAll(),
+                    categoryRepository.findAll(),
+                    List.of());
+        }
+
+        if (since == version) {
+            return new CatalogSyncDTO(version, false, List.of(), List.of(), List.of(), List.of());
+        }
+
+        Long from = since + 1;
+        return new CatalogSyncDTO(version, false,
+                toolRepository.findByChangeVersionBetween(from, version),
+                inventoryRepository.findByChangeVersionBetween(from, version),
+                categoryRepository.findByChangeVersionBetween(from, version),
+                catalogTombstoneRepository.findByChangeVersionBetween(from, version));
+    }
+}
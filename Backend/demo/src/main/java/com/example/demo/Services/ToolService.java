@@ -3,12 +3,11 @@ package com.example.demo.Services;
 import com.example.demo.DTO.EntityMapper;
 import com.example.demo.DTO.PageResponseDTO;
 import com.example.demo.DTO.ToolDTO;
-import com.example.demo.Entities.InventoryEntity;
 import com.example.demo.Entities.ToolEntity;
 import com.example.demo.Entities.UserEntity;
-import com.example.demo.Entities.ToolStateEntity;
 import com.example.demo.Repositories.InventoryRepository;
 import com.example.demo.Repositories.ToolRepository;
+import com.example.demo.Services.ChangeCounterService.Aggregate;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -18,11 +17,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.List;
 
 @Service
 public class ToolService {
@@ -40,10 +35,22 @@ public class ToolService {
     private FileStorageService fileStorageService;
 
     @Autowired
-    private ToolStateService toolStateService;
+    private CategoryService categoryService;
 
     @Autowired
-    private CategoryService categoryService;
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ChangeCounterService changeCounterService;
+
+    @Autowired
+    private RequestCoalescingService requestCoalescingService;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private InventoryUniqueIndexService inventoryUniqueIndexService;
 
     public ArrayList<ToolEntity> getAllTools() {
         return (ArrayList<ToolEntity>) toolRepository.findAll();
@@ -54,8 +61,11 @@ public class ToolService {
      */
     public PageResponseDTO<ToolDTO> getAllToolsPaginated(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("id").descending());
-        Page<ToolEntity> toolPage = toolRepository.findAll(pageable);
-        return EntityMapper.toToolPageResponseDTO(toolPage);
+        String version = changeCounterService.etag(null, Aggregate.TOOL, Aggregate.CATEGORY);
+        return requestCoalescingService.executeCurrent("tools-paginated", page + ":" + size, version, () -> {
+            Page<ToolEntity> toolPage = toolRepository.findAll(pageable);
+            return EntityMapper.toToolPageResponseDTO(toolPage);
+        });
     }
     
     /**
@@ -103,17 +113,14 @@ public class ToolService {
 
         String imageName = fileStorageService.saveFile(image);
         toolEntity.setImageUrl(imageName);
+        imageVariantService.generateAsync(imageName);
 
         ToolEntity savedTool = toolRepository.save(toolEntity);
 
-        List<ToolStateEntity> allStates = toolStateService.getAllStates();
-        for (ToolStateEntity state : allStates) {
-            InventoryEntity inv = new InventoryEntity();
-            inv.setIdTool(savedTool);
-            inv.setToolState(state);
-            inv.setStockTool(0);
-            inventoryRepository.save(inv);
-        }
+        // Una fila de inventario con stock 0 por cada estado, insertadas en un solo lote
+        inventoryUniqueIndexService.ensureUniqueIndex();
+        inventoryRepository.insertAllStatesForTool(savedTool.getId(), catalogVersionService.nextVersion());
+        changeCounterService.markChanged(Aggregate.TOOL, Aggregate.INVENTORY);
 
         return savedTool;
     }
@@ -140,27 +147,23 @@ public class ToolService {
             tool.setPriceFineAtDate(toolUpdate.getPriceFineAtDate());
         }
 
+        // La imagen anterior no se borra aquí: otra herramienta puede estar guardando el mismo archivo (mismo
+        // contenido) sin haber confirmado todavía. OrphanImageCollectorService la elimina tras su período de gracia
         if (image != null && !image.isEmpty()) {
-
-            // 1. borrar imagen anterior si existe
-            if (tool.getImageUrl() != null) {
-                try {
-                    Files.deleteIfExists(Paths.get("images", tool.getImageUrl()));
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-
             String fileName = fileStorageService.saveFile(image);
             tool.setImageUrl(fileName);
+            imageVariantService.generateAsync(fileName);
         }
 
-        return toolRepository.save(tool);
+        ToolEntity savedTool = toolRepository.save(tool);
+        changeCounterService.markChanged(Aggregate.TOOL);
+        return savedTool;
     }
 
     public boolean deleteToolById(Long id) {
         try {
             toolRepository.deleteById(id);
+            changeCounterService.markChanged(Aggregate.TOOL, Aggregate.INVENTORY);
             return true;
         } catch (Exception e) {
             return false;
@@ -1,13 +1,12 @@
 package com.example.demo.Services;
 
-import com.example.demo.Entities.InventoryEntity;
-import com.example.demo.Entities.ToolEntity;
 import com.example.demo.Entities.ToolStateEntity;
 import com.example.demo.Repositories.InventoryRepository;
-import com.example.demo.Repositories.ToolRepository;
 import com.example.demo.Repositories.ToolStateRepository;
+import com.example.demo.Services.ChangeCounterService.Aggregate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Comparator;
 import java.util.List;
@@ -20,10 +19,16 @@ public class ToolStateService {
     ToolStateRepository toolStateRepository;
 
     @Autowired
-    ToolRepository toolRepository;
+    InventoryRepository inventoryRepository;
 
     @Autowired
-    InventoryRepository inventoryRepository;
+    CatalogVersionService catalogVersionService;
+
+    @Autowired
+    ChangeCounterService changeCounterService;
+
+    @Autowired
+    InventoryUniqueIndexService inventoryUniqueIndexService;
 
     public List<ToolStateEntity> getAllStates() {
         // Ordenar por ID ascendente
@@ -33,6 +38,7 @@ public class ToolStateService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public ToolStateEntity createState(ToolStateEntity toolState) {
         // Check if state already exists
         ToolStateEntity existingState = toolStateRepository.findByState(toolState.getState());
@@ -43,24 +49,10 @@ public class ToolStateService {
         // Save new state
         ToolStateEntity savedState = toolStateRepository.save(toolState);
 
-        // Create inventory records for ALL existing tools with stock=0
-        List<ToolEntity> allTools = toolRepository.findAll();
-        for (ToolEntity tool : allTools) {
-            // Check if inventory record already exists for this tool-state combination
-            boolean exists = inventoryRepository.findAll().stream()
-                .anyMatch(inv -> 
-                    inv.getIdTool() != null && inv.getIdTool().getId().equals(tool.getId()) &&
-                    inv.getToolState() != null && inv.getToolState().getId().equals(savedState.getId())
-                );
-            
-            if (!exists) {
-                InventoryEntity inv = new InventoryEntity();
-                inv.setIdTool(tool);
-                inv.setToolState(savedState);
-                inv.setStockTool(0);
-                inventoryRepository.save(inv);
-            }
-        }
+        // Create inventory records for ALL existing tools with stock=0 (set-based, existing rows are skipped)
+        inventoryUniqueIndexService.ensureUniqueIndex();
+        inventoryRepository.insertStateForAllTools(savedState.getId(), catalogVersionService.nextVersion());
+        changeCounterService.markChanged(Aggregate.TOOL_STATE, Aggregate.INVENTORY);
 
         return savedState;
     }
@@ -76,12 +68,15 @@ public class ToolStateService {
         if (updatedState.getColor() != null) {
             existingState.setColor(updatedState.getColor());
         }
-        return toolStateRepository.save(existingState);
+        ToolStateEntity saved = toolStateRepository.save(existingState);
+        changeCounterService.markChanged(Aggregate.TOOL_STATE, Aggregate.INVENTORY);
+        return saved;
     }
 
     public boolean deleteState(Long id) {
         if (toolStateRepository.existsById(id)) {
             toolStateRepository.deleteById(id);
+            changeCounterService.markChanged(Aggregate.TOOL_STATE, Aggregate.INVENTORY);
             return true;
         }
         return false;
@@ -3,6 +3,8 @@ package com.example.demo.Services;
 import com.example.demo.Entities.UserEntity;
 import com.example.demo.Repositories.UserRepository;
 import org.apache.catalina.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -15,6 +17,13 @@ import org.springframework.security.oauth2.jwt.Jwt;
 @Service
 public class UserService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
+    public static final int MAX_ACTIVE_LOANS = 5;
+
+    // Estados de pedido que ocupan un cupo (los mismos que cuenta la reconciliación)
+    public static final List<String> ACTIVE_LOAN_STATES = List.of("ACTIVO", "ATRASADO");
+
     @Autowired
     private UserRepository userRepository;
     @Autowired
@@ -146,10 +155,34 @@ public class UserService {
     }
 
     public boolean canDoAnotherLoan(UserEntity user) {
-        if (user.getLoans()<5 && user.getLoans()>=0) {
+        if (user.getLoans()<MAX_ACTIVE_LOANS && user.getLoans()>=0) {
             return true;
         }
         return false;
     }
 
+    /**
+     * Ocupa un cupo de préstamo del cliente con un UPDATE condicional, así el límite se cumple aunque lleguen
+     * pedidos en paralelo (canDoAnotherLoan solo sirve como validación previa). Devuelve false si no quedan cupos.
+     */
+    public boolean reserveLoanSlot(UserEntity user) {
+        if (userRepository.incrementLoans(user.getId(), MAX_ACTIVE_LOANS) == 0) {
+            return false;
+        }
+        user.setLoans(user.getLoans() + 1);
+        return true;
+    }
+
+    /**
+     * Libera el cupo de un préstamo que dejó de estar activo.
+     */
+    public void releaseLoanSlot(UserEntity user) {
+        if (userRepository.decrementLoans(user.getId()) == 0) {
+            logger.warn("El contador de préstamos del usuario {} ya estaba en 0; la reconciliación lo revisará",
+                    user.getId());
+            return;
+        }
+        user.setLoans(Math.max(0, user.getLoans() - 1));
+    }
+
 }
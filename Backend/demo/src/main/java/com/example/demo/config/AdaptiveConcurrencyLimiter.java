@@ -0,0 +1,102 @@
+package com.example.demo.config;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de concurrencia adaptativo (AIMD) compartido por todo el servidor y repartido por clase de ruta.
+ * Mientras haya espacio bajo el límite cualquier clase puede usarlo; al llegar al límite solo entran las
+ * clases que están bajo su cuota garantizada, así el personal sigue atendiendo devoluciones aunque el
+ * catálogo público esté saturando el pod.
+ * El límite sube de a uno cuando se usa al menos la mitad y las respuestas salen a tiempo, y baja
+ * multiplicativamente cuando una respuesta supera la latencia aceptable de su clase.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum RouteClass { STAFF, AUTH, PUBLIC_READ }
+
+    /**
+     * Cuota garantizada (fracción del límite) y latencia aceptable de una clase de ruta.
+     */
+    public record Partition(double share, long latencyThresholdNanos) {
+    }
+
+    private final Map<RouteClass, Partition> partitions;
+
+    private final Map<RouteClass, AtomicInteger> inFlight = new EnumMap<>(RouteClass.class);
+
+    private final AtomicInteger totalInFlight = new AtomicInteger();
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    // Como mucho una reducción por ventana, para que una ráfaga de respuestas lentas no colapse el límite a cero
+    private final long backoffWindowNanos;
+
+    private double limit;
+
+    private long lastBackoff;
+
+    public AdaptiveConcurrencyLimiter(Map<RouteClass, Partition> partitions, int initialLimit, int minLimit, int maxLimit,
+                                      double backoffRatio, long backoffWindowNanos) {
+        this.partitions = new EnumMap<>(partitions);
+        for (RouteClass routeClass : RouteClass.values()) {
+            if (!this.partitions.containsKey(routeClass)) {
+                throw new IllegalArgumentException("Falta la cuota de " + routeClass);
+            }
+            inFlight.put(routeClass, new AtomicInteger());
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.backoffWindowNanos = backoffWindowNanos;
+        this.lastBackoff = System.nanoTime() - backoffWindowNanos;
+    }
+
+    /**
+     * Reserva un lugar para la petición; false si hay que rechazarla. Si devuelve true se debe llamar a release.
+     */
+    public synchronized boolean tryAcquire(RouteClass routeClass) {
+        int current = getLimit();
+        AtomicInteger partitionInFlight = inFlight.get(routeClass);
+        if (totalInFlight.get() >= current
+                && partitionInFlight.get() >= Math.max(1, (int) (current * partitions.get(routeClass).share()))) {
+            return false;
+        }
+        totalInFlight.incrementAndGet();
+        partitionInFlight.incrementAndGet();
+        return true;
+    }
+
+    public synchronized void release(RouteClass routeClass, long elapsedNanos) {
+        int before = totalInFlight.getAndDecrement();
+        inFlight.get(routeClass).decrementAndGet();
+
+        long now = System.nanoTime();
+        if (elapsedNanos > partitions.get(routeClass).latencyThresholdNanos()) {
+            if (now - lastBackoff >= backoffWindowNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastBackoff = now;
+            }
+        } else if (before * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return totalInFlight.get();
+    }
+
+    public int getInFlight(RouteClass routeClass) {
+        return inFlight.get(routeClass).get();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.demo.config;
+
+import com.example.demo.config.AdaptiveConcurrencyLimiter.Partition;
+import com.example.demo.config.AdaptiveConcurrencyLimiter.RouteClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rechaza con 503 + Retry-After las peticiones que exceden el límite de concurrencia adaptativo,
+ * antes de que lleguen a seguridad, Keycloak o la base de datos. Con hilos virtuales este filtro es lo
+ * único que acota cuántas peticiones se atienden a la vez.
+ * Clases: AUTH (/auth/**), PUBLIC_READ (GET del catálogo público) y STAFF (todo lo demás, incluidas las
+ * escrituras del personal como /loantool/receive/**), que tiene la mayor cuota garantizada.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    // Rutas GET visibles sin autenticación (ver SecurityConfig); /api/ se quita antes de comparar
+    private static final String[] PUBLIC_READ_PREFIXES = {"/inventory", "/tool", "/categories", "/tool-states",
+            "/sync", "/kardex/ranking"};
+
+    private final boolean enabled;
+
+    private final long retryAfterSeconds;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final Map<RouteClass, Counter> rejected = new EnumMap<>(RouteClass.class);
+
+    @Autowired
+    public ConcurrencyLimitFilter(ObjectProvider<MeterRegistry> meterRegistryProvider,
+                                  @Value("${concurrency.enabled:true}") boolean enabled,
+                                  @Value("${concurrency.initial-limit:40}") int initialLimit,
+                                  @Value("${concurrency.min-limit:8}") int minLimit,
+                                  @Value("${concurrency.max-limit:400}") int maxLimit,
+                                  @Value("${concurrency.backoff-ratio:0.9}") double backoffRatio,
+                                  @Value("${concurrency.backoff-window:PT0.1S}") Duration backoffWindow,
+                                  @Value("${concurrency.retry-after-seconds:1}") long retryAfterSeconds,
+                                  @Value("${concurrency.staff.share:0.6}") double staffShare,
+                                  @Value("${concurrency.staff.latency-threshold:PT1S}") Duration staffLatency,
+                                  @Value("${concurrency.auth.share:0.25}") double authShare,
+                                  @Value("${concurrency.auth.latency-threshold:PT2S}") Duration authLatency,
+                                  @Value("${concurrency.public-read.share:0.15}") double publicShare,
+                                  @Value("${concurrency.public-read.latency-threshold:PT0.25S}") Duration publicLatency) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        Map<RouteClass, Partition> partitions = new EnumMap<>(RouteClass.class);
+        partitions.put(RouteClass.STAFF, new Partition(staffShare, staffLatency.toNanos()));
+        partitions.put(RouteClass.AUTH, new Partition(authShare, authLatency.toNanos()));
+        partitions.put(RouteClass.PUBLIC_READ, new Partition(publicShare, publicLatency.toNanos()));
+        this.limiter = new AdaptiveConcurrencyLimiter(partitions, initialLimit, minLimit, maxLimit, backoffRatio,
+                backoffWindow.toNanos());
+
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        Gauge.builder("toolrent.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Límite de concurrencia adaptativo actual")
+                .register(meterRegistry);
+        for (RouteClass routeClass : RouteClass.values()) {
+            String tag = routeClass.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            Gauge.builder("toolrent.concurrency.inflight", limiter, l -> l.getInFlight(routeClass))
+                    .description("Peticiones en curso por clase de ruta")
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            rejected.put(routeClass, Counter.builder("toolrent.concurrency.rejected")
+                    .description("Peticiones rechazadas con 503 por el límite de concurrencia")
+                    .tag("class", tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String path = path(request);
+        // estáticos, probes/métricas y el stream SSE (conexión larga que ocuparía un lugar por horas)
+        return path.startsWith("/images/") || path.startsWith("/actuator") || path.equals("/inventory/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RouteClass routeClass = classify(request);
+        if (!limiter.tryAcquire(routeClass)) {
+            rejected.get(routeClass).increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"error\":\"Servidor ocupado, intenta nuevamente en unos segundos\"}");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.release(routeClass, System.nanoTime() - start);
+        }
+    }
+
+    public static RouteClass classify(HttpServletRequest request) {
+        String path = path(request);
+        if (path.startsWith("/auth/")) {
+            return RouteClass.AUTH;
+        }
+        if (HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())) {
+            for (String prefix : PUBLIC_READ_PREFIXES) {
+                if (path.equals(prefix) || path.startsWith(prefix + "/")) {
+                    return RouteClass.PUBLIC_READ;
+                }
+            }
+        }
+        return RouteClass.STAFF;
+    }
+
+    private static String path(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/api/") ? path.substring(4) : path;
+    }
+}
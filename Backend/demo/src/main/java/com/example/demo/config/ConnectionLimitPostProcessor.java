@@ -0,0 +1,31 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Envuelve el DataSource principal en un ConnectionLimitingDataSource con tantos permisos como conexiones tiene Hikari.
+ */
+@Component
+public class ConnectionLimitPostProcessor implements BeanPostProcessor {
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maxConnections;
+
+    @Value("${db.max-waiting:200}")
+    private int maxWaiting;
+
+    @Value("${db.acquire-timeout-ms:3000}")
+    private long acquireTimeoutMs;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+            return new ConnectionLimitingDataSource(dataSource, maxConnections, maxWaiting, acquireTimeoutMs);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.config;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Grabación JFR a pedido sobre el pod en vivo (solo ADMIN, como todo /actuator salvo health y prometheus):
+ * <ul>
+ *   <li>GET /actuator/jfr: estado de la grabación actual.</li>
+ *   <li>POST /actuator/jfr/start con {"settings": "default"|"profile", "durationSeconds": n}: inicia una
+ *   grabación nueva (descarta la anterior). Se detiene sola al cumplir la duración.</li>
+ *   <li>POST /actuator/jfr/stop: la detiene; los datos siguen disponibles para descargar.</li>
+ *   <li>GET /actuator/jfr/dump: descarga el archivo .jfr para abrirlo en JDK Mission Control.</li>
+ * </ul>
+ * La grabación está acotada en tamaño, antigüedad y duración, así que olvidarla prendida no llena el disco.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class FlightRecordingEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecordingEndpoint.class);
+
+    private static final String RECORDING_NAME = "toolrent";
+
+    private final long maxSizeBytes;
+
+    private final Duration maxAge;
+
+    private final Duration maxDuration;
+
+    private Recording recording;
+
+    private String settings;
+
+    private Path lastDump;
+
+    @Autowired
+    public FlightRecordingEndpoint(@Value("${jfr.max-size-mb:64}") long maxSizeMb,
+                                   @Value("${jfr.max-age:PT15M}") Duration maxAge,
+                                   @Value("${jfr.max-duration:PT30M}") Duration maxDuration) {
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.maxAge = maxAge;
+        this.maxDuration = maxDuration;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("settings", settings);
+        status.put("startTime", recording.getStartTime());
+        status.put("stopTime", recording.getStopTime());
+        status.put("duration", recording.getDuration());
+        status.put("maxAge", recording.getMaxAge());
+        status.put("maxSizeBytes", recording.getMaxSize());
+        status.put("sizeBytes", recording.getSize());
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> control(@Selector String action,
+                                                    @Nullable String settings,
+                                                    @Nullable Long durationSeconds) throws IOException, ParseException {
+        switch (action) {
+            case "start" -> start(settings, durationSeconds);
+            case "stop" -> {
+                if (recording == null || recording.getState() != RecordingState.RUNNING) {
+                    throw invalid("No hay una grabación JFR en curso");
+                }
+                recording.stop();
+            }
+            default -> throw invalid("Acción inválida: " + action + " (start o stop)");
+        }
+        return status();
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> dump(@Selector String action) throws IOException {
+        if (!"dump".equals(action)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        deleteLastDump();
+        lastDump = Files.createTempFile("toolrent-", ".jfr");
+        recording.dump(lastDump);
+        return new WebEndpointResponse<>(new FileSystemResource(lastDump));
+    }
+
+    private void start(String requestedSettings, Long durationSeconds) throws IOException, ParseException {
+        String name = requestedSettings == null || requestedSettings.isBlank() ? "default" : requestedSettings;
+        if (!"default".equals(name) && !"profile".equals(name)) {
+            throw invalid("Configuración inválida: " + name + " (default o profile)");
+        }
+        Duration duration = durationSeconds == null || durationSeconds <= 0
+                ? maxDuration
+                : Duration.ofSeconds(Math.min(durationSeconds, maxDuration.toSeconds()));
+
+        if (recording != null) {
+            recording.close();
+        }
+        Recording fresh = new Recording(Configuration.getConfiguration(name));
+        fresh.setName(RECORDING_NAME);
+        fresh.setToDisk(true);
+        fresh.setMaxSize(maxSizeBytes);
+        fresh.setMaxAge(maxAge);
+        fresh.setDuration(duration);
+        fresh.start();
+        recording = fresh;
+        settings = name;
+        logger.info("Grabación JFR iniciada ({}, {} s)", name, duration.toSeconds());
+    }
+
+    private static InvalidEndpointRequestException invalid(String message) {
+        return new InvalidEndpointRequestException(message, message);
+    }
+
+    private void deleteLastDump() throws IOException {
+        if (lastDump != null) {
+            Files.deleteIfExists(lastDump);
+            lastDump = null;
+        }
+    }
+}
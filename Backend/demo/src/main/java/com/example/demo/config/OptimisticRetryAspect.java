@@ -0,0 +1,158 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.persistence.OptimisticLockException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.StaleStateException;
+import org.hibernate.StaleObjectStateException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reintenta los métodos @Transactional de los servicios cuando la transacción choca con otra por @Version
+ * (inventario, préstamos, detalle de préstamos y usuarios). Corre por fuera del interceptor de transacciones
+ * (orden LOWEST_PRECEDENCE - 1), así cada intento abre una transacción nueva y relee las filas.
+ * Solo reintenta la llamada más externa: si ya hay una transacción activa, el conflicto sube hasta ella.
+ * También reintenta a la víctima de un deadlock (SQLState 40P01 en Postgres, 40001 en H2): la base ya deshizo
+ * su transacción, así que repetirla es seguro. Con el orden de locks de InventoryService.lockInventory no
+ * debería ocurrir; por eso se cuentan aparte, para que cualquier deadlock que aparezca sea visible.
+ * Espera entre intentos con backoff exponencial y jitter para que los que chocaron no vuelvan a chocar.
+ * Métricas: toolrent.optimistic.conflicts{entity, operation} cuenta cada choque (qué agregado está caliente),
+ * toolrent.tx.deadlocks{operation, sqlstate} cada deadlock y
+ * toolrent.optimistic.retries{operation, outcome=RECOVERED|EXHAUSTED} cómo terminaron los reintentos.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class OptimisticRetryAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryAspect.class);
+
+    public static final String CONFLICTS = "toolrent.optimistic.conflicts";
+
+    public static final String RETRIES = "toolrent.optimistic.retries";
+
+    public static final String DEADLOCKS = "toolrent.tx.deadlocks";
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxAttempts;
+
+    private final long baseBackoffMs;
+
+    private final long maxBackoffMs;
+
+    @Autowired
+    public OptimisticRetryAspect(ObjectProvider<MeterRegistry> meterRegistryProvider,
+                                 @Value("${optimistic.max-attempts:4}") int maxAttempts,
+                                 @Value("${optimistic.base-backoff:PT0.02S}") Duration baseBackoff,
+                                 @Value("${optimistic.max-backoff:PT0.5S}") Duration maxBackoff) {
+        this.meterRegistry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMs = Math.max(1, baseBackoff.toMillis());
+        this.maxBackoffMs = Math.max(this.baseBackoffMs, maxBackoff.toMillis());
+    }
+
+    @Around("execution(public * com.example.demo.Services..*.*(..)) && ("
+            + "@annotation(org.springframework.transaction.annotation.Transactional)"
+            + " || @annotation(jakarta.transaction.Transactional))")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        int attempt = 1;
+        while (true) {
+            try {
+                Object result = joinPoint.proceed();
+                if (attempt > 1) {
+                    meterRegistry.counter(RETRIES, "operation", operation, "outcome", "RECOVERED").increment();
+                }
+                return result;
+            } catch (Throwable ex) {
+                String entity = conflictingEntity(ex);
+                String deadlock = entity == null ? deadlockState(ex) : null;
+                if (entity == null && deadlock == null) {
+                    throw ex;
+                }
+                if (deadlock != null) {
+                    meterRegistry.counter(DEADLOCKS, "operation", operation, "sqlstate", deadlock).increment();
+                } else {
+                    meterRegistry.counter(CONFLICTS, "entity", entity, "operation", operation).increment();
+                }
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter(RETRIES, "operation", operation, "outcome", "EXHAUSTED").increment();
+                    logger.warn("{} durante {}, sin éxito tras {} intentos",
+                            deadlock != null ? "Deadlock (" + deadlock + ")" : "Conflicto de versión en " + entity,
+                            operation, attempt);
+                    throw ex;
+                }
+                Thread.sleep(backoffMillis(attempt));
+                attempt++;
+            }
+        }
+    }
+
+    /** Espera antes del intento attempt + 1: entre la mitad y el total de base * 2^(attempt-1), con tope */
+    long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    /**
+     * Nombre simple de la entidad en conflicto, o null si la excepción no es un choque de versión.
+     * Recorre las causas porque algunos servicios envuelven los errores en RuntimeException.
+     */
+    static String conflictingEntity(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof ObjectOptimisticLockingFailureException e && e.getPersistentClassName() != null) {
+                return simpleName(e.getPersistentClassName());
+            }
+            if (t instanceof StaleObjectStateException e) {
+                return simpleName(e.getEntityName());
+            }
+            if (t instanceof OptimisticLockException e && e.getEntity() != null) {
+                return e.getEntity().getClass().getSimpleName();
+            }
+            if (t instanceof OptimisticLockingFailureException || t instanceof OptimisticLockException
+                    || t instanceof StaleStateException) {
+                // Sigue buscando una causa más precisa; si no aparece, el agregado queda sin identificar
+                String inner = t.getCause() != null && t.getCause() != t ? conflictingEntity(t.getCause()) : null;
+                return inner != null ? inner : "desconocida";
+            }
+        }
+        return null;
+    }
+
+    /** SQLState si la excepción (o alguna causa) es la víctima de un deadlock, o null */
+    static String deadlockState(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof SQLException e && ("40P01".equals(e.getSQLState()) || "40001".equals(e.getSQLState()))) {
+                return e.getSQLState();
+            }
+        }
+        return null;
+    }
+
+    private static String simpleName(String className) {
+        int dot = className.lastIndexOf('.');
+        return dot >= 0 ? className.substring(dot + 1) : className;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conteo de sentencias SQL del hilo actual. Cada petición HTTP (y cada test con @QueryBudget) abre un Scope;
+ * el listener del datasource suma cada ejecución a todos los scopes abiertos en el hilo.
+ * Las consultas hechas en otros hilos (tareas asíncronas, schedulers) no se cuentan para la petición.
+ */
+public final class QueryCounter {
+
+    // Sentencias distintas que se registran por scope para detectar N+1; el resto solo suma al total
+    private static final int MAX_DISTINCT_STATEMENTS = 256;
+
+    private static final ThreadLocal<List<Scope>> ACTIVE = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static Scope open() {
+        List<Scope> scopes = ACTIVE.get();
+        if (scopes == null) {
+            scopes = new ArrayList<>(2);
+            ACTIVE.set(scopes);
+        }
+        Scope scope = new Scope();
+        scopes.add(scope);
+        return scope;
+    }
+
+    static void record(String sql, long nanos) {
+        List<Scope> scopes = ACTIVE.get();
+        if (scopes == null) {
+            return;
+        }
+        for (Scope scope : scopes) {
+            scope.add(sql, nanos);
+        }
+    }
+
+    /**
+     * Sentencias y tiempo de base de datos acumulados desde que se abrió el scope.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private int statements;
+
+        private long nanos;
+
+        private final Map<String, Integer> repeats = new HashMap<>();
+
+        private Scope() {
+        }
+
+        private void add(String sql, long elapsedNanos) {
+            statements++;
+            nanos += elapsedNanos;
+            if (sql != null && (repeats.size() < MAX_DISTINCT_STATEMENTS || repeats.containsKey(sql))) {
+                repeats.merge(sql, 1, Integer::sum);
+            }
+        }
+
+        public int statements() {
+            return statements;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        public double millis() {
+            return nanos / 1_000_000.0;
+        }
+
+        /**
+         * Sentencia que más veces se repitió en el scope (la firma típica de un N+1), o null si no hubo consultas.
+         */
+        public Map.Entry<String, Integer> mostRepeated() {
+            return repeats.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+        }
+
+        @Override
+        public void close() {
+            List<Scope> scopes = ACTIVE.get();
+            if (scopes != null) {
+                scopes.remove(this);
+                if (scopes.isEmpty()) {
+                    ACTIVE.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Envuelve el DataSource con datasource-proxy para contar cada ejecución (una sentencia o un batch)
+ * y su duración en el QueryCounter del hilo. Reemplaza a spring.jpa.show-sql, que solo imprimía el SQL.
+ */
+@Component
+public class QueryCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final String START_KEY = "toolrent.start";
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(new CountingListener())
+                    .build();
+        }
+        return bean;
+    }
+
+    static class CountingListener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            execInfo.addCustomValue(START_KEY, System.nanoTime());
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            Long start = execInfo.getCustomValue(START_KEY, Long.class);
+            long elapsed = start != null ? System.nanoTime() - start : execInfo.getElapsedTime() * 1_000_000L;
+            String sql = queryInfoList.isEmpty() ? null : queryInfoList.get(0).getQuery();
+            QueryCounter.record(sql, elapsed);
+        }
+    }
+}
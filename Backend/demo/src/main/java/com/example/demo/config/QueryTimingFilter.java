@@ -0,0 +1,156 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cuenta las sentencias SQL y el tiempo de base de datos de cada petición.
+ * El resultado sale en el header Server-Timing (visible en las DevTools del navegador) y en las métricas
+ * toolrent.http.queries / toolrent.http.db por endpoint. Además avisa cuando una misma sentencia se repite
+ * muchas veces en una petición, que es como se ve un N+1.
+ */
+@Component
+public class QueryTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryTimingFilter.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final int nPlusOneThreshold;
+
+    private final int warnThreshold;
+
+    @Autowired
+    public QueryTimingFilter(ObjectProvider<MeterRegistry> meterRegistry,
+                             @Value("${queries.n-plus-one-threshold:10}") int nPlusOneThreshold,
+                             @Value("${queries.warn-threshold:50}") int warnThreshold) {
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            ServerTimingResponse wrapped = new ServerTimingResponse(response, scope);
+            chain.doFilter(request, wrapped);
+            // respuestas sin cuerpo (204, 304, HEAD) no pasan por getOutputStream
+            wrapped.writeServerTiming();
+            record(request, scope);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // /images no toca la base de datos y no debe interferir con el envío zero-copy
+        return request.getRequestURI().startsWith(request.getContextPath() + "/images/");
+    }
+
+    private void record(HttpServletRequest request, QueryCounter.Scope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("toolrent.http.queries")
+                .description("Sentencias SQL ejecutadas por petición")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(scope.statements());
+        Timer.builder("toolrent.http.db")
+                .description("Tiempo de base de datos por petición")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(scope.nanos(), TimeUnit.NANOSECONDS);
+
+        Map.Entry<String, Integer> repeated = scope.mostRepeated();
+        if (repeated != null && repeated.getValue() >= nPlusOneThreshold) {
+            logger.warn("Posible N+1 en {} {}: {} ejecuciones de {}", method, uri, repeated.getValue(), repeated.getKey());
+        } else if (scope.statements() >= warnThreshold) {
+            logger.warn("{} {} ejecutó {} sentencias SQL", method, uri, scope.statements());
+        }
+    }
+
+    static String serverTiming(QueryCounter.Scope scope) {
+        return String.format(Locale.ROOT, "db;desc=\"%d queries\";dur=%.1f", scope.statements(), scope.millis());
+    }
+
+    // Los headers solo se pueden agregar antes del commit, así que Server-Timing se escribe justo cuando empieza
+    // el cuerpo; lo que se consulte durante la serialización queda en las métricas pero no en el header.
+    private static final class ServerTimingResponse extends HttpServletResponseWrapper {
+
+        private final QueryCounter.Scope scope;
+
+        private boolean written;
+
+        ServerTimingResponse(HttpServletResponse response, QueryCounter.Scope scope) {
+            super(response);
+            this.scope = scope;
+        }
+
+        private void writeServerTiming() {
+            if (!written && !isCommitted()) {
+                written = true;
+                addHeader("Server-Timing", serverTiming(scope));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeServerTiming();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.config;
+
+import com.example.demo.Services.RateLimitService;
+import com.example.demo.Services.RateLimitService.Budget;
+import com.example.demo.Services.RateLimitService.Decision;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Rate limit de las lecturas anónimas del catálogo (las rutas permitAll de SecurityConfig que cargan tablas completas).
+ * El cliente se identifica por API key conocida (header X-API-Key) o por IP. Las respuestas llevan
+ * RateLimit-Limit / RateLimit-Remaining / RateLimit-Reset / RateLimit-Policy y, al exceder, 429 con Retry-After.
+ * Va antes del límite de concurrencia para que un scraper no llegue a ocupar lugares.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitService rateLimitService;
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+
+    private final boolean trustForwardedFor;
+
+    @Autowired
+    public RateLimitFilter(ObjectProvider<RateLimitService> rateLimitService,
+                           ObjectProvider<MeterRegistry> meterRegistry,
+                           @Value("${ratelimit.enabled:true}") boolean enabled,
+                           @Value("${ratelimit.trust-forwarded-for:true}") boolean trustForwardedFor) {
+        // en los tests de slice (@WebMvcTest) el servicio no se crea y el filtro queda inactivo
+        this.rateLimitService = rateLimitService.getIfAvailable();
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.enabled = enabled;
+        this.trustForwardedFor = trustForwardedFor;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || rateLimitService == null
+                || hasBearerToken(request)
+                || !(HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod()));
+    }
+
+    /**
+     * Las peticiones con Bearer las valida el resource server y un token inválido recibe 401 aunque la ruta sea
+     * permitAll. Cualquier otro Authorization (Basic, basura) lo ignora Spring Security y la petición sigue como
+     * anónima, así que no puede saltarse el límite.
+     */
+    static boolean hasBearerToken(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Budget budget = rateLimitService.budgetFor(path.startsWith("/api/") ? path.substring(4) : path);
+        if (budget == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Decision decision = rateLimitService.tryConsume(budget, clientKey(request));
+        response.setHeader("RateLimit-Limit", Long.toString(decision.limit()));
+        response.setHeader("RateLimit-Remaining", Long.toString(decision.remaining()));
+        response.setHeader("RateLimit-Reset", Long.toString(decision.resetSeconds()));
+        response.setHeader("RateLimit-Policy", decision.policy());
+        if (decision.allowed()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Counter.builder("toolrent.ratelimit.rejected")
+                .description("Peticiones anónimas rechazadas con 429")
+                .tag("route", budget.prefix())
+                .register(meterRegistry)
+                .increment();
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(decision.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"Demasiadas solicitudes, intenta nuevamente más tarde\"}");
+    }
+
+    String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader("X-API-Key");
+        if (rateLimitService.isKnownApiKey(apiKey)) {
+            return "key:" + apiKey;
+        }
+        if (trustForwardedFor) {
+            // el ingress agrega la IP real al final; lo anterior lo puede inventar el cliente
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                String[] hops = forwarded.split(",");
+                return "ip:" + hops[hops.length - 1].trim();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
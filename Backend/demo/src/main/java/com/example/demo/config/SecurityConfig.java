@@ -57,7 +57,14 @@ public class SecurityConfig {
             // tool states visible para cualquiera (for inventory status display)
             .requestMatchers("/tool-states/**").permitAll()
             .requestMatchers("/api/tool-states/**").permitAll()
+            // sincronización incremental del catálogo (mismos datos públicos que arriba)
+            .requestMatchers(org.springframework.http.HttpMethod.GET, "/sync/**", "/sync").permitAll()
+            .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/sync/**", "/api/sync").permitAll()
             .requestMatchers("/images/**").permitAll()
+            // métricas y probes; el ingress solo enruta /api/** e /images, así que no quedan expuestos afuera
+            .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+            // /actuator/startup (línea de tiempo del arranque), /actuator/jfr (grabaciones JFR) y el resto solo para administradores
+            .requestMatchers("/actuator/**").hasRole("ADMIN")
             .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 ->
@@ -0,0 +1,53 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mide cada método público de los servicios de com.example.demo.Services con el timer toolrent.service.
+ * Los tags son de baja cardinalidad: servicio, operación (nombre del método), outcome y clase de la excepción.
+ * Los buckets SLO y el histograma de percentiles se configuran en application.properties.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    public static final String TIMER_NAME = "toolrent.service";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.example.demo.Services..*.*(..))"
+            + " && !within(com.example.demo.Services.BusinessMetricsService)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "SUCCESS";
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            outcome = "ERROR";
+            exception = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder(TIMER_NAME)
+                    .description("Duración de las operaciones de negocio")
+                    .tags(Tags.of(
+                            "service", joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                            "operation", joinPoint.getSignature().getName(),
+                            "outcome", outcome,
+                            "exception", exception))
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Al terminar el arranque registra en el log las fases más lentas y los beans que más tardaron en crearse, para poder
+ * comparar entre versiones sin llamar a /actuator/startup (que entrega la línea de tiempo completa).
+ */
+@Component
+public class StartupTimingReporter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimingReporter.class);
+
+    private static final int TOP = 10;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        String report = report(event);
+        if (report != null) {
+            logger.info("{}", report);
+        }
+    }
+
+    /**
+     * Resumen del arranque, o null si la aplicación no se inició con BufferingApplicationStartup.
+     */
+    public String report(ApplicationReadyEvent event) {
+        if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            return null;
+        }
+        List<StartupTimeline.TimelineEvent> events = startup.getBufferedTimeline().getEvents();
+        StringBuilder report = new StringBuilder("Arranque listo en ")
+                .append(event.getTimeTaken() != null ? event.getTimeTaken().toMillis() + " ms" : "?")
+                .append(" (").append(events.size()).append(" pasos registrados)\n");
+
+        report.append("Fases más lentas:\n");
+        events.stream()
+                .filter(e -> !"spring.beans.instantiate".equals(e.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(TOP)
+                .forEach(e -> line(report, e.getStartupStep().getName(), e.getDuration()));
+
+        report.append("Beans más lentos:\n");
+        events.stream()
+                .filter(e -> "spring.beans.instantiate".equals(e.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(TOP)
+                .forEach(e -> line(report, beanName(e.getStartupStep()), e.getDuration()));
+
+        return report.toString().stripTrailing();
+    }
+
+    private static void line(StringBuilder report, String name, Duration duration) {
+        report.append(String.format("  %6d ms  %s%n", duration.toMillis(), name));
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eventos propios de JDK Flight Recorder para las rutas calientes. Con JFR apagado, begin() y commit() no
+ * hacen nada; con una grabación activa (ver FlightRecordingEndpoint) aparecen en JDK Mission Control bajo
+ * la categoría "ToolRent", cada uno con su duración.
+ * Solo se registran los pasos que terminan bien: una excepción deja el evento sin commit.
+ */
+public final class ToolRentEvents {
+
+    private ToolRentEvents() {
+    }
+
+    @Name("com.example.demo.InventoryTransfer")
+    @Label("Movimiento de inventario")
+    @Category({"ToolRent", "Inventario"})
+    @StackTrace(false)
+    public static class InventoryTransfer extends Event {
+
+        @Label("Herramienta")
+        public long toolId;
+
+        @Label("Estado origen")
+        public String fromState;
+
+        @Label("Estado destino")
+        public String toState;
+
+        @Label("Cantidad")
+        public int quantity;
+
+        public static InventoryTransfer begin(Long toolId, String fromState, String toState, int quantity) {
+            InventoryTransfer event = new InventoryTransfer();
+            event.begin();
+            event.toolId = toolId != null ? toolId : -1;
+            event.fromState = fromState;
+            event.toState = toState;
+            event.quantity = quantity;
+            return event;
+        }
+    }
+
+    @Name("com.example.demo.KardexAppend")
+    @Label("Registro en kardex")
+    @Category({"ToolRent", "Kardex"})
+    @StackTrace(false)
+    public static class KardexAppend extends Event {
+
+        @Label("Herramienta")
+        public long toolId;
+
+        @Label("Tipo")
+        public String type;
+
+        @Label("Cantidad")
+        public int quantity;
+
+        public static KardexAppend begin(Long toolId, String type, int quantity) {
+            KardexAppend event = new KardexAppend();
+            event.begin();
+            event.toolId = toolId != null ? toolId : -1;
+            event.type = type;
+            event.quantity = quantity;
+            return event;
+        }
+    }
+
+    @Name("com.example.demo.KeycloakCall")
+    @Label("Llamada a Keycloak")
+    @Description("Incluye la espera por el límite de llamadas simultáneas")
+    @Category({"ToolRent", "Keycloak"})
+    @StackTrace(false)
+    public static class KeycloakCall extends Event {
+
+        @Label("Método")
+        public String method;
+
+        @Label("Ruta")
+        public String path;
+
+        @Label("Estado HTTP")
+        public int status;
+
+        @Label("Error")
+        public String error;
+    }
+
+    @Name("com.example.demo.LoanStep")
+    @Label("Paso de préstamo")
+    @Category({"ToolRent", "Préstamos"})
+    @StackTrace(false)
+    public static class LoanStep extends Event {
+
+        @Label("Paso")
+        public String step;
+
+        @Label("Pedido")
+        public long loanId;
+
+        @Label("Detalle de pedido")
+        public long loanXToolId;
+
+        @Label("Herramientas")
+        public int tools;
+
+        public static LoanStep begin(String step, Long loanId, Long loanXToolId) {
+            LoanStep event = new LoanStep();
+            event.begin();
+            event.step = step;
+            event.loanId = loanId != null ? loanId : -1;
+            event.loanXToolId = loanXToolId != null ? loanXToolId : -1;
+            event.tools = 1;
+            return event;
+        }
+
+        public void setLoan(Long loanId) {
+            this.loanId = loanId != null ? loanId : -1;
+        }
+    }
+}
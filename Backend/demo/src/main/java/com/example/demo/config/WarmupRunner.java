@@ -0,0 +1,265 @@
+package com.example.demo.config;
+
+import com.example.demo.Entities.CategoryEntity;
+import com.example.demo.Entities.ToolStateEntity;
+import com.example.demo.Services.CategoryService;
+import com.example.demo.Services.InventoryService;
+import com.example.demo.Services.KardexService;
+import com.example.demo.Services.LoanService;
+import com.example.demo.Services.RequestCoalescingService;
+import com.example.demo.Services.ToolService;
+import com.example.demo.Services.ToolStateService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Calienta el pod antes de recibir tráfico: carga los datos de referencia (herramientas, categorías y
+ * estados), calcula el ranking del mes y recorre varias veces las lecturas más usadas (filtro de inventario,
+ * páginas de herramientas y préstamos con EntityMapper, serialización JSON) para que el JIT las compile.
+ * Spring Boot publica ReadinessState.ACCEPTING_TRAFFIC recién cuando terminan los ApplicationRunner, así
+ * que /actuator/health/readiness sigue en OUT_OF_SERVICE hasta que el calentamiento acaba o vence el plazo.
+ * Los tiempos quedan en /actuator/info (clave "warmup") y en el timer toolrent.warmup{step}.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class WarmupRunner implements ApplicationRunner, InfoContributor {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+
+    public static final String TIMER_NAME = "toolrent.warmup";
+
+    public enum State { PENDING, RUNNING, DONE, TIMEOUT, DISABLED }
+
+    private final ToolService toolService;
+
+    private final CategoryService categoryService;
+
+    private final ToolStateService toolStateService;
+
+    private final InventoryService inventoryService;
+
+    private final KardexService kardexService;
+
+    private final LoanService loanService;
+
+    private final RequestCoalescingService requestCoalescingService;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+
+    private final int iterations;
+
+    private final Duration deadline;
+
+    private final Map<String, StepTiming> steps = new LinkedHashMap<>();
+
+    private volatile State state = State.PENDING;
+
+    private volatile long totalMillis = -1;
+
+    @Autowired
+    public WarmupRunner(ToolService toolService,
+                        CategoryService categoryService,
+                        ToolStateService toolStateService,
+                        InventoryService inventoryService,
+                        KardexService kardexService,
+                        LoanService loanService,
+                        RequestCoalescingService requestCoalescingService,
+                        ObjectMapper objectMapper,
+                        ObjectProvider<MeterRegistry> meterRegistryProvider,
+                        @Value("${warmup.enabled:true}") boolean enabled,
+                        @Value("${warmup.iterations:20}") int iterations,
+                        @Value("${warmup.deadline:PT30S}") Duration deadline) {
+        this.toolService = toolService;
+        this.categoryService = categoryService;
+        this.toolStateService = toolStateService;
+        this.inventoryService = inventoryService;
+        this.kardexService = kardexService;
+        this.loanService = loanService;
+        this.requestCoalescingService = requestCoalescingService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        this.enabled = enabled;
+        this.iterations = Math.max(1, iterations);
+        this.deadline = deadline;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            state = State.DISABLED;
+            return;
+        }
+        state = State.RUNNING;
+        long start = System.nanoTime();
+        // Corre en otro hilo para poder abandonarlo al vencer el plazo sin retrasar más la readiness
+        ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("warmup").factory());
+        Future<?> future = executor.submit(this::warmUp);
+        try {
+            future.get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+            state = State.DONE;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            state = State.TIMEOUT;
+            logger.warn("Calentamiento sin terminar tras {} ms; el pod se marca listo igualmente", deadline.toMillis());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            state = State.TIMEOUT;
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Cada paso ya captura sus errores; esto solo pasa ante un fallo inesperado del propio runner
+            state = State.DONE;
+            logger.warn("Calentamiento interrumpido", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Calentamiento {} en {} ms: {}", state, totalMillis, snapshot());
+    }
+
+    void warmUp() {
+        List<ToolStateEntity> states = step("reference-data", () -> toolStateService.getAllStates());
+        List<CategoryEntity> categories = step("reference-data", () -> categoryService.getAllCategories());
+        step("reference-data", () -> toolService.getAllTools());
+        step("ranking", () -> serialize(kardexService.getRankingTools()));
+
+        for (int i = 0; i < iterations && !Thread.currentThread().isInterrupted(); i++) {
+            // Las claves de coalescencia se repiten entre vueltas (hay pocas páginas y estados): se vacía la caché
+            // para que cada vuelta ejecute el cálculo real. Los filtros igual se varían para recorrer más caminos
+            requestCoalescingService.invalidateAll();
+            String stateName = pick(states, i) != null ? pick(states, i).getState() : null;
+            String categoryName = pick(categories, i) != null ? pick(categories, i).getName() : null;
+            int sort = i % 4;
+            int page = i % 3;
+            step("inventory-filter", () -> serialize(inventoryService.filterInventory(
+                    stateName, categoryName, null, null, null, sort == 1, sort == 2, sort == 3, null)));
+            step("tools-page", () -> serialize(categoryName != null
+                    ? toolService.getToolsByCategoryPaginated(categoryName, page, 20)
+                    : toolService.getAllToolsPaginated(page, 20)));
+            step("loans-page", () -> serialize(loanService.getAllLoansPaginated(page, 20)));
+        }
+    }
+
+    private <T> T step(String name, StepAction<T> action) {
+        long start = System.nanoTime();
+        boolean failed = false;
+        T result = null;
+        try {
+            result = action.run();
+        } catch (Exception e) {
+            failed = true;
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            logger.warn("Paso de calentamiento {} falló: {}", name, e.getMessage());
+        }
+        long nanos = System.nanoTime() - start;
+        synchronized (steps) {
+            steps.computeIfAbsent(name, n -> new StepTiming()).record(nanos, failed);
+        }
+        Timer.builder(TIMER_NAME).tag("step", name).register(meterRegistry).record(nanos, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private Object serialize(Object value) throws Exception {
+        // Calienta también los serializadores de Jackson que usan los controladores
+        objectMapper.writeValueAsBytes(value);
+        return value;
+    }
+
+    private static <T> T pick(List<T> values, int i) {
+        return values == null || values.isEmpty() ? null : values.get(i % values.size());
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Por paso: vueltas, errores, tiempo total y el de la primera y la última vuelta (la diferencia es lo
+     * que ganó el JIT).
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("state", state.name());
+        result.put("totalMs", totalMillis);
+        Map<String, Object> stepDetails = new LinkedHashMap<>();
+        synchronized (steps) {
+            steps.forEach((name, timing) -> stepDetails.put(name, timing.toMap()));
+        }
+        result.put("steps", stepDetails);
+        return result;
+    }
+
+    @Override
+    public void contribute(Info.Builder builder) {
+        builder.withDetail("warmup", snapshot());
+    }
+
+    @FunctionalInterface
+    private interface StepAction<T> {
+        T run() throws Exception;
+    }
+
+    private static final class StepTiming {
+        private int runs;
+        private int errors;
+        private long totalNanos;
+        private long firstNanos = -1;
+        private long lastNanos;
+
+        void record(long nanos, boolean failed) {
+            runs++;
+            if (failed) {
+                errors++;
+            }
+            totalNanos += nanos;
+            if (firstNanos < 0) {
+                firstNanos = nanos;
+            }
+            lastNanos = nanos;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("runs", runs);
+            map.put("errors", errors);
+            map.put("totalMs", millis(totalNanos));
+            map.put("firstMs", millis(firstNanos));
+            map.put("lastMs", millis(lastNanos));
+            return map;
+        }
+
+        private static double millis(long nanos) {
+            return Math.round(nanos / 10_000.0) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.ConfigTest;
+
+import com.example.demo.config.AdaptiveConcurrencyLimiter;
+import com.example.demo.config.AdaptiveConcurrencyLimiter.Partition;
+import com.example.demo.config.AdaptiveConcurrencyLimiter.RouteClass;
+import com.example.demo.config.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimitFilterTest {
+
+    private static final long MS = 1_000_000L;
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(Map.of(
+                RouteClass.STAFF, new Partition(0.6, 1000 * MS),
+                RouteClass.AUTH, new Partition(0.25, 2000 * MS),
+                RouteClass.PUBLIC_READ, new Partition(0.15, 250 * MS)), initialLimit, 2, 100, 0.5, 0);
+    }
+
+    @Test
+    public void testStaffKeepsItsShareWhenPublicReadsSaturate() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire(RouteClass.PUBLIC_READ));
+        }
+        assertFalse(limiter.tryAcquire(RouteClass.PUBLIC_READ));
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(limiter.tryAcquire(RouteClass.STAFF));
+        }
+        assertFalse(limiter.tryAcquire(RouteClass.STAFF));
+        assertEquals(16, limiter.getInFlight());
+    }
+
+    @Test
+    public void testLimitShrinksOnSlowResponsesAndGrowsWhenBusy() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        assertTrue(limiter.tryAcquire(RouteClass.PUBLIC_READ));
+        limiter.release(RouteClass.PUBLIC_READ, 500 * MS);
+        assertEquals(5, limiter.getLimit());
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(RouteClass.STAFF));
+        }
+        limiter.release(RouteClass.STAFF, 10 * MS);
+        assertEquals(6, limiter.getLimit());
+
+        // con poco uso no crece
+        for (int i = 0; i < 4; i++) {
+            limiter.release(RouteClass.STAFF, 10 * MS);
+        }
+        assertEquals(7, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testClassify() {
+        assertEquals(RouteClass.AUTH, ConcurrencyLimitFilter.classify(new MockHttpServletRequest("POST", "/api/auth/login")));
+        assertEquals(RouteClass.PUBLIC_READ, ConcurrencyLimitFilter.classify(new MockHttpServletRequest("GET", "/inventory/filter")));
+        assertEquals(RouteClass.PUBLIC_READ, ConcurrencyLimitFilter.classify(new MockHttpServletRequest("GET", "/api/tool/1")));
+        assertEquals(RouteClass.STAFF, ConcurrencyLimitFilter.classify(new MockHttpServletRequest("POST", "/tool/")));
+        assertEquals(RouteClass.STAFF, ConcurrencyLimitFilter.classify(
+                new MockHttpServletRequest("POST", "/loantool/receive/all/loan/1/user/2")));
+        assertEquals(RouteClass.STAFF, ConcurrencyLimitFilter.classify(new MockHttpServletRequest("GET", "/loan/1")));
+    }
+
+    @Test
+    public void testRejectsWith503AndRetryAfter() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry));
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(beanFactory.getBeanProvider(MeterRegistry.class), true,
+                1, 1, 10, 0.9, Duration.ofMillis(100), 2, 0.6, Duration.ofSeconds(1), 0.25, Duration.ofSeconds(2),
+                0.15, Duration.ofMillis(250));
+        assertTrue(filter.getLimiter().tryAcquire(RouteClass.PUBLIC_READ));
+
+        AtomicBoolean called = new AtomicBoolean();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/inventory/filter"), response, (req, res) -> called.set(true));
+
+        assertFalse(called.get());
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertEquals(1.0, meterRegistry.get("toolrent.concurrency.rejected").tag("class", "public-read").counter().count());
+
+        MockHttpServletResponse staffResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/loantool/give/all/user/2"), staffResponse, (req, res) -> called.set(true));
+        assertTrue(called.get());
+        assertEquals(200, staffResponse.getStatus());
+        assertEquals(1, filter.getLimiter().getInFlight());
+    }
+}
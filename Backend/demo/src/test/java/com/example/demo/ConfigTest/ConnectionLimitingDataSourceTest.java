@@ -0,0 +1,75 @@
+package com.example.demo.ConfigTest;
+
+import com.example.demo.config.ConnectionLimitingDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ConnectionLimitingDataSourceTest {
+
+    private DataSource target;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+    }
+
+    @Test
+    public void testPermitReturnedOnClose() throws SQLException {
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 10, 50);
+
+        Connection first = dataSource.getConnection();
+        assertEquals(0, dataSource.getAvailablePermits());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        first.close();
+        assertEquals(1, dataSource.getAvailablePermits());
+
+        try (Connection second = dataSource.getConnection()) {
+            assertNotNull(second);
+        }
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    public void testPermitReturnedWhenTargetFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("sin conexión"));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 2, 10, 50);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    public void testRejectsImmediatelyWhenTooManyWaiting() throws Exception {
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 1, 5_000);
+        Connection held = dataSource.getConnection();
+
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try (Connection ignored = dataSource.getConnection()) {
+                // espera hasta que se libere held
+            } catch (SQLException ignored) {
+            }
+        });
+        while (dataSource.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+
+        held.close();
+        waiter.join();
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+}
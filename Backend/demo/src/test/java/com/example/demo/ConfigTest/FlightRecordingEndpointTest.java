@@ -0,0 +1,70 @@
+package com.example.demo.ConfigTest;
+
+import com.example.demo.config.FlightRecordingEndpoint;
+import com.example.demo.config.ToolRentEvents.InventoryTransfer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightRecordingEndpointTest {
+
+    private final FlightRecordingEndpoint endpoint =
+            new FlightRecordingEndpoint(16, Duration.ofMinutes(5), Duration.ofMinutes(10));
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if ("RUNNING".equals(endpoint.status().get("state"))) {
+            endpoint.control("stop", null, null);
+        }
+    }
+
+    @Test
+    public void testRecordsCustomEventsAndDumps() throws Exception {
+        assertEquals("NONE", endpoint.status().get("state"));
+
+        Map<String, Object> started = endpoint.control("start", "default", 60L);
+        assertEquals("RUNNING", started.get("state"));
+        assertEquals(Duration.ofSeconds(60), started.get("duration"));
+
+        InventoryTransfer event = InventoryTransfer.begin(7L, "DISPONIBLE", "PRESTADA", 1);
+        event.commit();
+
+        assertEquals("STOPPED", endpoint.control("stop", null, null).get("state"));
+
+        WebEndpointResponse<Resource> dump = endpoint.dump("dump");
+        assertEquals(200, dump.getStatus());
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump.getBody().getFile().toPath());
+        RecordedEvent transfer = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.demo.InventoryTransfer"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(7L, transfer.getLong("toolId"));
+        assertEquals("PRESTADA", transfer.getString("toState"));
+    }
+
+    @Test
+    public void testDurationIsCappedAndInputValidated() throws Exception {
+        Map<String, Object> started = endpoint.control("start", null, 86_400L);
+        assertEquals(Duration.ofMinutes(10), started.get("duration"));
+        assertEquals(16L * 1024 * 1024, started.get("maxSizeBytes"));
+
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("start", "todo", null));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("pause", null, null));
+    }
+
+    @Test
+    public void testDumpWithoutRecording() throws Exception {
+        assertEquals(404, endpoint.dump("dump").getStatus());
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("stop", null, null));
+    }
+}
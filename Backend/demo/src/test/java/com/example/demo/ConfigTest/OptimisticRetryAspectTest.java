@@ -0,0 +1,127 @@
+package com.example.demo.ConfigTest;
+
+import com.example.demo.Entities.InventoryEntity;
+import com.example.demo.Entities.LoanEntity;
+import com.example.demo.Services.InventoryService;
+import com.example.demo.config.OptimisticRetryAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class OptimisticRetryAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private InventoryService target;
+
+    private InventoryService proxy;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = mock(InventoryService.class);
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new OptimisticRetryAspect(
+                new StaticListableBeanFactory(Map.of("registry", meterRegistry)).getBeanProvider(MeterRegistry.class),
+                3, Duration.ofMillis(1), Duration.ofMillis(5)));
+        proxy = factory.getProxy();
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict(Class<?> entity) {
+        return new ObjectOptimisticLockingFailureException(entity, 1L);
+    }
+
+    @Test
+    public void testRetriesUntilTheTransactionCommits() {
+        doThrow(conflict(InventoryEntity.class))
+                .doThrow(conflict(InventoryEntity.class))
+                .doNothing()
+                .when(target).loanTool(1L);
+
+        proxy.loanTool(1L);
+
+        verify(target, times(3)).loanTool(1L);
+        assertEquals(2, meterRegistry.get(OptimisticRetryAspect.CONFLICTS)
+                .tags("entity", "InventoryEntity", "operation", "InventoryService.loanTool").counter().count());
+        assertEquals(1, meterRegistry.get(OptimisticRetryAspect.RETRIES)
+                .tags("outcome", "RECOVERED").counter().count());
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() {
+        // El servicio envuelve el choque en su propia RuntimeException; se reconoce por la causa
+        RuntimeException wrapped = new RuntimeException("No se pudo cerrar el pedido", conflict(LoanEntity.class));
+        doThrow(wrapped).when(target).receiveTool(1L, "DISPONIBLE");
+
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> proxy.receiveTool(1L, "DISPONIBLE"));
+
+        assertSame(wrapped, thrown);
+        verify(target, times(3)).receiveTool(1L, "DISPONIBLE");
+        assertEquals(3, meterRegistry.get(OptimisticRetryAspect.CONFLICTS)
+                .tags("entity", "LoanEntity").counter().count());
+        assertEquals(1, meterRegistry.get(OptimisticRetryAspect.RETRIES)
+                .tags("outcome", "EXHAUSTED").counter().count());
+    }
+
+    @Test
+    public void testDeadlockVictimIsRetriedAndCounted() {
+        SQLException deadlock = new SQLException("deadlock detected", "40P01");
+        doThrow(new CannotAcquireLockException("could not execute statement", deadlock))
+                .doNothing()
+                .when(target).loanTool(2L);
+
+        proxy.loanTool(2L);
+
+        verify(target, times(2)).loanTool(2L);
+        assertEquals(1, meterRegistry.get(OptimisticRetryAspect.DEADLOCKS)
+                .tags("operation", "InventoryService.loanTool", "sqlstate", "40P01").counter().count());
+        assertNull(meterRegistry.find(OptimisticRetryAspect.CONFLICTS).counter());
+    }
+
+    @Test
+    public void testOtherErrorsAreNotRetried() {
+        doThrow(new RuntimeException("La cantidad debe ser mayor que cero."))
+                .when(target).addStockToTool(1L, 0, null);
+
+        assertThrows(RuntimeException.class, () -> proxy.addStockToTool(1L, 0, null));
+
+        verify(target, times(1)).addStockToTool(1L, 0, null);
+        assertNull(meterRegistry.find(OptimisticRetryAspect.CONFLICTS).counter());
+    }
+
+    @Test
+    public void testInnerTransactionLeavesTheRetryToTheOuterCall() {
+        doThrow(conflict(InventoryEntity.class)).when(target).repairTool(1L);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(ObjectOptimisticLockingFailureException.class, () -> proxy.repairTool(1L));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        verify(target, times(1)).repairTool(1L);
+    }
+
+    @Test
+    public void testNonTransactionalMethodsAreNotRetried() {
+        when(target.getAllInventory()).thenThrow(conflict(InventoryEntity.class));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> proxy.getAllInventory());
+
+        verify(target, times(1)).getAllInventory();
+    }
+}
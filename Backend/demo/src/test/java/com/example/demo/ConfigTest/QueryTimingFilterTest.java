@@ -0,0 +1,112 @@
+package com.example.demo.ConfigTest;
+
+import com.example.demo.config.QueryCounter;
+import com.example.demo.config.QueryCountingDataSourcePostProcessor;
+import com.example.demo.config.QueryTimingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class QueryTimingFilterTest {
+
+    private DataSource dataSource;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private QueryTimingFilter filter;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        Statement statement = mock(Statement.class);
+        when(statement.execute(anyString())).thenReturn(true);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource raw = mock(DataSource.class);
+        when(raw.getConnection()).thenReturn(connection);
+
+        dataSource = (DataSource) new QueryCountingDataSourcePostProcessor().postProcessAfterInitialization(raw, "dataSource");
+
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry));
+        filter = new QueryTimingFilter(beanFactory.getBeanProvider(MeterRegistry.class), 3, 50);
+    }
+
+    private void execute(String sql, int times) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (int i = 0; i < times; i++) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    @Test
+    public void testStatementsAreCountedInsideScope() throws SQLException {
+        execute("select 1", 2);
+
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            execute("select * from tool where id = ?", 4);
+            execute("select * from categories", 1);
+
+            assertEquals(5, scope.statements());
+            assertEquals("select * from tool where id = ?", scope.mostRepeated().getKey());
+            assertEquals(4, scope.mostRepeated().getValue());
+        }
+    }
+
+    @Test
+    public void testFilterWritesServerTimingAndMetrics() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/inventory/filter");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            try {
+                execute("select * from inventory", 2);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/inventory/filter");
+            res.getWriter().write("[]");
+        });
+
+        assertTrue(response.getHeader("Server-Timing").startsWith("db;desc=\"2 queries\";dur="));
+        assertEquals(2.0, meterRegistry.get("toolrent.http.queries").tag("uri", "/inventory/filter").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("toolrent.http.db").tag("uri", "/inventory/filter").timer().count());
+    }
+
+    @Test
+    public void testServerTimingOnEmptyResponse() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/tool/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> ((jakarta.servlet.http.HttpServletResponse) res).setStatus(204));
+
+        assertEquals("db;desc=\"0 queries\";dur=0.0", response.getHeader("Server-Timing"));
+        assertEquals(1, meterRegistry.get("toolrent.http.queries").tag("uri", "UNKNOWN").summary().count());
+    }
+
+    @Test
+    public void testImagesAreNotFiltered() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images/a.png");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> { });
+
+        assertNull(response.getHeader("Server-Timing"));
+    }
+}
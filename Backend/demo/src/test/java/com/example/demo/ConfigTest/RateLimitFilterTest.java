@@ -0,0 +1,96 @@
+package com.example.demo.ConfigTest;
+
+import com.example.demo.Repositories.RateLimitBucketRepository;
+import com.example.demo.Services.RateLimitService;
+import com.example.demo.config.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private final AtomicInteger served = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        RateLimitService service = new RateLimitService(mock(RateLimitBucketRepository.class), meterRegistry,
+                "/kardex/ranking=2/0.01", "", 10, "memory", 100);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of(
+                "rateLimitService", service, "meterRegistry", meterRegistry));
+        filter = new RateLimitFilter(beanFactory.getBeanProvider(RateLimitService.class),
+                beanFactory.getBeanProvider(MeterRegistry.class), true, true);
+    }
+
+    private MockHttpServletResponse get(String path, String forwardedFor) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> served.incrementAndGet());
+        return response;
+    }
+
+    @Test
+    public void testRejectsWith429AndHeaders() throws Exception {
+        MockHttpServletResponse first = get("/api/kardex/ranking", "1.2.3.4");
+        assertEquals("2", first.getHeader("RateLimit-Limit"));
+        assertEquals("1", first.getHeader("RateLimit-Remaining"));
+        assertEquals("2;w=200", first.getHeader("RateLimit-Policy"));
+        get("/kardex/ranking", "1.2.3.4");
+
+        MockHttpServletResponse rejected = get("/kardex/ranking", "1.2.3.4");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("0", rejected.getHeader("RateLimit-Remaining"));
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertEquals(2, served.get());
+        assertEquals(1.0, meterRegistry.get("toolrent.ratelimit.rejected").counter().count());
+    }
+
+    @Test
+    public void testClientSpoofedForwardedForIsIgnored() throws Exception {
+        get("/kardex/ranking", "9.9.9.9, 1.2.3.4");
+        get("/kardex/ranking", "8.8.8.8, 1.2.3.4");
+        assertEquals(429, get("/kardex/ranking", "7.7.7.7, 1.2.3.4").getStatus());
+    }
+
+    @Test
+    public void testAuthenticatedAndUnlimitedRoutesPassThrough() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/kardex/ranking");
+            request.addHeader("Authorization", "Bearer token");
+            filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> served.incrementAndGet());
+            assertNull(get("/loan/1", null).getHeader("RateLimit-Limit"));
+        }
+        assertEquals(10, served.get());
+    }
+
+    @Test
+    public void testNonBearerAuthorizationIsStillLimited() throws Exception {
+        int status = 0;
+        for (String authorization : new String[]{"x", "Basic dXNlcjpwYXNz", "Bearertoken"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/kardex/ranking");
+            request.addHeader("Authorization", authorization);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, (req, res) -> served.incrementAndGet());
+            status = response.getStatus();
+        }
+        assertEquals(429, status);
+        assertEquals(2, served.get());
+    }
+}
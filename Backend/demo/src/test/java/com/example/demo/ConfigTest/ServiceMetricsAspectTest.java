@@ -0,0 +1,52 @@
+package com.example.demo.ConfigTest;
+
+import com.example.demo.Services.ChangeCounterService;
+import com.example.demo.Services.ChangeCounterService.Aggregate;
+import com.example.demo.config.ServiceMetricsAspect;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServiceMetricsAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ChangeCounterService proxy;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new ChangeCounterService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    public void testSuccessfulCallIsTimed() {
+        proxy.markChanged(Aggregate.TOOL);
+        proxy.markChanged(Aggregate.TOOL);
+
+        Timer timer = meterRegistry.find(ServiceMetricsAspect.TIMER_NAME)
+                .tags("service", "ChangeCounterService", "operation", "markChanged",
+                        "outcome", "SUCCESS", "exception", "none")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(2, timer.count());
+    }
+
+    @Test
+    public void testFailedCallIsTaggedWithException() {
+        assertThrows(NullPointerException.class, () -> proxy.getVersion(null));
+
+        Timer timer = meterRegistry.find(ServiceMetricsAspect.TIMER_NAME)
+                .tags("operation", "getVersion", "outcome", "ERROR", "exception", "NullPointerException")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.ConfigTest;
+
+import com.example.demo.config.StartupTimingReporter;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StartupTimingReporterTest {
+
+    @Test
+    public void testReportsPhasesAndBeans() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(100);
+        startup.startRecording();
+        StartupStep refresh = startup.start("spring.context.refresh");
+        StartupStep bean = startup.start("spring.beans.instantiate").tag("beanName", "inventoryService");
+        bean.end();
+        refresh.end();
+
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.setApplicationStartup(startup);
+
+        String report = new StartupTimingReporter().report(
+                new ApplicationReadyEvent(new SpringApplication(), new String[0], context, Duration.ofMillis(1234)));
+
+        assertTrue(report.startsWith("Arranque listo en 1234 ms (2 pasos registrados)"));
+        assertTrue(report.contains("spring.context.refresh"));
+        assertTrue(report.contains("inventoryService"));
+    }
+
+    @Test
+    public void testNoReportWithoutBufferedStartup() {
+        GenericApplicationContext context = new GenericApplicationContext();
+
+        assertNull(new StartupTimingReporter().report(
+                new ApplicationReadyEvent(new SpringApplication(), new String[0], context, Duration.ofMillis(1))));
+    }
+}
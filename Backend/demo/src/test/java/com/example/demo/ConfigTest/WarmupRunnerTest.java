@@ -0,0 +1,145 @@
+package com.example.demo.ConfigTest;
+
+import com.example.demo.Entities.CategoryEntity;
+import com.example.demo.Entities.ToolStateEntity;
+import com.example.demo.Services.CategoryService;
+import com.example.demo.Services.InventoryService;
+import com.example.demo.Services.KardexService;
+import com.example.demo.Services.LoanService;
+import com.example.demo.Services.RequestCoalescingService;
+import com.example.demo.Services.ToolService;
+import com.example.demo.Services.ToolStateService;
+import com.example.demo.config.WarmupRunner;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class WarmupRunnerTest {
+
+    @Mock
+    private ToolService toolService;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private ToolStateService toolStateService;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private KardexService kardexService;
+
+    @Mock
+    private LoanService loanService;
+
+    @Mock
+    private RequestCoalescingService requestCoalescingService;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new SimpleMeterRegistry();
+        ToolStateEntity available = new ToolStateEntity();
+        available.setState("DISPONIBLE");
+        CategoryEntity category = new CategoryEntity();
+        category.setName("Manuales");
+        when(toolStateService.getAllStates()).thenReturn(List.of(available));
+        when(categoryService.getAllCategories()).thenReturn(List.of(category));
+        when(toolService.getAllTools()).thenReturn(new ArrayList<>());
+        when(kardexService.getRankingTools()).thenReturn(List.of());
+        when(inventoryService.filterInventory(any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of());
+    }
+
+    private WarmupRunner runner(boolean enabled, int iterations, Duration deadline) {
+        return new WarmupRunner(toolService, categoryService, toolStateService, inventoryService, kardexService,
+                loanService, requestCoalescingService, new ObjectMapper(),
+                new StaticListableBeanFactory(Map.of("registry", registry)).getBeanProvider(MeterRegistry.class),
+                enabled, iterations, deadline);
+    }
+
+    @Test
+    public void testRunsEveryStepAndRecordsTimings() {
+        WarmupRunner runner = runner(true, 5, Duration.ofSeconds(10));
+
+        runner.run(new DefaultApplicationArguments());
+
+        assertEquals(WarmupRunner.State.DONE, runner.getState());
+        verify(kardexService, times(1)).getRankingTools();
+        verify(inventoryService, times(5)).filterInventory(any(), any(), any(), any(), any(), any(), any(), any(), any());
+        verify(toolService, times(5)).getToolsByCategoryPaginated(eq("Manuales"), anyInt(), eq(20));
+        verify(loanService, times(5)).getAllLoansPaginated(anyInt(), eq(20));
+        // Cada vuelta parte sin resultados coalescidos, así calcula de verdad
+        verify(requestCoalescingService, times(5)).invalidateAll();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> steps = (Map<String, Object>) runner.snapshot().get("steps");
+        assertEquals(Map.of("runs", 3, "errors", 0), subset(steps.get("reference-data")));
+        assertEquals(Map.of("runs", 5, "errors", 0), subset(steps.get("inventory-filter")));
+        assertEquals(5, registry.get(WarmupRunner.TIMER_NAME).tag("step", "loans-page").timer().count());
+    }
+
+    @Test
+    public void testFailingStepDoesNotStopWarmup() {
+        when(kardexService.getRankingTools()).thenThrow(new RuntimeException("sin datos"));
+        WarmupRunner runner = runner(true, 2, Duration.ofSeconds(10));
+
+        runner.run(new DefaultApplicationArguments());
+
+        assertEquals(WarmupRunner.State.DONE, runner.getState());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> steps = (Map<String, Object>) runner.snapshot().get("steps");
+        assertEquals(Map.of("runs", 1, "errors", 1), subset(steps.get("ranking")));
+        verify(inventoryService, times(2)).filterInventory(any(), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testDeadlineReleasesReadiness() {
+        when(toolStateService.getAllStates()).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return List.of();
+        });
+        WarmupRunner runner = runner(true, 5, Duration.ofMillis(100));
+
+        long start = System.nanoTime();
+        runner.run(new DefaultApplicationArguments());
+
+        assertEquals(WarmupRunner.State.TIMEOUT, runner.getState());
+        assertTrue(System.nanoTime() - start < 2_000_000_000L);
+    }
+
+    @Test
+    public void testDisabled() {
+        WarmupRunner runner = runner(false, 5, Duration.ofSeconds(10));
+
+        runner.run(new DefaultApplicationArguments());
+
+        assertEquals(WarmupRunner.State.DISABLED, runner.getState());
+        verifyNoInteractions(toolStateService, inventoryService, kardexService);
+    }
+
+    private static Map<String, Object> subset(Object step) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> map = (Map<String, Object>) step;
+        return Map.of("runs", map.get("runs"), "errors", map.get("errors"));
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.demo.ControllerTest;
+
+import com.example.demo.Config.ImageInitializer;
+import com.example.demo.Controllers.ImageController;
+import com.example.demo.Services.FileStorageService;
+import com.example.demo.Services.ImageServingService;
+import com.example.demo.Services.ImageVariantService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class ImageControllerTest {
+
+    private static final String HASH = "ab12" + "0".repeat(60);
+
+    @TempDir
+    Path tempDir;
+
+    private MockMvc mockMvc;
+
+    private ImageVariantService imageVariantService;
+
+    private ImageInitializer imageInitializer;
+
+    private byte[] content;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        FileStorageService fileStorageService = new FileStorageService(tempDir.toString());
+        imageVariantService = new ImageVariantService(fileStorageService, new int[]{16, 160}, 1, 10, false);
+        imageInitializer = new ImageInitializer();
+        ReflectionTestUtils.setField(imageInitializer, "imagesPathStr", tempDir.toString());
+        ReflectionTestUtils.setField(imageInitializer, "parallelism", 2);
+        ReflectionTestUtils.setField(imageInitializer, "imageVariantService", imageVariantService);
+        ImageServingService imageServingService = new ImageServingService(fileStorageService, imageVariantService, imageInitializer, 64, 1024);
+
+        ImageController controller = new ImageController();
+        ReflectionTestUtils.setField(controller, "imageServingService", imageServingService);
+        ReflectionTestUtils.setField(controller, "sendfileThreshold", 65536L);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        content = new byte[200];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Files.createDirectories(tempDir.resolve("ab/12"));
+        Files.write(tempDir.resolve("ab/12/" + HASH + ".png"), content);
+        Files.write(tempDir.resolve("legacy.png"), content);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        imageVariantService.shutdown();
+    }
+
+    @Test
+    public void testServeContentAddressed_IsImmutableWithStrongEtag() throws Exception {
+        MvcResult result = mockMvc.perform(get("/images/ab/12/" + HASH + ".png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + HASH + "\""))
+                .andExpect(header().string("Cache-Control", containsString("immutable")))
+                .andExpect(header().string("Content-Type", "image/png"))
+                .andReturn();
+
+        assertArrayEquals(content, result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    public void testServeLegacyName_IsNotImmutable() throws Exception {
+        mockMvc.perform(get("/images/legacy.png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=3600, public"));
+    }
+
+    @Test
+    public void testMissingVariant_OriginalIsNotImmutable() throws Exception {
+        mockMvc.perform(get("/images/ab/12/" + HASH + ".png").param("w", "16"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=3600, public"));
+
+        // Más ancho que cualquier variante: el original es la respuesta definitiva
+        mockMvc.perform(get("/images/ab/12/" + HASH + ".png").param("w", "4000"))
+                .andExpect(header().string("Cache-Control", containsString("immutable")));
+    }
+
+    @Test
+    public void testIfNoneMatch_ReturnsNotModified() throws Exception {
+        mockMvc.perform(get("/images/ab/12/" + HASH + ".png").header("If-None-Match", "\"" + HASH + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testRange_ReturnsPartialContent() throws Exception {
+        MvcResult result = mockMvc.perform(get("/images/legacy.png").header("Range", "bytes=10-19"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 10-19/200"))
+                .andReturn();
+
+        byte[] body = result.getResponse().getContentAsByteArray();
+        assertArrayEquals(java.util.Arrays.copyOfRange(content, 10, 20), body);
+    }
+
+    @Test
+    public void testRange_Unsatisfiable() throws Exception {
+        mockMvc.perform(get("/images/legacy.png").header("Range", "bytes=500-600"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */200"));
+    }
+
+    @Test
+    public void testPrecompressedVersion_IsNegotiated() throws Exception {
+        Files.write(tempDir.resolve("legacy.png.gz"), new byte[]{1, 2, 3});
+
+        mockMvc.perform(get("/images/legacy.png").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Length", "3"));
+    }
+
+    @Test
+    public void testWidthParameter_ServesVariant() throws Exception {
+        Path variant = imageVariantService.variantPath("legacy.png", 160);
+        Files.createDirectories(variant.getParent());
+        Files.write(variant, new byte[]{9, 9});
+
+        mockMvc.perform(get("/images/legacy.png").param("w", "100"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Length", "2"));
+    }
+
+    @Test
+    public void testHiddenAndMissingPaths_AreNotFound() throws Exception {
+        mockMvc.perform(get("/images/.tmp/upload.png")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/images/missing.png")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testSeeding_WritesManifestAndServesSeededImage() throws Exception {
+        imageInitializer.run();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (imageInitializer.isSeeding() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertTrue(Files.exists(tempDir.resolve(ImageInitializer.MANIFEST_FILE)));
+        assertTrue(Files.exists(tempDir.resolve("1771531179609_Pala.png")));
+        mockMvc.perform(get("/images/Pala.png")).andExpect(status().isOk());
+
+        // Con el manifiesto al día, el siguiente arranque no vuelve a copiar
+        Files.delete(tempDir.resolve("Pala.png"));
+        imageInitializer.run();
+        assertFalse(imageInitializer.isSeeding());
+        assertFalse(Files.exists(tempDir.resolve("Pala.png")));
+    }
+}
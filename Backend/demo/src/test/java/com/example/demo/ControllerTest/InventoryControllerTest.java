@@ -3,7 +3,11 @@ package com.example.demo.ControllerTest;
 import com.example.demo.Controllers.InventoryController;
 import com.example.demo.Entities.InventoryEntity;
 import com.example.demo.Entities.UserEntity;
+import com.example.demo.Services.ChangeCounterService;
+import com.example.demo.Services.InventoryHoldService;
+import com.example.demo.Services.InventoryHoldService.Hold;
 import com.example.demo.Services.InventoryService;
+import com.example.demo.Services.InventoryStreamService;
 import com.example.demo.Services.ToolService;
 import com.example.demo.Services.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,21 +17,28 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(InventoryController.class)
+@Import(ChangeCounterService.class)
 @AutoConfigureMockMvc(addFilters = false)
 @WithMockUser(username = "admin", roles = {"ADMIN", "SUPERADMIN"})
 public class InventoryControllerTest {
@@ -44,6 +55,12 @@ public class InventoryControllerTest {
     @MockBean
     private ToolService toolService;
 
+    @MockBean
+    private InventoryStreamService inventoryStreamService;
+
+    @MockBean
+    private InventoryHoldService inventoryHoldService;
+
     @MockBean
     private org.springframework.security.oauth2.jwt.JwtDecoder jwtDecoder;
 
@@ -75,6 +92,24 @@ public class InventoryControllerTest {
     }
 
     @Test
+    public void testGetAllInventory_NotModified() throws Exception {
+        when(inventoryService.getAllInventory()).thenReturn(new ArrayList<>());
+
+        String etag = mockMvc.perform(get("/inventory/"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Cache-Control"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        org.mockito.Mockito.reset(inventoryService);
+
+        mockMvc.perform(get("/inventory/").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(inventoryService, never()).getAllInventory();
+    }
+
+    @Test
+    @QueryBudget(max = 5)
     public void testFilterInventory() throws Exception {
         List<InventoryEntity> list = new ArrayList<>();
         list.add(inventory);
@@ -115,4 +150,31 @@ public class InventoryControllerTest {
                 .param("quantity", "5"))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    public void testPlaceHold() throws Exception {
+        when(userService.findUserById(1L)).thenReturn(user);
+        when(inventoryHoldService.placeHold(user, 5L, 2L, 2, Duration.ofSeconds(300)))
+                .thenReturn(new Hold(9L, 5L, 2L, 2, 1_700_000_000_000L));
+
+        mockMvc.perform(post("/inventory/holds/1")
+                .param("idTool", "5")
+                .param("idClient", "2")
+                .param("quantity", "2")
+                .param("ttlSeconds", "300"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(9))
+                .andExpect(jsonPath("$.quantity").value(2));
+
+        verify(userService).validateAdminOrEmployee(user);
+    }
+
+    @Test
+    public void testReleaseHold() throws Exception {
+        when(inventoryHoldService.release(9L)).thenReturn(true);
+
+        mockMvc.perform(delete("/inventory/holds/9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(true));
+    }
 }
@@ -0,0 +1,142 @@
+package com.example.demo.ControllerTest;
+
+import com.example.demo.Entities.CategoryEntity;
+import com.example.demo.Entities.InventoryEntity;
+import com.example.demo.Entities.ToolEntity;
+import com.example.demo.Entities.ToolStateEntity;
+import com.example.demo.Repositories.CategoryRepository;
+import com.example.demo.Repositories.InventoryRepository;
+import com.example.demo.Repositories.ToolRepository;
+import com.example.demo.Repositories.ToolStateRepository;
+import com.example.demo.Services.RequestCoalescingService;
+import com.example.demo.config.QueryCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.mockito.ArgumentCaptor;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @QueryBudget contra repositorios reales (H2): a diferencia de los @WebMvcTest con servicios simulados,
+ * aquí una consulta N+1 en el endpoint sí supera el presupuesto y hace fallar el test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+public class InventoryQueryBudgetTest {
+
+    private static final int TOOLS = 5;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ToolRepository toolRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ToolStateRepository toolStateRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private RequestCoalescingService requestCoalescingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String search;
+
+    @BeforeEach
+    public void setUp() {
+        // Nombres únicos por test: la base en memoria se comparte con los demás @SpringBootTest
+        search = "budget-" + UUID.randomUUID().toString().substring(0, 8);
+        ToolStateEntity available = toolStateRepository.findByState("DISPONIBLE");
+        if (available == null) {
+            available = toolStateRepository.save(new ToolStateEntity(null, "DISPONIBLE", null));
+        }
+        CategoryEntity[] categories = {
+                categoryRepository.save(new CategoryEntity(null, "Eléctricas " + search, null)),
+                categoryRepository.save(new CategoryEntity(null, "Manuales " + search, null))
+        };
+        for (int t = 0; t < TOOLS; t++) {
+            ToolEntity tool = new ToolEntity();
+            tool.setToolName("Taladro " + search + " " + t);
+            tool.setPriceRent(1000 + t);
+            tool.setCategory(categories[t % categories.length]);
+            tool = toolRepository.save(tool);
+            inventoryRepository.save(new InventoryEntity(null, tool, available, 3, null, 0));
+        }
+        // Que el filtro se calcule de verdad y no salga de la caché de coalescencia
+        requestCoalescingService.invalidateAll();
+    }
+
+    @Test
+    @QueryBudget(max = 2)
+    public void testFilterInventory_LoadsRelationsInOneQuery() throws Exception {
+        mockMvc.perform(get("/inventory/filter")
+                        .param("state", "DISPONIBLE")
+                        .param("search", search))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(TOOLS))
+                .andExpect(jsonPath("$[0].idTool.category.name").exists());
+    }
+
+    @Test
+    @QueryBudget(max = 2)
+    public void testFilterInventory_SortedByPriceStaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/inventory/filter")
+                        .param("asc", "true")
+                        .param("search", search))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(TOOLS));
+    }
+
+    @Test
+    public void testQueryBudgetExtension_FailsWhenBudgetIsExceeded() throws Exception {
+        ExtensionContext context = mock(ExtensionContext.class);
+        ExtensionContext.Store store = mock(ExtensionContext.Store.class);
+        when(context.getStore(any())).thenReturn(store);
+        when(context.getRequiredTestMethod()).thenReturn(getClass().getDeclaredMethod("budgetOfOne"));
+        QueryBudgetExtension extension = new QueryBudgetExtension();
+
+        extension.beforeTestExecution(context);
+        ArgumentCaptor<Object> scope = ArgumentCaptor.forClass(Object.class);
+        verify(store).put(eq("scope"), scope.capture());
+        when(store.remove("scope", QueryCounter.Scope.class)).thenReturn((QueryCounter.Scope) scope.getValue());
+
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tool", Long.class);
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tool", Long.class);
+
+        AssertionFailedError error = assertThrows(AssertionFailedError.class,
+                () -> extension.afterTestExecution(context));
+        assertTrue(error.getMessage().contains("Se ejecutaron 2 sentencias SQL (presupuesto 1)"));
+    }
+
+    // Solo aporta la anotación que lee la extensión en el test anterior
+    @QueryBudget(max = 1)
+    void budgetOfOne() {
+    }
+}
@@ -2,6 +2,7 @@ package com.example.demo.ControllerTest;
 
 import com.example.demo.Controllers.KardexController;
 import com.example.demo.Entities.KardexEntity;
+import com.example.demo.Services.ChangeCounterService;
 import com.example.demo.Services.KardexService;
 import com.example.demo.Services.ToolService;
 import com.example.demo.Services.UserService;
@@ -12,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -28,6 +30,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(KardexController.class)
+@Import(ChangeCounterService.class)
 @AutoConfigureMockMvc(addFilters = false)
 @WithMockUser(username = "admin", roles = {"ADMIN", "SUPERADMIN"})
 public class KardexControllerTest {
@@ -0,0 +1,21 @@
+package com.example.demo.ControllerTest;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Falla el test si su cuerpo ejecuta más de max sentencias SQL (lo que hace @BeforeEach no cuenta). Cuenta lo que pasa por el DataSource envuelto por
+ * QueryCountingDataSourcePostProcessor en el hilo del test (MockMvc atiende la petición en ese mismo hilo).
+ * En slices sin escaneo de componentes hay que agregar @Import(QueryCountingDataSourcePostProcessor.class).
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+
+    int max();
+}
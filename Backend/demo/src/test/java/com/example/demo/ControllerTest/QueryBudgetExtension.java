@@ -0,0 +1,43 @@
+package com.example.demo.ControllerTest;
+
+import com.example.demo.config.QueryCounter;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Abre el scope justo antes del método de test y lo evalúa al terminar, así los datos que prepara @BeforeEach
+ * no cuentan para el presupuesto.
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put("scope", QueryCounter.open());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        QueryCounter.Scope scope = context.getStore(NAMESPACE).remove("scope", QueryCounter.Scope.class);
+        if (scope == null) {
+            return;
+        }
+        scope.close();
+
+        QueryBudget budget = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), QueryBudget.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), QueryBudget.class))
+                .orElseThrow();
+        if (scope.statements() > budget.max()) {
+            Map.Entry<String, Integer> repeated = scope.mostRepeated();
+            fail("Se ejecutaron " + scope.statements() + " sentencias SQL (presupuesto " + budget.max() + ")"
+                    + (repeated != null ? "; la más repetida (" + repeated.getValue() + " veces): " + repeated.getKey() : ""));
+        }
+    }
+}
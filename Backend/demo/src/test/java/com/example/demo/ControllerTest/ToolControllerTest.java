@@ -3,6 +3,7 @@ package com.example.demo.ControllerTest;
 import com.example.demo.Controllers.ToolController;
 import com.example.demo.Entities.ToolEntity;
 import com.example.demo.Entities.UserEntity;
+import com.example.demo.Services.ChangeCounterService;
 import com.example.demo.Services.ToolService;
 import com.example.demo.Services.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -29,6 +31,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ToolController.class)
+@Import(ChangeCounterService.class)
 @AutoConfigureMockMvc(addFilters = false)
 @WithMockUser(username = "admin", roles = {"ADMIN", "SUPERADMIN"})
 public class ToolControllerTest {
@@ -11,6 +11,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -127,6 +128,18 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.id").value(1));
     }
 
+    @Test
+    public void testUpdateUserWithStaleVersion() throws Exception {
+        when(userService.updateUser(any(UserEntity.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(UserEntity.class, 1L));
+
+        mockMvc.perform(put("/api/user/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
     @Test
     public void testDeleteUserById() throws Exception {
         when(userService.deleteUser(1L)).thenReturn(true);
@@ -0,0 +1,57 @@
+package com.example.demo.ServiceTest;
+
+import com.example.demo.Services.BusinessMetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BusinessMetricsServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BusinessMetricsService businessMetricsService;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        businessMetricsService = new BusinessMetricsService(meterRegistry);
+    }
+
+    @Test
+    public void testRecordStockMoveOutsideTransaction() {
+        businessMetricsService.recordStockMove("NUEVO", "DISPONIBLE", 5);
+        businessMetricsService.recordStockMove("DISPONIBLE", "PRESTADA", 1);
+
+        assertEquals(5.0, meterRegistry.get("toolrent.inventory.moves")
+                .tags("from", "NUEVO", "to", "DISPONIBLE").counter().count());
+        assertEquals(1.0, meterRegistry.get("toolrent.inventory.moves")
+                .tags("from", "DISPONIBLE", "to", "PRESTADA").counter().count());
+    }
+
+    @Test
+    public void testUnknownKardexTypeIsGrouped() {
+        businessMetricsService.recordKardexMovement("PRESTAMO");
+        businessMetricsService.recordKardexMovement("cualquier cosa");
+
+        assertEquals(1.0, meterRegistry.get("toolrent.kardex.movements").tag("type", "PRESTAMO").counter().count());
+        assertEquals(1.0, meterRegistry.get("toolrent.kardex.movements").tag("type", "OTRO").counter().count());
+    }
+
+    @Test
+    public void testCountedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            businessMetricsService.recordKardexMovement("DEVOLUCION");
+            assertEquals(0.0, meterRegistry.get("toolrent.kardex.movements").tag("type", "DEVOLUCION").counter().count());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(1.0, meterRegistry.get("toolrent.kardex.movements").tag("type", "DEVOLUCION").counter().count());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.ServiceTest;
+
+import com.example.demo.Services.CatalogVersionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+public class CatalogVersionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private CatalogVersionService catalogVersionService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COALESCE"), eq(Long.class))).thenReturn(10L);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+        when(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR catalog_version_seq", Long.class))
+                .thenReturn(11L, 12L, 13L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testStartsAfterTheHighestStoredVersion() {
+        assertEquals(10L, catalogVersionService.currentVersion());
+        verify(jdbcTemplate).execute("CREATE SEQUENCE IF NOT EXISTS catalog_version_seq START WITH 11");
+    }
+
+    @Test
+    public void testWatermarkWaitsForTheOldestOpenTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(11L, catalogVersionService.nextVersion());
+        assertEquals(12L, catalogVersionService.nextVersion());
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+
+        // La versión 12 se confirma primero: /sync no puede anunciarla mientras la 11 siga abierta
+        syncs.get(1).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(10L, catalogVersionService.currentVersion());
+
+        syncs.get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(12L, catalogVersionService.currentVersion());
+    }
+
+    @Test
+    public void testVersionOutsideTransactionIsVisibleAtOnce() {
+        assertEquals(11L, catalogVersionService.nextVersion());
+        assertEquals(11L, catalogVersionService.currentVersion());
+    }
+}
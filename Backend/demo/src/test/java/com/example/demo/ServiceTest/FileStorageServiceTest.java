@@ -28,8 +28,22 @@ public class FileStorageServiceTest {
     public void testSaveFile() {
         MockMultipartFile file = new MockMultipartFile("file", "test.jpg", "image/jpeg", "test data".getBytes());
         String fileName = fileStorageService.saveFile(file);
-        assertTrue(fileName.endsWith("_test.jpg"));
+        // ab/cd/<sha-256>.jpg
+        assertTrue(fileName.matches("[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.jpg"));
         assertTrue(Files.exists(tempDir.resolve(fileName)));
+        assertEquals("test data", new String(Files.readAllBytes(tempDir.resolve(fileName))));
+    }
+
+    @Test
+    public void testSaveFile_DeduplicatesSameContent() {
+        MockMultipartFile first = new MockMultipartFile("file", "martillo.PNG", "image/png", "same bytes".getBytes());
+        MockMultipartFile second = new MockMultipartFile("file", "otro-nombre.png", "image/png", "same bytes".getBytes());
+
+        String firstName = fileStorageService.saveFile(first);
+        String secondName = fileStorageService.saveFile(second);
+
+        assertEquals(firstName, secondName);
+        assertTrue(firstName.endsWith(".png"));
     }
 
     @Test
@@ -45,11 +59,11 @@ public class FileStorageServiceTest {
         // Create a service with a read-only directory or invalid path to trigger IOException
         // However, since we pass the path in constructor and it creates directories, it's tricky.
         // Instead, we can try to pass a file as the directory path if it exists, or use a non-writable path.
-        // But simpler is to mock the file to throw exception on getBytes(), but getBytes() is called inside.
+        // But simpler is to mock the file to throw exception on getInputStream(), which is called inside.
         
         MockMultipartFile badFile = new MockMultipartFile("file", "test.jpg", "image/jpeg", "content".getBytes()) {
             @Override
-            public byte[] getBytes() throws java.io.IOException {
+            public java.io.InputStream getInputStream() throws java.io.IOException {
                 throw new java.io.IOException("Read error");
             }
         };
@@ -0,0 +1,75 @@
+package com.example.demo.ServiceTest;
+
+import com.example.demo.Services.FileStorageService;
+import com.example.demo.Services.ImageVariantService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageVariantServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ImageVariantService imageVariantService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        FileStorageService fileStorageService = new FileStorageService(tempDir.toString());
+        imageVariantService = new ImageVariantService(fileStorageService, new int[]{320, 16, 160}, 1, 10, false);
+
+        BufferedImage image = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        Files.createDirectories(tempDir.resolve("ab/cd"));
+        ImageIO.write(image, "png", tempDir.resolve("ab/cd/tool.png").toFile());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        imageVariantService.shutdown();
+    }
+
+    @Test
+    public void testGenerate_CreatesScaledVariants() throws Exception {
+        int created = imageVariantService.generate("ab/cd/tool.png");
+
+        assertEquals(3, created);
+        BufferedImage variant = ImageIO.read(imageVariantService.variantPath("ab/cd/tool.png", 160).toFile());
+        assertEquals(160, variant.getWidth());
+        assertEquals(80, variant.getHeight());
+        assertTrue(Files.exists(imageVariantService.variantPath("ab/cd/tool.png", 16)));
+    }
+
+    @Test
+    public void testGenerate_SkipsExistingAndNeverUpscales() throws Exception {
+        BufferedImage small = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        ImageIO.write(small, "png", tempDir.resolve("small.png").toFile());
+
+        assertEquals(1, imageVariantService.generate("small.png"));
+        assertFalse(Files.exists(imageVariantService.variantPath("small.png", 160)));
+
+        imageVariantService.generate("ab/cd/tool.png");
+        assertEquals(0, imageVariantService.generate("ab/cd/tool.png"));
+    }
+
+    @Test
+    public void testBackfill_ProcessesExistingImages() {
+        assertEquals(1, imageVariantService.backfill());
+        assertTrue(Files.exists(imageVariantService.variantPath("ab/cd/tool.png", 320)));
+        // Las variantes no se procesan como imágenes nuevas
+        assertEquals(0, imageVariantService.backfill());
+    }
+
+    @Test
+    public void testGenerate_UnsupportedOrMissingFile() {
+        assertEquals(0, imageVariantService.generate("missing.png"));
+        assertEquals(0, imageVariantService.generate("document.pdf"));
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.demo.ServiceTest;
+
+import com.example.demo.Entities.InventoryEntity;
+import com.example.demo.Entities.InventoryHoldEntity;
+import com.example.demo.Entities.ToolEntity;
+import com.example.demo.Entities.ToolStateEntity;
+import com.example.demo.Entities.UserEntity;
+import com.example.demo.Repositories.InventoryHoldRepository;
+import com.example.demo.Repositories.InventoryRepository;
+import com.example.demo.Repositories.ToolRepository;
+import com.example.demo.Repositories.UserRepository;
+import com.example.demo.Services.InventoryHoldService;
+import com.example.demo.Services.InventoryHoldService.Hold;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class InventoryHoldServiceTest {
+
+    @Mock
+    private InventoryHoldRepository holdRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private ToolRepository toolRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private InventoryHoldService holdService;
+
+    private ToolEntity tool;
+
+    private UserEntity client;
+
+    private UserEntity employee;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        holdService = new InventoryHoldService(holdRepository, inventoryRepository, toolRepository, userRepository,
+                meterRegistry, Duration.ofMinutes(10), Duration.ofMinutes(30), 3, true);
+
+        tool = new ToolEntity();
+        tool.setId(1L);
+        tool.setToolName("Taladro");
+        client = new UserEntity();
+        client.setId(2L);
+        client.setStateClient("ACTIVO");
+        employee = new UserEntity();
+        employee.setId(3L);
+        employee.setRol("EMPLOYEE");
+
+        InventoryEntity available = new InventoryEntity();
+        available.setIdTool(tool);
+        available.setToolState(new ToolStateEntity(1L, "DISPONIBLE", null));
+        available.setStockTool(3);
+        InventoryEntity repairing = new InventoryEntity();
+        repairing.setIdTool(tool);
+        repairing.setToolState(new ToolStateEntity(2L, "EN REPARACION", null));
+        repairing.setStockTool(5);
+        when(toolRepository.findById(1L)).thenReturn(Optional.of(tool));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(client));
+        when(inventoryRepository.lockByToolIds(List.of(1L))).thenReturn(List.of(available, repairing));
+
+        AtomicLong ids = new AtomicLong();
+        when(holdRepository.save(any(InventoryHoldEntity.class))).thenAnswer(invocation -> {
+            InventoryHoldEntity entity = invocation.getArgument(0);
+            entity.setId(ids.incrementAndGet());
+            return entity;
+        });
+        when(holdRepository.close(anyCollection(), any())).thenAnswer(invocation ->
+                ((java.util.Collection<?>) invocation.getArgument(0)).size());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        holdService.shutdown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testHoldsCannotExceedAvailableStock() {
+        Hold first = holdService.placeHold(employee, 1L, 2L, 2, null);
+
+        assertEquals(2, holdService.heldUnits(1L));
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> holdService.placeHold(employee, 1L, 2L, 2, null));
+        assertTrue(ex.getMessage().contains("disponibles: 1"));
+        verify(inventoryRepository, times(2)).lockByToolIds(List.of(1L));
+
+        assertTrue(holdService.release(first.id()));
+        assertEquals(0, holdService.heldUnits(1L));
+        assertFalse(holdService.release(first.id()));
+        verify(holdRepository).close(List.of(first.id()), InventoryHoldService.RELEASED);
+    }
+
+    @Test
+    public void testHoldIsDroppedWhenItsTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        holdService.placeHold(employee, 1L, 2L, 2, null);
+        assertEquals(2, holdService.heldUnits(1L));
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        assertEquals(0, holdService.heldUnits(1L));
+        assertTrue(holdService.getHoldsByClient(2L).isEmpty());
+    }
+
+    @Test
+    public void testToolIdsOfOnlyLooksAtTheClientsHolds() {
+        Hold hold = holdService.placeHold(employee, 1L, 2L, 1, null);
+
+        assertEquals(List.of(1L), holdService.toolIdsOf(2L, List.of(hold.id(), 99L)));
+        assertTrue(holdService.toolIdsOf(9L, List.of(hold.id())).isEmpty());
+        // Solo consulta: la reserva sigue vigente
+        assertEquals(1, holdService.heldUnits(1L));
+    }
+
+    @Test
+    public void testHoldExpiresOnItsOwnTimer() throws Exception {
+        Hold hold = holdService.placeHold(employee, 1L, 2L, 1, Duration.ofMillis(50));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (holdService.heldUnits(1L) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(0, holdService.heldUnits(1L));
+        assertTrue(holdService.getHoldsByClient(2L).isEmpty());
+        verify(holdRepository, timeout(1000)).close(List.of(hold.id()), InventoryHoldService.EXPIRED);
+    }
+
+    @Test
+    public void testConvertedHoldsComeBackWhenTheLoanRollsBack() {
+        Hold hold = holdService.placeHold(employee, 1L, 2L, 1, null);
+        TransactionSynchronizationManager.initSynchronization();
+
+        List<Hold> taken = holdService.convertHolds(2L, List.of(hold.id()));
+
+        assertEquals(List.of(hold), taken);
+        assertEquals(0, holdService.heldUnits(1L));
+        verify(holdRepository).close(List.of(hold.id()), InventoryHoldService.CONVERTED);
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        assertEquals(1, holdService.heldUnits(1L));
+        assertEquals(List.of(hold), holdService.getHoldsByClient(2L));
+    }
+
+    @Test
+    public void testHoldsOfAnotherClientCannotBeConverted() {
+        Hold hold = holdService.placeHold(employee, 1L, 2L, 1, null);
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThrows(RuntimeException.class, () -> holdService.convertHolds(9L, List.of(hold.id())));
+
+        assertEquals(1, holdService.heldUnits(1L));
+        verify(holdRepository, never()).close(anyCollection(), eq(InventoryHoldService.CONVERTED));
+    }
+
+    @Test
+    public void testRecoverRebuildsActiveHoldsFromTheJournal() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        when(holdRepository.expireBefore(anyLong())).thenReturn(2);
+        when(holdRepository.findActiveRows(anyLong()))
+                .thenReturn(List.<Object[]>of(new Object[]{7L, 1L, 2L, 2, expiresAt}));
+
+        holdService.recover();
+
+        assertEquals(2, holdService.heldUnits(1L));
+        assertEquals(List.of(new Hold(7L, 1L, 2L, 2, expiresAt)), holdService.getHoldsByClient(2L));
+    }
+
+    @Test
+    public void testRecoverOnStartupCanBeDisabled() {
+        InventoryHoldService disabled = new InventoryHoldService(holdRepository, inventoryRepository, toolRepository,
+                userRepository, meterRegistry, Duration.ofMinutes(10), Duration.ofMinutes(30), 3, false);
+        try {
+            disabled.recoverOnStartup();
+            verifyNoInteractions(holdRepository);
+        } finally {
+            disabled.shutdown();
+        }
+    }
+}
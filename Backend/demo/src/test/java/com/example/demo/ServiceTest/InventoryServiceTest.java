@@ -4,8 +4,13 @@ import com.example.demo.Entities.InventoryEntity;
 import com.example.demo.Entities.ToolEntity;
 import com.example.demo.Entities.UserEntity;
 import com.example.demo.Repositories.InventoryRepository;
+import com.example.demo.Services.BusinessMetricsService;
+import com.example.demo.Services.ChangeCounterService;
+import com.example.demo.Services.InventoryHoldService;
 import com.example.demo.Services.InventoryService;
+import com.example.demo.Services.InventoryStreamService;
 import com.example.demo.Services.KardexService;
+import com.example.demo.Services.RequestCoalescingService;
 import com.example.demo.Services.ToolService;
 import com.example.demo.Services.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,9 +22,11 @@ import org.springframework.data.domain.Sort;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 public class InventoryServiceTest {
@@ -36,6 +43,21 @@ public class InventoryServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private InventoryStreamService inventoryStreamService;
+
+    @Mock
+    private ChangeCounterService changeCounterService;
+
+    @Mock
+    private RequestCoalescingService requestCoalescingService;
+
+    @Mock
+    private BusinessMetricsService businessMetricsService;
+
+    @Mock
+    private InventoryHoldService inventoryHoldService;
+
     @InjectMocks
     private InventoryService inventoryService;
 
@@ -46,6 +68,9 @@ public class InventoryServiceTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        // La coalescencia se prueba aparte; aquí se ejecuta directamente el cálculo
+        when(requestCoalescingService.execute(anyString(), anyString(), any(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(3)).get());
         tool = new ToolEntity();
         tool.setId(1L);
         tool.setToolName("Hammer");
@@ -167,6 +192,20 @@ public class InventoryServiceTest {
         assertTrue(result);
     }
 
+    @Test
+    public void testHeldUnitsAreNotAvailable() {
+        when(inventoryRepository.findByIdToolAndToolState_State(tool, "DISPONIBLE")).thenReturn(inventory);
+        when(toolService.getToolById(1L)).thenReturn(tool);
+        when(inventoryHoldService.heldUnits(1L)).thenReturn(10);
+
+        assertFalse(inventoryService.isAvailableTool(tool));
+        assertFalse(inventoryService.checkStockAvailable(1L));
+
+        when(inventoryHoldService.heldUnits(1L)).thenReturn(9);
+        assertTrue(inventoryService.isAvailableTool(tool));
+        assertTrue(inventoryService.checkStockAvailable(1L));
+    }
+
     @Test
     public void testLoanTool() {
         when(toolService.getToolById(1L)).thenReturn(tool);
@@ -180,6 +219,7 @@ public class InventoryServiceTest {
         assertEquals(9, inventory.getStockTool());
         assertEquals(1, loanInv.getStockTool());
         verify(inventoryRepository, times(2)).save(any(InventoryEntity.class));
+        verify(businessMetricsService).recordStockMove("DISPONIBLE", "PRESTADA", 1);
     }
 
     @Test
@@ -195,6 +235,7 @@ public class InventoryServiceTest {
         assertEquals(0, loanInv.getStockTool());
         assertEquals(11, inventory.getStockTool());
         verify(inventoryRepository, times(2)).save(any(InventoryEntity.class));
+        verify(businessMetricsService).recordStockMove("PRESTADA", "DISPONIBLE", 1);
     }
 
     @Test
@@ -318,4 +359,22 @@ public class InventoryServiceTest {
         // Filter by Max Price
         assertEquals(1, inventoryService.filterInventory(null, null, null, null, 150, null, null, null).size());
     }
+
+    @Test
+    public void testFilterInventory_KeyAndComputationUseTheSameNormalizedText() {
+        ToolEntity drill = new ToolEntity();
+        drill.setId(3L);
+        drill.setToolName("Taladro");
+        InventoryEntity row = new InventoryEntity();
+        row.setIdTool(drill);
+        when(inventoryRepository.findAll()).thenReturn(List.of(row));
+
+        List<InventoryEntity> padded = inventoryService.filterInventory(null, null, null, null, null, null, null, null, " TALADRO ");
+        List<InventoryEntity> plain = inventoryService.filterInventory(null, null, null, null, null, null, null, null, "taladro");
+
+        assertEquals(1, padded.size());
+        assertEquals(plain, padded);
+        verify(requestCoalescingService, times(2))
+                .execute(eq("inventory-filter"), eq("||null|null|null|false|false|false|taladro"), any(), any());
+    }
 }
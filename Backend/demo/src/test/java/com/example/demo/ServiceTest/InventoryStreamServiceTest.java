@@ -0,0 +1,86 @@
+package com.example.demo.ServiceTest;
+
+import com.example.demo.DTO.InventoryStockEventDTO;
+import com.example.demo.Entities.InventoryEntity;
+import com.example.demo.Entities.ToolEntity;
+import com.example.demo.Entities.ToolStateEntity;
+import com.example.demo.Services.InventoryStreamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventoryStreamServiceTest {
+
+    private InventoryStreamService inventoryStreamService;
+
+    private InventoryEntity inventory;
+
+    @BeforeEach
+    public void setUp() {
+        inventoryStreamService = new InventoryStreamService(3, 60000L, 16);
+
+        ToolEntity tool = new ToolEntity();
+        tool.setId(1L);
+        ToolStateEntity state = new ToolStateEntity(1L, "DISPONIBLE", null);
+
+        inventory = new InventoryEntity();
+        inventory.setIdTool(tool);
+        inventory.setToolState(state);
+        inventory.setStockTool(10);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        inventoryStreamService.shutdown();
+    }
+
+    @Test
+    public void testPublishStockChange_AssignsIncreasingVersions() {
+        inventoryStreamService.publishStockChange(inventory);
+        inventory.setStockTool(9);
+        inventoryStreamService.publishStockChange(inventory);
+
+        List<InventoryStockEventDTO> events = inventoryStreamService.eventsAfter(0);
+        assertEquals(2, events.size());
+        assertEquals(1L, events.get(0).getVersion());
+        assertEquals(2L, events.get(1).getVersion());
+        assertEquals(9, events.get(1).getNewStock());
+        assertEquals("DISPONIBLE", events.get(1).getState());
+    }
+
+    @Test
+    public void testEventsAfter_ReturnsOnlyMissedEvents() {
+        inventoryStreamService.publishStockChange(inventory);
+        inventoryStreamService.publishStockChange(inventory);
+        inventoryStreamService.publishStockChange(inventory);
+
+        List<InventoryStockEventDTO> events = inventoryStreamService.eventsAfter(2);
+        assertEquals(1, events.size());
+        assertEquals(3L, events.get(0).getVersion());
+        assertTrue(inventoryStreamService.eventsAfter(3).isEmpty());
+    }
+
+    @Test
+    public void testEventsAfter_EvictedEventsRequireResync() {
+        for (int i = 0; i < 5; i++) {
+            inventoryStreamService.publishStockChange(inventory);
+        }
+
+        // Buffer de 3: solo quedan las versiones 3, 4 y 5
+        assertNull(inventoryStreamService.eventsAfter(1));
+        assertEquals(3, inventoryStreamService.eventsAfter(2).size());
+        // Version desconocida (por ejemplo, tras reiniciar el servidor)
+        assertNull(inventoryStreamService.eventsAfter(99));
+    }
+
+    @Test
+    public void testPublishStockChange_IgnoresRowsWithoutTool() {
+        inventoryStreamService.publishStockChange(new InventoryEntity());
+        inventoryStreamService.publishStockChange(null);
+        assertEquals(0L, inventoryStreamService.getLastVersion());
+    }
+}
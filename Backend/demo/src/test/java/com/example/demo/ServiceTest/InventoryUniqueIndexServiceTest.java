@@ -0,0 +1,82 @@
+package com.example.demo.ServiceTest;
+
+import com.example.demo.Services.CatalogVersionService;
+import com.example.demo.Services.ChangeCounterService;
+import com.example.demo.Services.ChangeCounterService.Aggregate;
+import com.example.demo.Services.InventoryUniqueIndexService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+public class InventoryUniqueIndexServiceTest {
+
+    private static final String CREATE_INDEX =
+            "CREATE UNIQUE INDEX IF NOT EXISTS uk_inventory_tool_state ON inventory (id_tool, tool_state_id)";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    @Mock
+    private ChangeCounterService changeCounterService;
+
+    @InjectMocks
+    private InventoryUniqueIndexService inventoryUniqueIndexService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(catalogVersionService.nextVersion()).thenReturn(9L);
+    }
+
+    @Test
+    public void testMergesDuplicatesBeforeCreatingTheIndex() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT d.id"), eq(Long.class))).thenReturn(List.of(4L, 6L));
+        when(jdbcTemplate.update(startsWith("UPDATE inventory"), eq(9L))).thenReturn(1);
+
+        inventoryUniqueIndexService.ensureUniqueIndex();
+
+        InOrder order = inOrder(jdbcTemplate, catalogVersionService);
+        order.verify(jdbcTemplate).update(startsWith("UPDATE inventory"), eq(9L));
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM inventory"));
+        order.verify(catalogVersionService).recordDeletion("inventory", 4L);
+        order.verify(catalogVersionService).recordDeletion("inventory", 6L);
+        order.verify(jdbcTemplate).execute(CREATE_INDEX);
+        verify(changeCounterService).markChanged(Aggregate.INVENTORY);
+    }
+
+    @Test
+    public void testWithoutDuplicatesOnlyCreatesTheIndex() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT d.id"), eq(Long.class))).thenReturn(List.of());
+
+        inventoryUniqueIndexService.ensureUniqueIndex();
+
+        verify(jdbcTemplate).execute(CREATE_INDEX);
+        verify(jdbcTemplate, never()).update(anyString());
+        verifyNoInteractions(catalogVersionService, changeCounterService);
+    }
+
+    @Test
+    public void testRunsOnlyOnce() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT d.id"), eq(Long.class))).thenReturn(List.of());
+
+        inventoryUniqueIndexService.ensureUniqueIndex();
+        inventoryUniqueIndexService.ensureUniqueIndex();
+
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Long.class));
+        verify(jdbcTemplate, times(1)).execute(CREATE_INDEX);
+    }
+}
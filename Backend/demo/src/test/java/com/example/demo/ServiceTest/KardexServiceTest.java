@@ -5,6 +5,9 @@ import com.example.demo.Entities.ToolEntity;
 import com.example.demo.Entities.UserEntity;
 import com.example.demo.Repositories.KardexRepository;
 import com.example.demo.Repositories.ToolRepository;
+import com.example.demo.Services.BusinessMetricsService;
+import com.example.demo.Services.ChangeCounterService;
+import com.example.demo.Services.RequestCoalescingService;
 import com.example.demo.Services.KardexService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,9 +21,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
 public class KardexServiceTest {
@@ -31,6 +36,15 @@ public class KardexServiceTest {
     @Mock
     private ToolRepository toolRepository;
 
+    @Mock
+    private ChangeCounterService changeCounterService;
+
+    @Mock
+    private RequestCoalescingService requestCoalescingService;
+
+    @Mock
+    private BusinessMetricsService businessMetricsService;
+
     @InjectMocks
     private KardexService kardexService;
 
@@ -42,6 +56,9 @@ public class KardexServiceTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        // La coalescencia se prueba aparte; aquí se ejecuta directamente el cálculo
+        when(requestCoalescingService.executeCurrent(anyString(), anyString(), any(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(3)).get());
         tool = new ToolEntity();
         tool.setId(1L);
         tool.setToolName("Hammer");
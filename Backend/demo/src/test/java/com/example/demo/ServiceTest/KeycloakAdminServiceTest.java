@@ -221,4 +221,21 @@ public class KeycloakAdminServiceTest {
         Map result = keycloakAdminService.requestPasswordGrant("user", "pass");
         assertEquals("user-token", result.get("access_token"));
     }
+
+    @Test
+    public void testConcurrencyLimitRejectsWhenSaturated() throws Exception {
+        java.util.concurrent.Semaphore permits = new java.util.concurrent.Semaphore(1);
+        org.springframework.http.client.ClientHttpRequestInterceptor limit = KeycloakAdminService.concurrencyLimit(permits, 10);
+        org.springframework.http.client.ClientHttpRequestExecution execution = mock(org.springframework.http.client.ClientHttpRequestExecution.class);
+        org.springframework.http.HttpRequest request = mock(org.springframework.http.HttpRequest.class);
+        org.springframework.http.client.ClientHttpResponse response = mock(org.springframework.http.client.ClientHttpResponse.class);
+        when(execution.execute(any(), any())).thenReturn(response);
+
+        assertSame(response, limit.intercept(request, new byte[0], execution));
+        assertEquals(1, permits.availablePermits());
+
+        permits.acquire();
+        assertThrows(java.io.IOException.class, () -> limit.intercept(request, new byte[0], execution));
+        verify(execution, times(1)).execute(any(), any());
+    }
 }
@@ -0,0 +1,71 @@
+package com.example.demo.ServiceTest;
+
+import com.example.demo.Repositories.UserRepository;
+import com.example.demo.Services.LoanCounterReconcilerService;
+import com.example.demo.Services.LoanCounterReconcilerService.Report;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class LoanCounterReconcilerServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LoanCounterReconcilerService reconciler;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        reconciler = new LoanCounterReconcilerService(userRepository, meterRegistry, 2, true);
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    @Test
+    public void testCorrectsDriftChunkByChunk() {
+        when(userRepository.findLoanCountersAfter(eq(0L), any(), any()))
+                .thenReturn(rows(new Object[]{1L, 0, 0L}, new Object[]{2L, 3, 2L}));
+        when(userRepository.findLoanCountersAfter(eq(2L), any(), any()))
+                .thenReturn(rows(new Object[]{5L, 0, 1L}));
+        when(userRepository.setLoansIfUnchanged(anyLong(), anyInt(), anyInt())).thenReturn(1);
+
+        Report report = reconciler.reconcile();
+
+        assertEquals(new Report(3, 2, 2, 2), report);
+        verify(userRepository).setLoansIfUnchanged(2L, 3, 2);
+        verify(userRepository).setLoansIfUnchanged(5L, 0, 1);
+        verify(userRepository, never()).setLoansIfUnchanged(eq(1L), anyInt(), anyInt());
+        assertEquals(2, meterRegistry.get("toolrent.loans.counter.corrected").counter().count());
+    }
+
+    @Test
+    public void testCounterChangedMeanwhileIsLeftForNextRun() {
+        when(userRepository.findLoanCountersAfter(eq(0L), any(), any()))
+                .thenReturn(rows(new Object[]{7L, 4, 3L}));
+        when(userRepository.setLoansIfUnchanged(7L, 4, 3)).thenReturn(0);
+
+        Report report = reconciler.reconcile();
+
+        assertEquals(1, report.drifted());
+        assertEquals(0, report.corrected());
+        assertEquals(1, meterRegistry.get("toolrent.loans.counter.drifted").counter().count());
+    }
+}
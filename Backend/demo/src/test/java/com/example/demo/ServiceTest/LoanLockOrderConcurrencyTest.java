@@ -0,0 +1,193 @@
+package com.example.demo.ServiceTest;
+
+import com.example.demo.Entities.InventoryEntity;
+import com.example.demo.Entities.LoanEntity;
+import com.example.demo.Entities.LoanXToolsEntity;
+import com.example.demo.Entities.ToolEntity;
+import com.example.demo.Entities.ToolStateEntity;
+import com.example.demo.Entities.UserEntity;
+import com.example.demo.Repositories.InventoryRepository;
+import com.example.demo.Repositories.LoanXToolsRepository;
+import com.example.demo.Repositories.ToolRepository;
+import com.example.demo.Repositories.ToolStateRepository;
+import com.example.demo.Repositories.UserRepository;
+import com.example.demo.Services.InventoryService;
+import com.example.demo.Services.LoanService;
+import com.example.demo.Services.LoanXToolsService;
+import com.example.demo.config.OptimisticRetryAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Muchos pedidos en paralelo sobre las mismas herramientas, cada uno listándolas en otro orden, mezclados con
+ * préstamos y devoluciones sueltas de una herramienta (loanTool / receiveTool) sobre esas mismas filas.
+ * Sin el orden global de locks dos operaciones se bloquean mutuamente; con él solo se esperan.
+ * H2 corre en modo PostgreSQL para acercarse al SQL de producción.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:lockorder;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=20000",
+        "spring.jpa.show-sql=false"
+})
+public class LoanLockOrderConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    private static final int LOANS_PER_THREAD = 4;
+
+    private static final int TOOLS = 5;
+
+    private static final int TOOLS_PER_LOAN = 4;
+
+    // Préstamos sueltos por hilo: cada uno se devuelve, así que no cambian el stock final
+    private static final int SINGLE_MOVES_PER_THREAD = 8;
+
+    private static final int INITIAL_STOCK = 1000;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanXToolsService loanXToolsService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ToolRepository toolRepository;
+
+    @Autowired
+    private ToolStateRepository toolStateRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LoanXToolsRepository loanXToolsRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ToolStateEntity state(String name) {
+        ToolStateEntity existing = toolStateRepository.findByState(name);
+        return existing != null ? existing : toolStateRepository.save(new ToolStateEntity(null, name, null));
+    }
+
+    private UserEntity user(String username, String rol) {
+        UserEntity user = new UserEntity();
+        user.setUsername(username);
+        user.setName(username);
+        user.setRol(rol);
+        user.setStateClient("ACTIVO");
+        return userRepository.save(user);
+    }
+
+    @Test
+    public void testOverlappingOrdersAndSingleMovesDoNotDeadlock() throws Exception {
+        ToolStateEntity available = state("DISPONIBLE");
+        ToolStateEntity loaned = state("PRESTADA");
+        List<Long> toolIds = new ArrayList<>();
+        for (int t = 0; t < TOOLS; t++) {
+            ToolEntity tool = new ToolEntity();
+            tool.setToolName("Taladro " + t);
+            tool.setPriceRent(1000);
+            tool = toolRepository.save(tool);
+            inventoryRepository.save(new InventoryEntity(null, tool, available, INITIAL_STOCK, null, 0));
+            inventoryRepository.save(new InventoryEntity(null, tool, loaned, 0, null, 0));
+            toolIds.add(tool.getId());
+        }
+        UserEntity employee = user("empleado-locks", "EMPLOYEE");
+        List<UserEntity> clients = new ArrayList<>();
+        for (int c = 0; c < THREADS * LOANS_PER_THREAD; c++) {
+            clients.add(user("cliente-locks-" + c, "CLIENT"));
+        }
+        Date init = Date.valueOf(LocalDate.now());
+        Date ret = Date.valueOf(LocalDate.now().plusDays(3));
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS * 2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < THREADS; w++) {
+            int worker = w;
+            futures.add(pool.submit(() -> {
+                start.await();
+                Random random = new Random(1000 + worker);
+                for (int n = 0; n < SINGLE_MOVES_PER_THREAD; n++) {
+                    Long toolId = toolIds.get(random.nextInt(TOOLS));
+                    inventoryService.loanTool(toolId);
+                    inventoryService.receiveTool(toolId, "DISPONIBLE");
+                }
+                return null;
+            }));
+        }
+        for (int w = 0; w < THREADS; w++) {
+            int worker = w;
+            futures.add(pool.submit(() -> {
+                start.await();
+                Random random = new Random(worker);
+                for (int n = 0; n < LOANS_PER_THREAD; n++) {
+                    List<Long> order = new ArrayList<>(toolIds);
+                    Collections.shuffle(order, random);
+                    UserEntity client = clients.get(worker * LOANS_PER_THREAD + n);
+                    LoanEntity loan = loanService.createLoanWithTools(employee, client.getId(), init, ret,
+                            order.subList(0, TOOLS_PER_LOAN));
+
+                    // Se entregan en el orden inverso al que se pidieron
+                    List<Long> lxtIds = loanXToolsRepository.findByIdLoan(loan).stream()
+                            .sorted(Comparator.comparing(LoanXToolsEntity::getId).reversed())
+                            .map(LoanXToolsEntity::getId)
+                            .toList();
+                    loanXToolsService.giveAllLoanTools(employee, lxtIds);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertNull(meterRegistry.find(OptimisticRetryAspect.DEADLOCKS).counter());
+        int loans = THREADS * LOANS_PER_THREAD * TOOLS_PER_LOAN;
+        int disponible = 0;
+        int prestada = 0;
+        for (ToolEntity tool : toolRepository.findAllById(toolIds)) {
+            for (InventoryEntity row : inventoryRepository.findByIdTool(tool)) {
+                if (row.getToolState().getState().equals("DISPONIBLE")) {
+                    disponible += row.getStockTool();
+                } else {
+                    prestada += row.getStockTool();
+                }
+            }
+        }
+        assertEquals(loans, prestada);
+        assertEquals(TOOLS * INITIAL_STOCK - loans, disponible);
+        for (UserEntity client : clients) {
+            assertEquals(1, userRepository.findById(client.getId()).orElseThrow().getLoans());
+        }
+    }
+}
@@ -118,13 +118,26 @@ public class LoanServiceTest {
     @Test
     public void testCreateLoan() {
         when(userService.canDoAnotherLoan(client)).thenReturn(true);
+        when(userService.reserveLoanSlot(client)).thenReturn(true);
         when(loanRepository.save(any(LoanEntity.class))).thenReturn(loan);
 
         LoanEntity result = loanService.createLoan(client, user, Date.valueOf("2023-01-01"), Date.valueOf("2023-01-10"));
 
         assertNotNull(result);
         verify(userService, times(1)).validateAdminOrEmployee(user);
-        verify(userService, times(1)).saveUser(client);
+        verify(userService, times(1)).reserveLoanSlot(client);
+        verify(userService, never()).saveUser(client);
+    }
+
+    @Test
+    public void testCreateLoan_LimitReachedConcurrently() {
+        // La validación previa pasa, pero otro pedido en paralelo tomó el último cupo
+        when(userService.canDoAnotherLoan(client)).thenReturn(true);
+        when(userService.reserveLoanSlot(client)).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () ->
+                loanService.createLoan(client, user, Date.valueOf("2023-01-01"), Date.valueOf("2023-01-10")));
+        verify(loanRepository, never()).save(any(LoanEntity.class));
     }
 
     @Test
@@ -149,6 +162,7 @@ public class LoanServiceTest {
         assertThrows(RuntimeException.class, () -> {
             loanService.createLoan(client, user, Date.valueOf("2023-01-10"), Date.valueOf("2023-01-01"));
         });
+        verify(userService, never()).reserveLoanSlot(any());
     }
 
     @Test
@@ -201,6 +215,24 @@ public class LoanServiceTest {
         boolean result = loanService.deleteLoan(1L);
         assertTrue(result);
         verify(loanRepository, times(1)).deleteById(1L);
-        verify(userService, times(1)).saveUser(client);
+        verify(userService, times(1)).releaseLoanSlot(client);
+    }
+
+    @Test
+    public void testDeleteLoan_FinishedLoanKeepsCounter() {
+        loan.setStatus("FINALIZADO");
+        when(loanRepository.findById(1L)).thenReturn(Optional.of(loan));
+
+        assertTrue(loanService.deleteLoan(1L));
+        verify(userService, never()).releaseLoanSlot(any());
+    }
+
+    @Test
+    public void testDeleteLoan_DeleteFailsKeepsCounter() {
+        when(loanRepository.findById(1L)).thenReturn(Optional.of(loan));
+        doThrow(new RuntimeException("violates foreign key constraint")).when(loanRepository).deleteById(1L);
+
+        assertFalse(loanService.deleteLoan(1L));
+        verify(userService, never()).releaseLoanSlot(any());
     }
 }
@@ -0,0 +1,110 @@
+package com.example.demo.ServiceTest;
+
+import com.example.demo.Config.ImageInitializer;
+import com.example.demo.Repositories.ToolRepository;
+import com.example.demo.Services.FileStorageService;
+import com.example.demo.Services.OrphanImageCollectorService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class OrphanImageCollectorServiceTest {
+
+    private static final String REFERENCED = "ab/cd/" + "a".repeat(64) + ".png";
+    private static final String ORPHAN = "ef/01/" + "b".repeat(64) + ".png";
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ToolRepository toolRepository;
+
+    @Mock
+    private ImageInitializer imageInitializer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FileStorageService fileStorageService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        fileStorageService = new FileStorageService(tempDir.toString());
+        meterRegistry = new SimpleMeterRegistry();
+
+        when(imageInitializer.seedNames()).thenReturn(Set.of("NoImage.png"));
+        when(imageInitializer.isSeeding()).thenReturn(false);
+        when(toolRepository.streamReferencedImageUrls()).thenAnswer(invocation -> Stream.of(REFERENCED));
+
+        writeOld(REFERENCED);
+        writeOld(ORPHAN);
+        writeOld("NoImage.png");
+        writeOld(".variants/160/" + ORPHAN);
+        writeOld(".variants/160/" + REFERENCED);
+        writeOld(".tmp/upload-1.part");
+        Files.write(tempDir.resolve("recent.png"), new byte[]{1});
+    }
+
+    private OrphanImageCollectorService collector(boolean dryRun) {
+        return new OrphanImageCollectorService(fileStorageService, toolRepository, imageInitializer,
+                transactionManager, meterRegistry, Duration.ofHours(1), dryRun, true);
+    }
+
+    private void writeOld(String name) throws Exception {
+        Path file = tempDir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[10]);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - Duration.ofDays(2).toMillis()));
+    }
+
+    @Test
+    public void testCollect_DeletesOnlyOldUnreferencedFiles() {
+        OrphanImageCollectorService.Report report = collector(false).collect();
+
+        assertEquals(3, report.deleted());
+        assertEquals(30, report.reclaimedBytes());
+        assertFalse(Files.exists(tempDir.resolve(ORPHAN)));
+        assertFalse(Files.exists(tempDir.resolve(".variants/160/" + ORPHAN)));
+        assertFalse(Files.exists(tempDir.resolve(".tmp/upload-1.part")));
+
+        assertTrue(Files.exists(tempDir.resolve(REFERENCED)));
+        assertTrue(Files.exists(tempDir.resolve(".variants/160/" + REFERENCED)));
+        assertTrue(Files.exists(tempDir.resolve("NoImage.png")));
+        assertTrue(Files.exists(tempDir.resolve("recent.png")));
+        assertEquals(3.0, meterRegistry.counter("images.gc.deleted").count());
+    }
+
+    @Test
+    public void testCollect_DryRunKeepsFiles() {
+        OrphanImageCollectorService.Report report = collector(true).collect();
+
+        assertEquals(3, report.orphaned());
+        assertEquals(0, report.deleted());
+        assertTrue(Files.exists(tempDir.resolve(ORPHAN)));
+    }
+
+    @Test
+    public void testCollect_SkipsWhileSeeding() {
+        when(imageInitializer.isSeeding()).thenReturn(true);
+
+        assertNull(collector(false).collect());
+        assertTrue(Files.exists(tempDir.resolve(ORPHAN)));
+    }
+}
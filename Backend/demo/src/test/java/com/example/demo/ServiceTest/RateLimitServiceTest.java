@@ -0,0 +1,103 @@
+package com.example.demo.ServiceTest;
+
+import com.example.demo.Repositories.RateLimitBucketRepository;
+import com.example.demo.Services.RateLimitService;
+import com.example.demo.Services.RateLimitService.Budget;
+import com.example.demo.Services.RateLimitService.Decision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class RateLimitServiceTest {
+
+    private static final String BUDGETS = "/inventory=3/0.001,/kardex/ranking=1/0.001,/tool=5/0.001";
+
+    @Mock
+    private RateLimitBucketRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private RateLimitService service(String store, int maxEntries) {
+        return new RateLimitService(repository, new SimpleMeterRegistry(), BUDGETS, "partner-key", 2, store, maxEntries);
+    }
+
+    @Test
+    public void testBudgetForUsesPrefixes() {
+        RateLimitService service = service("memory", 100);
+        assertEquals("/inventory", service.budgetFor("/inventory/filter").prefix());
+        assertEquals("/kardex/ranking", service.budgetFor("/kardex/ranking").prefix());
+        assertEquals("/tool", service.budgetFor("/tool/1").prefix());
+        assertNull(service.budgetFor("/tool-states/"));
+        assertNull(service.budgetFor("/kardex/"));
+    }
+
+    @Test
+    public void testBurstThenRejected() {
+        RateLimitService service = service("memory", 100);
+        Budget budget = service.budgetFor("/inventory");
+
+        for (int i = 2; i >= 0; i--) {
+            Decision decision = service.tryConsume(budget, "ip:10.0.0.1");
+            assertTrue(decision.allowed());
+            assertEquals(3, decision.limit());
+            assertEquals(i, decision.remaining());
+        }
+        Decision rejected = service.tryConsume(budget, "ip:10.0.0.1");
+        assertFalse(rejected.allowed());
+        assertEquals(0, rejected.remaining());
+        assertTrue(rejected.retryAfterSeconds() >= 1);
+
+        // otro cliente y otra ruta tienen su propio bucket
+        assertTrue(service.tryConsume(budget, "ip:10.0.0.2").allowed());
+        assertTrue(service.tryConsume(service.budgetFor("/tool"), "ip:10.0.0.1").allowed());
+    }
+
+    @Test
+    public void testKnownApiKeyGetsLargerBudget() {
+        RateLimitService service = service("memory", 100);
+        Budget budget = service.budgetFor("/kardex/ranking");
+        assertTrue(service.isKnownApiKey("partner-key"));
+        assertFalse(service.isKnownApiKey("otra"));
+
+        assertTrue(service.tryConsume(budget, "key:partner-key").allowed());
+        assertTrue(service.tryConsume(budget, "key:partner-key").allowed());
+        assertFalse(service.tryConsume(budget, "key:partner-key").allowed());
+    }
+
+    @Test
+    public void testMemoryIsBounded() {
+        RateLimitService service = service("memory", 10);
+        Budget budget = service.budgetFor("/tool");
+        for (int i = 0; i < 1000; i++) {
+            service.tryConsume(budget, "ip:10.0." + (i / 256) + "." + (i % 256));
+        }
+        assertEquals(10, service.getBucketCount());
+    }
+
+    @Test
+    public void testPostgresStore() {
+        RateLimitService service = service("postgres", 100);
+        Budget budget = service.budgetFor("/inventory");
+
+        when(repository.consume(eq("/inventory|ip:10.0.0.1"), anyLong(), anyLong())).thenReturn(1_000_000_000L);
+        Decision allowed = service.tryConsume(budget, "ip:10.0.0.1");
+        assertTrue(allowed.allowed());
+        assertEquals(2, allowed.remaining());
+
+        when(repository.consume(eq("/inventory|ip:10.0.0.1"), anyLong(), anyLong())).thenReturn(null);
+        assertFalse(service.tryConsume(budget, "ip:10.0.0.1").allowed());
+
+        when(repository.consume(anyString(), anyLong(), anyLong())).thenThrow(new RuntimeException("sin conexión"));
+        assertTrue(service.tryConsume(budget, "ip:10.0.0.1").allowed());
+        assertEquals(0, service.getBucketCount());
+    }
+}
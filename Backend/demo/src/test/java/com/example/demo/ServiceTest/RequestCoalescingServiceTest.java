@@ -0,0 +1,123 @@
+package com.example.demo.ServiceTest;
+
+import com.example.demo.Services.RequestCoalescingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestCoalescingServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RequestCoalescingService requestCoalescingService;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        requestCoalescingService = new RequestCoalescingService(meterRegistry, 60000L, 2000L, 16);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        requestCoalescingService.shutdown();
+    }
+
+    @Test
+    public void testExecute_ConcurrentCallersShareOneComputation() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        List<Future<String>> futures = new ArrayList<>();
+        int i = 0;
+        while (i < 8) {
+            futures.add(pool.submit(() -> requestCoalescingService.execute("ranking", "", "v1", () -> {
+                calls.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "result";
+            })));
+            i += 1;
+        }
+
+        Thread.sleep(200);
+        release.countDown();
+        for (Future<String> future : futures) {
+            assertEquals("result", future.get(5, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.counter("catalog.coalescing.requests", "cache", "ranking", "outcome", "computed").count());
+    }
+
+    @Test
+    public void testExecute_SameVersionReusesResult() {
+        AtomicInteger calls = new AtomicInteger();
+
+        requestCoalescingService.execute("inventory-filter", "a", "v1", calls::incrementAndGet);
+        Integer second = requestCoalescingService.execute("inventory-filter", "a", "v1", calls::incrementAndGet);
+
+        assertEquals(1, second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testExecute_DifferentKeysAreIndependent() {
+        AtomicInteger calls = new AtomicInteger();
+
+        requestCoalescingService.execute("inventory-filter", "a", "v1", calls::incrementAndGet);
+        requestCoalescingService.execute("inventory-filter", "b", "v1", calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testExecute_NewVersionServesStaleAndRefreshes() throws Exception {
+        requestCoalescingService.execute("ranking", "", "v1", () -> "old");
+
+        String stale = requestCoalescingService.execute("ranking", "", "v2", () -> "new");
+        assertEquals("old", stale);
+
+        // El recálculo en segundo plano deja el resultado nuevo para los siguientes llamados
+        String refreshed = stale;
+        long deadline = System.currentTimeMillis() + 2000;
+        while ("old".equals(refreshed) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            refreshed = requestCoalescingService.execute("ranking", "", "v2", () -> "new");
+        }
+        assertEquals("new", refreshed);
+    }
+
+    @Test
+    public void testExecuteCurrent_NeverServesAnotherVersion() {
+        requestCoalescingService.executeCurrent("ranking", "", "v1", () -> "old");
+
+        assertEquals("new", requestCoalescingService.executeCurrent("ranking", "", "v2", () -> "new"));
+        assertEquals(0.0, meterRegistry.counter("catalog.coalescing.requests", "cache", "ranking", "outcome", "stale").count());
+    }
+
+    @Test
+    public void testExecute_ErrorsAreNotCached() {
+        assertThrows(RuntimeException.class, () -> requestCoalescingService.execute("ranking", "", "v1", () -> {
+            throw new RuntimeException("db down");
+        }));
+
+        assertEquals("ok", requestCoalescingService.execute("ranking", "", "v1", () -> "ok"));
+    }
+}
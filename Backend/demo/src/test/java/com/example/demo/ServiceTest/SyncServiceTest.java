@@ -0,0 +1,100 @@
+package com.example.demo.ServiceTest;
+
+import com.example.demo.DTO.CatalogSyncDTO;
+import com.example.demo.Entities.CatalogTombstoneEntity;
+import com.example.demo.Entities.ToolEntity;
+import com.example.demo.Repositories.CatalogTombstoneRepository;
+import com.example.demo.Repositories.CategoryRepository;
+import com.example.demo.Repositories.InventoryRepository;
+import com.example.demo.Repositories.ToolRepository;
+import com.example.demo.Services.CatalogVersionService;
+import com.example.demo.Services.SyncService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class SyncServiceTest {
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    @Mock
+    private ToolRepository toolRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CatalogTombstoneRepository catalogTombstoneRepository;
+
+    @InjectMocks
+    private SyncService syncService;
+
+    private ToolEntity tool;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tool = new ToolEntity();
+        tool.setId(1L);
+        tool.setToolName("Hammer");
+        tool.setChangeVersion(12L);
+
+        when(catalogVersionService.currentVersion()).thenReturn(15L);
+    }
+
+    @Test
+    public void testGetChangesSince_NullReturnsFullSnapshot() {
+        when(toolRepository.findAll()).thenReturn(List.of(tool));
+
+        CatalogSyncDTO result = syncService.getChangesSince(null);
+
+        assertTrue(result.isFull());
+        assertEquals(15L, result.getVersion());
+        assertEquals(1, result.getTools().size());
+        verify(toolRepository, never()).findByChangeVersionBetween(anyLong(), anyLong());
+    }
+
+    @Test
+    public void testGetChangesSince_ReturnsOnlyNewerChanges() {
+        CatalogTombstoneEntity deleted = new CatalogTombstoneEntity(1L, "category", 3L, 14L);
+        when(toolRepository.findByChangeVersionBetween(11L, 15L)).thenReturn(List.of(tool));
+        when(catalogTombstoneRepository.findByChangeVersionBetween(11L, 15L)).thenReturn(List.of(deleted));
+
+        CatalogSyncDTO result = syncService.getChangesSince(10L);
+
+        assertFalse(result.isFull());
+        assertEquals(15L, result.getVersion());
+        assertEquals(1, result.getTools().size());
+        assertEquals(1, result.getDeleted().size());
+        verify(toolRepository, never()).findAll();
+    }
+
+    @Test
+    public void testGetChangesSince_UpToDateReturnsEmpty() {
+        CatalogSyncDTO result = syncService.getChangesSince(15L);
+
+        assertFalse(result.isFull());
+        assertTrue(result.getTools().isEmpty());
+        assertTrue(result.getInventory().isEmpty());
+        verifyNoInteractions(toolRepository, inventoryRepository, categoryRepository, catalogTombstoneRepository);
+    }
+
+    @Test
+    public void testGetChangesSince_FutureVersionReturnsFullSnapshot() {
+        CatalogSyncDTO result = syncService.getChangesSince(99L);
+        assertTrue(result.isFull());
+        verify(toolRepository, times(1)).findAll();
+    }
+}
@@ -1,26 +1,28 @@
 package com.example.demo.ServiceTest;
 
 import com.example.demo.Entities.CategoryEntity;
-import com.example.demo.Entities.InventoryEntity;
 import com.example.demo.Entities.ToolEntity;
 import com.example.demo.Entities.UserEntity;
-import com.example.demo.Entities.ToolStateEntity;
 import com.example.demo.Repositories.InventoryRepository;
 import com.example.demo.Repositories.ToolRepository;
+import com.example.demo.Services.CatalogVersionService;
 import com.example.demo.Services.CategoryService;
+import com.example.demo.Services.ChangeCounterService;
 import com.example.demo.Services.FileStorageService;
+import com.example.demo.Services.ImageVariantService;
+import com.example.demo.Services.InventoryUniqueIndexService;
+import com.example.demo.Services.RequestCoalescingService;
 import com.example.demo.Services.ToolService;
-import com.example.demo.Services.ToolStateService;
 import com.example.demo.Services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -45,7 +47,19 @@ public class ToolServiceTest {
     private CategoryService categoryService;
 
     @Mock
-    private ToolStateService toolStateService;
+    private CatalogVersionService catalogVersionService;
+
+    @Mock
+    private ChangeCounterService changeCounterService;
+
+    @Mock
+    private RequestCoalescingService requestCoalescingService;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    @Mock
+    private InventoryUniqueIndexService inventoryUniqueIndexService;
 
     @InjectMocks
     private ToolService toolService;
@@ -71,8 +85,6 @@ public class ToolServiceTest {
         user = new UserEntity();
         user.setId(1L);
         user.setRol("ADMIN");
-        
-        when(toolStateService.getAllStates()).thenReturn(new ArrayList<>());
     }
 
     @Test
@@ -106,13 +118,17 @@ public class ToolServiceTest {
         when(fileStorageService.saveFile(image)).thenReturn("image.jpg");
         when(categoryService.createCategory(any(CategoryEntity.class))).thenReturn(category);
         when(toolRepository.save(any(ToolEntity.class))).thenReturn(tool);
-        when(toolStateService.getAllStates()).thenReturn(Collections.singletonList(new ToolStateEntity()));
+        when(catalogVersionService.nextVersion()).thenReturn(7L);
 
         ToolEntity result = toolService.createTool(user, tool, image);
 
         assertNotNull(result);
         verify(userService, times(1)).isAdmin(user);
-        verify(inventoryRepository, atLeastOnce()).save(any(InventoryEntity.class));
+        // El índice único que usa ON CONFLICT se garantiza antes del insert
+        InOrder order = inOrder(inventoryUniqueIndexService, inventoryRepository);
+        order.verify(inventoryUniqueIndexService).ensureUniqueIndex();
+        order.verify(inventoryRepository, times(1)).insertAllStatesForTool(tool.getId(), 7L);
+        verify(imageVariantService, times(1)).generateAsync("image.jpg");
     }
 
     @Test
@@ -158,6 +174,41 @@ public class ToolServiceTest {
         verify(userService, times(1)).isAdmin(user);
     }
 
+    @Test
+    public void testUpdateTool_KeepsImageSharedWithOtherTools() {
+        MultipartFile image = mock(MultipartFile.class);
+        tool.setImageUrl("ab/cd/shared.png");
+        when(image.isEmpty()).thenReturn(false);
+        when(userService.findUserById(1L)).thenReturn(user);
+        when(toolRepository.findById(1L)).thenReturn(Optional.of(tool));
+        when(fileStorageService.saveFile(image)).thenReturn("ef/01/new.png");
+        when(toolRepository.save(any(ToolEntity.class))).thenReturn(tool);
+
+        toolService.updateTool(1L, 1L, new ToolEntity(), image);
+
+        assertEquals("ef/01/new.png", tool.getImageUrl());
+        verify(fileStorageService).saveFile(image);
+        verifyNoMoreInteractions(fileStorageService);
+    }
+
+    @Test
+    public void testUpdateTool_LeavesPreviousImageToTheCollector() {
+        MultipartFile image = mock(MultipartFile.class);
+        tool.setImageUrl("ab/cd/old.png");
+        when(image.isEmpty()).thenReturn(false);
+        when(userService.findUserById(1L)).thenReturn(user);
+        when(toolRepository.findById(1L)).thenReturn(Optional.of(tool));
+        when(fileStorageService.saveFile(image)).thenReturn("ef/01/new.png");
+        when(toolRepository.save(any(ToolEntity.class))).thenReturn(tool);
+
+        toolService.updateTool(1L, 1L, new ToolEntity(), image);
+
+        // Aunque ya nadie la referencie, la borra OrphanImageCollectorService tras el período de gracia
+        assertEquals("ef/01/new.png", tool.getImageUrl());
+        verify(fileStorageService).saveFile(image);
+        verifyNoMoreInteractions(fileStorageService);
+    }
+
     @Test
     public void testUpdateTool_PartialUpdate() {
         when(userService.findUserById(1L)).thenReturn(user);
@@ -21,6 +21,7 @@ import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 
 public class UserServiceTest {
 
@@ -254,4 +255,31 @@ public class UserServiceTest {
         user.setLoans(5);
         assertFalse(userService.canDoAnotherLoan(user));
     }
+
+    @Test
+    public void testReserveLoanSlot() {
+        user.setLoans(4);
+        when(userRepository.incrementLoans(1L, UserService.MAX_ACTIVE_LOANS)).thenReturn(1);
+        assertTrue(userService.reserveLoanSlot(user));
+        assertEquals(5, user.getLoans());
+
+        // El UPDATE condicional no encontró cupo (otro pedido llegó primero)
+        when(userRepository.incrementLoans(1L, UserService.MAX_ACTIVE_LOANS)).thenReturn(0);
+        assertFalse(userService.reserveLoanSlot(user));
+        assertEquals(5, user.getLoans());
+        verify(userRepository, never()).save(any(UserEntity.class));
+    }
+
+    @Test
+    public void testReleaseLoanSlot() {
+        user.setLoans(2);
+        when(userRepository.decrementLoans(1L)).thenReturn(1);
+        userService.releaseLoanSlot(user);
+        assertEquals(1, user.getLoans());
+
+        when(userRepository.decrementLoans(1L)).thenReturn(0);
+        user.setLoans(0);
+        userService.releaseLoanSlot(user);
+        assertEquals(0, user.getLoans());
+    }
 }
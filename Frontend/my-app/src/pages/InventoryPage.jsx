@@ -99,7 +99,7 @@ const InventoryPage = ({ category = null }) => {
             price: t.priceRent || t.price || 0,
             // Support both string (old) and object (new entity)
             category: (typeof t.category === 'string' ? t.category : t.category?.name) || category,
-            image: t.imageUrl ? `/images/${t.imageUrl}` : '/images/NoImage.png',
+            image: t.imageUrl ? `/images/${t.imageUrl}?w=320` : '/images/NoImage.png',
             stock: 0,
           });
         }
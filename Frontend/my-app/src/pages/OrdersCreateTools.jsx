@@ -70,7 +70,7 @@ const OrdersCreateTools = () => {
             name: t.toolName || t.name || '—',
             price: t.priceRent || t.price || 0,
             category: (typeof t.category === 'string' ? t.category : t.category?.name) || '',
-            image: t.imageUrl ? `/images/${t.imageUrl}` : '/images/NoImage.png',
+            image: t.imageUrl ? `/images/${t.imageUrl}?w=320` : '/images/NoImage.png',
             stock: 0,
           });
         }